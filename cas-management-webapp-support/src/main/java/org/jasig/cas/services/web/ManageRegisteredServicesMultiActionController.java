@@ -1,16 +1,22 @@
 package org.jasig.cas.services.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.jasig.cas.authentication.principal.Service;
 import org.jasig.cas.authentication.principal.WebApplicationServiceFactory;
 import org.jasig.cas.services.RegexRegisteredService;
 import org.jasig.cas.services.RegisteredService;
 import org.jasig.cas.services.ReloadableServicesManager;
-import org.jasig.cas.services.web.beans.RegisteredServiceViewBean;
 import org.jasig.cas.services.web.factory.RegisteredServiceFactory;
+import org.jasig.cas.services.web.factory.RegisteredServiceFilterCache;
 import org.jasig.cas.services.web.view.JsonViewUtils;
+import org.jasig.cas.support.events.AbstractCasEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceDeletedEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
+import org.jasig.cas.support.events.CasRegisteredServicesLoadedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -21,10 +27,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -35,7 +44,8 @@ import java.util.Map;
  * @since 3.1
  */
 @Controller("manageRegisteredServicesMultiActionController")
-public final class ManageRegisteredServicesMultiActionController extends AbstractManagementController {
+public final class ManageRegisteredServicesMultiActionController extends AbstractManagementController
+        implements ApplicationListener<AbstractCasEvent> {
 
     /**
      * Instance of the RegisteredServiceFactory.
@@ -46,6 +56,10 @@ public final class ManageRegisteredServicesMultiActionController extends Abstrac
     @NotNull
     private final Service defaultService;
 
+    /** What the registered services are filtered by. */
+    @NotNull
+    private final RegisteredServiceFilterCache filterCache;
+
     /**
      * Instantiates a new manage registered services multi action controller.
      *
@@ -61,6 +75,7 @@ public final class ManageRegisteredServicesMultiActionController extends Abstrac
         super(servicesManager);
         this.registeredServiceFactory = registeredServiceFactory;
         this.defaultService = new WebApplicationServiceFactory().createService(defaultServiceUrl);
+        this.filterCache = new RegisteredServiceFilterCache();
     }
 
     /**
@@ -148,22 +163,60 @@ public final class ManageRegisteredServicesMultiActionController extends Abstrac
     }
 
     /**
-     * Gets services.
+     * Gets all services.
      *
      * @param response the response
      */
-    @RequestMapping(value="getServices.html", method={RequestMethod.GET})
     public void getServices(final HttpServletResponse response) {
+        getServices(response, 0, 0, null, null, null);
+    }
+
+    /**
+     * Gets services, ordered by their evaluation order. The services are streamed
+     * to the response along with the total number of services that match the filters.
+     *
+     * @param response the response
+     * @param start the number of matching services to skip
+     * @param count the maximum number of services to return; 0 or less returns all of them
+     * @param name returns only services whose name contains this, ignoring case
+     * @param serviceId returns only services whose service id contains this, ignoring case
+     * @param tenant returns only services of this tenant
+     */
+    @RequestMapping(value="getServices.html", method={RequestMethod.GET})
+    public void getServices(final HttpServletResponse response,
+                            @RequestParam(value="start", defaultValue="0") final int start,
+                            @RequestParam(value="count", defaultValue="0") final int count,
+                            @RequestParam(value="name", required=false) final String name,
+                            @RequestParam(value="serviceId", required=false) final String serviceId,
+                            @RequestParam(value="tenant", required=false) final String tenant) {
         ensureDefaultServiceExists();
-        final Map<String, Object> model = new HashMap<>();
-        final List<RegisteredServiceViewBean> serviceBeans = new ArrayList<>();
         final List<RegisteredService> services = new ArrayList<>(this.servicesManager.getAllServices());
-        for (final RegisteredService svc : services) {
-            serviceBeans.add(registeredServiceFactory.createServiceViewBean(svc));
+        Collections.sort(services);
+
+        final String nameFilter = toFilter(name);
+        final String serviceIdFilter = toFilter(serviceId);
+        final String tenantFilter = toFilter(tenant);
+        final long end = count > 0 ? (long) start + count : Long.MAX_VALUE;
+        try (final JsonGenerator generator = JsonViewUtils.createGenerator(response)) {
+            generator.writeStartObject();
+            generator.writeNumberField("status", HttpServletResponse.SC_OK);
+            generator.writeArrayFieldStart("services");
+            int matches = 0;
+            for (final RegisteredService svc : services) {
+                if (this.filterCache.get(svc).matches(nameFilter, serviceIdFilter, tenantFilter)) {
+                    if (matches >= start && matches < end) {
+                        generator.writeObject(this.registeredServiceFactory.createServiceViewBean(svc));
+                    }
+                    matches++;
+                }
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("start", start);
+            generator.writeNumberField("total", matches);
+            generator.writeEndObject();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
         }
-        model.put("services", serviceBeans);
-        model.put("status", HttpServletResponse.SC_OK);
-        JsonViewUtils.render(model, response);
     }
 
     /**
@@ -192,5 +245,29 @@ public final class ManageRegisteredServicesMultiActionController extends Abstrac
         JsonViewUtils.render(model, response);
     }
 
+    /**
+     * Forgets what services that were saved or deleted are filtered by.
+     *
+     * @param event the event
+     */
+    @Override
+    public void onApplicationEvent(final AbstractCasEvent event) {
+        if (event instanceof CasRegisteredServiceSavedEvent) {
+            this.filterCache.invalidate(((CasRegisteredServiceSavedEvent) event).getRegisteredService().getId());
+        } else if (event instanceof CasRegisteredServiceDeletedEvent) {
+            this.filterCache.invalidate(((CasRegisteredServiceDeletedEvent) event).getRegisteredService().getId());
+        } else if (event instanceof CasRegisteredServicesLoadedEvent) {
+            this.filterCache.retain(((CasRegisteredServicesLoadedEvent) event).getServices());
+        }
+    }
 
+    /**
+     * Turn a request parameter into a filter.
+     *
+     * @param value the parameter value
+     * @return the lower case value, or null if it is blank
+     */
+    private static String toFilter(final String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim().toLowerCase(Locale.ENGLISH);
+    }
 }
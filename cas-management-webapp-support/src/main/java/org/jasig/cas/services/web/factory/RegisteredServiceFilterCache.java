@@ -0,0 +1,120 @@
+package org.jasig.cas.services.web.factory;
+
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.web.flow.AuthUtils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers what each registered service is filtered by, so that listing services does not
+ * lower-case the name and service id, nor extract the tenant, of each one on every request.
+ * View beans are not kept; they are created only for the services that are listed.
+ *
+ * <p>An entry is reused for as long as the service it was created from is equal to the
+ * registered one. Entries are forgotten explicitly when their service is saved or deleted.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class RegisteredServiceFilterCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the cache entry of the service, creating it if necessary.
+     *
+     * @param service the registered service
+     * @return the entry
+     */
+    public Entry get(final RegisteredService service) {
+        Entry entry = this.entries.get(service.getId());
+        if (entry == null || entry.service != service && !entry.service.equals(service)) {
+            entry = new Entry(service);
+            this.entries.put(service.getId(), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Forget the entry of the service.
+     *
+     * @param id the id of the registered service
+     */
+    public void invalidate(final long id) {
+        this.entries.remove(id);
+    }
+
+    /**
+     * Forget the entries of services that are no longer registered.
+     *
+     * @param services the registered services
+     */
+    public void retain(final Collection<RegisteredService> services) {
+        final Set<Long> ids = new HashSet<>(services.size());
+        for (final RegisteredService service : services) {
+            ids.add(service.getId());
+        }
+        this.entries.keySet().retainAll(ids);
+    }
+
+    /**
+     * Forget all entries.
+     */
+    public void invalidateAll() {
+        this.entries.clear();
+    }
+
+    /**
+     * The values a registered service is filtered by.
+     */
+    public static final class Entry {
+        private final RegisteredService service;
+
+        private final String name;
+
+        private final String serviceId;
+
+        private final String tenant;
+
+        /**
+         * Instantiates a new entry.
+         *
+         * @param service the registered service
+         */
+        Entry(final RegisteredService service) {
+            this.service = service;
+            this.name = lowerCase(service.getName());
+            this.serviceId = lowerCase(service.getServiceId());
+            this.tenant = AuthUtils.extractTenantID(stripAnchor(service.getServiceId()));
+        }
+
+        /**
+         * Whether the service matches the filters. Names and service ids match if they contain
+         * the filter, ignoring case; tenants match if they are equal, ignoring case.
+         * Filters are expected in lower case.
+         *
+         * @param nameFilter the name filter; null matches any name
+         * @param serviceIdFilter the service id filter; null matches any service id
+         * @param tenantFilter the tenant filter; null matches any tenant
+         * @return true, if the service matches all filters
+         */
+        public boolean matches(final String nameFilter, final String serviceIdFilter, final String tenantFilter) {
+            return (nameFilter == null || this.name.contains(nameFilter))
+                    && (serviceIdFilter == null || this.serviceId.contains(serviceIdFilter))
+                    && (tenantFilter == null || tenantFilter.equalsIgnoreCase(this.tenant));
+        }
+
+        private static String lowerCase(final String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ENGLISH);
+        }
+
+        private static String stripAnchor(final String serviceId) {
+            return serviceId != null && serviceId.startsWith("^") ? serviceId.substring(1) : serviceId;
+        }
+    }
+}
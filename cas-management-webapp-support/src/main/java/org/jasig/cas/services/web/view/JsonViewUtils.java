@@ -1,10 +1,15 @@
 package org.jasig.cas.services.web.view;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.http.server.ServletServerHttpResponse;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -15,9 +20,27 @@ import java.util.Map;
  */
 public final class JsonViewUtils {
 
+    /** Object mapper of generators, configured like the one of {@link MappingJackson2HttpMessageConverter}. */
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
     /** Private constructor. */
     private JsonViewUtils() {}
 
+    /**
+     * Create a generator that streams json to the response, for models that are too large
+     * to be rendered at once. Objects written with {@link JsonGenerator#writeObject(Object)}
+     * are serialized as by {@link #render(Object, HttpServletResponse)}.
+     *
+     * @param response the response
+     * @return the generator; closing it flushes the response
+     * @throws IOException if the response cannot be written
+     */
+    public static JsonGenerator createGenerator(final HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(JsonEncoding.UTF8.getJavaName());
+        return OBJECT_MAPPER.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+    }
+
     /**
      * Render model and view.
      *
@@ -9,11 +9,15 @@ import org.jasig.cas.services.web.beans.RegisteredServiceEditBean.ServiceData;
 import org.jasig.cas.services.web.beans.RegisteredServiceViewBean;
 import org.jasig.cas.services.web.factory.DefaultRegisteredServiceFactory;
 import org.jasig.cas.services.web.factory.DefaultRegisteredServiceMapper;
+import org.jasig.cas.services.web.factory.RegisteredServiceFactory;
 import org.jasig.cas.services.web.factory.RegisteredServiceMapper;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.servlet.ModelAndView;
@@ -108,6 +112,82 @@ public class ManageRegisteredServicesMultiActionControllerTests {
         assertTrue(content.contains("uniqueDescription"));
     }
 
+    @Test
+    public void verifyServicesArePagedAndFiltered() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            final RegisteredServiceImpl r = new RegisteredServiceImpl();
+            r.setId(1000 + i);
+            r.setName("client" + i);
+            r.setDescription("description" + i);
+            r.setServiceId("https://tenant" + i % 2 + ".wavity.com/app" + i);
+            r.setEvaluationOrder(10 - i);
+            this.servicesManager.save(r);
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.controller.getServices(response, 1, 2, "CLIENT", null, null);
+        String content = response.getContentAsString();
+        assertTrue(content.contains("\"total\":5"));
+        assertTrue(content.contains("description3"));
+        assertTrue(content.contains("description2"));
+        assertFalse(content.contains("description4"));
+        assertFalse(content.contains("description1"));
+        assertTrue(content.indexOf("description3") < content.indexOf("description2"));
+
+        response = new MockHttpServletResponse();
+        this.controller.getServices(response, 0, 0, null, null, "tenant1");
+        content = response.getContentAsString();
+        assertTrue(content.contains("\"total\":2"));
+        assertTrue(content.contains("description1"));
+        assertTrue(content.contains("description3"));
+    }
+
+    @Test
+    public void verifyViewBeansAreCreatedOnlyForListedServices() throws Exception {
+        final RegisteredServiceFactory factory = mock(RegisteredServiceFactory.class);
+        when(factory.createServiceViewBean(any(RegisteredService.class))).thenAnswer(new Answer<RegisteredServiceViewBean>() {
+            @Override
+            public RegisteredServiceViewBean answer(final InvocationOnMock invocation) throws Throwable {
+                return registeredServiceFactory.createServiceViewBean((RegisteredService) invocation.getArguments()[0]);
+            }
+        });
+        this.controller = new ManageRegisteredServicesMultiActionController(this.servicesManager, factory, "foo");
+
+        for (int i = 0; i < 5; i++) {
+            final RegisteredServiceImpl r = new RegisteredServiceImpl();
+            r.setId(1000 + i);
+            r.setName("client" + i);
+            r.setServiceId("https://tenant" + i % 2 + ".wavity.com/app" + i);
+            r.setEvaluationOrder(i);
+            this.servicesManager.save(r);
+        }
+
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        this.controller.getServices(response, 1, 2, "client", null, null);
+        assertTrue(response.getContentAsString().contains("\"total\":5"));
+        verify(factory, times(2)).createServiceViewBean(any(RegisteredService.class));
+    }
+
+    @Test
+    public void verifySavedServiceIsRenderedAgain() throws Exception {
+        final RegisteredServiceImpl r = new RegisteredServiceImpl();
+        r.setId(1200);
+        r.setName("name");
+        r.setDescription("oldDescription");
+        r.setServiceId("test");
+        r.setEvaluationOrder(2);
+        this.servicesManager.save(r);
+        this.controller.getServices(new MockHttpServletResponse());
+
+        r.setDescription("newDescription");
+        this.servicesManager.save(r);
+        this.controller.onApplicationEvent(new CasRegisteredServiceSavedEvent(this, r));
+
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        this.controller.getServices(response);
+        assertTrue(response.getContentAsString().contains("newDescription"));
+    }
+
     @Test
     public void verifyCustomComponents() throws Exception {
         // override the RegisteredServiceMapper
@@ -0,0 +1,129 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.authentication.AcceptUsersAuthenticationHandler;
+import org.jasig.cas.authentication.Authentication;
+import org.jasig.cas.authentication.BasicCredentialMetaData;
+import org.jasig.cas.authentication.DefaultAuthenticationBuilder;
+import org.jasig.cas.authentication.DefaultHandlerResult;
+import org.jasig.cas.authentication.UsernamePasswordCredential;
+import org.jasig.cas.authentication.principal.DefaultPrincipalFactory;
+import org.jasig.cas.authentication.principal.Principal;
+import org.jasig.cas.authentication.principal.WebApplicationService;
+import org.jasig.cas.authentication.principal.WebApplicationServiceFactory;
+import org.jasig.cas.services.RegexRegisteredService;
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
+import org.jasig.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared data for the benchmarks. Everything is built in memory,
+ * so that benchmarks run without any network access.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class BenchmarkFixtures {
+
+    /** Ticket granting ticket id. */
+    public static final String TGT_ID = "TGT-1-RpHLwPwqgEzXBeWbhEYlDAN3M0fmT3nJ6vRlQeQRkt3YkfSeyC-cas01.example.org";
+
+    /** User name of the authenticated principal. */
+    public static final String USERNAME = "casuser";
+
+    private static final WebApplicationServiceFactory SERVICE_FACTORY = new WebApplicationServiceFactory();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Create a web application service.
+     *
+     * @param url the service url
+     * @return the service
+     */
+    public static WebApplicationService getService(final String url) {
+        return SERVICE_FACTORY.createService(url);
+    }
+
+    /**
+     * Create registered services that each match a distinct host, in evaluation order.
+     *
+     * @param count the number of services
+     * @return the registered services
+     */
+    public static List<RegisteredService> getRegisteredServices(final int count) {
+        final List<RegisteredService> services = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final RegexRegisteredService service = new RegexRegisteredService();
+            service.setId(i);
+            service.setName("Service " + i);
+            service.setEvaluationOrder(i);
+            service.setServiceId("^https://app" + i + "\\.example\\.org/.*");
+            services.add(service);
+        }
+        return services;
+    }
+
+    /**
+     * Create a principal with a typical set of directory attributes.
+     *
+     * @return the principal
+     */
+    public static Principal getPrincipal() {
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("uid", USERNAME);
+        attributes.put("cn", "CAS User");
+        attributes.put("givenName", "CAS");
+        attributes.put("sn", "User");
+        attributes.put("mail", "casuser@example.org");
+        attributes.put("eduPersonAffiliation", new ArrayList<>(Arrays.asList("staff", "member")));
+        attributes.put("memberOf", new ArrayList<>(Arrays.asList(
+                "cn=staff,ou=groups,dc=example,dc=org",
+                "cn=cas-admins,ou=groups,dc=example,dc=org",
+                "cn=vpn-users,ou=groups,dc=example,dc=org")));
+        return new DefaultPrincipalFactory().createPrincipal(USERNAME, attributes);
+    }
+
+    /**
+     * Create an authentication of {@link #getPrincipal()} by a password handler.
+     *
+     * @return the authentication
+     */
+    public static Authentication getAuthentication() {
+        final BasicCredentialMetaData metadata = new BasicCredentialMetaData(
+                new UsernamePasswordCredential(USERNAME, "Mellon"));
+        final AcceptUsersAuthenticationHandler handler = new AcceptUsersAuthenticationHandler();
+        handler.setName("PasswordHandler");
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("authenticationMethod", handler.getName());
+        return new DefaultAuthenticationBuilder(getPrincipal())
+                .setAuthenticationDate(new DateTime())
+                .addCredential(metadata)
+                .addSuccess(handler.getName(), new DefaultHandlerResult(handler, metadata))
+                .setAttributes(attributes)
+                .build();
+    }
+
+    /**
+     * Create a ticket granting ticket that has been used to access a few services.
+     *
+     * @param services the number of services accessed
+     * @return the ticket
+     */
+    public static TicketGrantingTicketImpl getTicketGrantingTicket(final int services) {
+        final TicketGrantingTicketImpl ticket = new TicketGrantingTicketImpl(TGT_ID, getAuthentication(),
+                new NeverExpiresExpirationPolicy());
+        for (int i = 0; i < services; i++) {
+            ticket.grantServiceTicket("ST-" + i + "-jGxpLpEQVdxFQqXKeYfd-cas01.example.org",
+                    getService("https://app" + i + ".example.org/login"), new NeverExpiresExpirationPolicy(), false, false);
+        }
+        return ticket;
+    }
+}
@@ -0,0 +1,78 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.CasViewConstants;
+import org.jasig.cas.authentication.Authentication;
+import org.jasig.cas.authentication.principal.WebApplicationService;
+import org.jasig.cas.authentication.support.DefaultCasAttributeEncoder;
+import org.jasig.cas.services.DefaultServicesManagerImpl;
+import org.jasig.cas.services.InMemoryServiceRegistryDaoImpl;
+import org.jasig.cas.validation.ImmutableAssertion;
+import org.jasig.cas.web.view.Cas30JsonResponseView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks rendering a successful CAS 3 validation response as JSON
+ * with {@link Cas30JsonResponseView}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Cas30JsonResponseViewBenchmarks {
+
+    private Cas30JsonResponseView view;
+
+    private ImmutableAssertion assertion;
+
+    private WebApplicationService service;
+
+    /**
+     * Prepare the view and the assertion to render.
+     */
+    @Setup
+    public void setup() {
+        final InMemoryServiceRegistryDaoImpl dao = new InMemoryServiceRegistryDaoImpl();
+        dao.setRegisteredServices(BenchmarkFixtures.getRegisteredServices(1));
+        final DefaultServicesManagerImpl servicesManager = new DefaultServicesManagerImpl(dao);
+
+        this.view = new Cas30JsonResponseView();
+        this.view.setServicesManager(servicesManager);
+        this.view.setCasAttributeEncoder(new DefaultCasAttributeEncoder(servicesManager));
+
+        final Authentication authentication = BenchmarkFixtures.getAuthentication();
+        this.service = BenchmarkFixtures.getService("https://app0.example.org/login");
+        this.assertion = new ImmutableAssertion(authentication, Collections.singletonList(authentication),
+                this.service, true);
+    }
+
+    /**
+     * Render the validation response. The view consumes its model, so a new one is built each time.
+     *
+     * @return the rendered response
+     * @throws Exception if the view fails to render
+     */
+    @Benchmark
+    public String render() throws Exception {
+        final Map<String, Object> model = new HashMap<>();
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_ASSERTION, this.assertion);
+        model.put(CasViewConstants.MODEL_ATTRIBUTE_NAME_SERVICE, this.service);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        this.view.render(model, new MockHttpServletRequest(), response);
+        return response.getContentAsString();
+    }
+}
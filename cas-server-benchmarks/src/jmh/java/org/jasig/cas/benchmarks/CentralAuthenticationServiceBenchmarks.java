@@ -0,0 +1,116 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.CentralAuthenticationServiceImpl;
+import org.jasig.cas.authentication.principal.Service;
+import org.jasig.cas.services.DefaultServicesManagerImpl;
+import org.jasig.cas.services.InMemoryServiceRegistryDaoImpl;
+import org.jasig.cas.ticket.DefaultProxyGrantingTicketFactory;
+import org.jasig.cas.ticket.DefaultProxyTicketFactory;
+import org.jasig.cas.ticket.DefaultServiceTicketFactory;
+import org.jasig.cas.ticket.DefaultTicketFactory;
+import org.jasig.cas.ticket.DefaultTicketGrantingTicketFactory;
+import org.jasig.cas.ticket.ServiceTicket;
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.ticket.UniqueTicketIdGenerator;
+import org.jasig.cas.ticket.registry.DefaultTicketRegistry;
+import org.jasig.cas.ticket.support.MultiTimeUseOrTimeoutExpirationPolicy;
+import org.jasig.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.jasig.cas.util.DefaultUniqueTicketIdGenerator;
+import org.jasig.cas.validation.Assertion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the service ticket round trip of {@link CentralAuthenticationServiceImpl}:
+ * a service ticket is granted for an existing ticket granting ticket and validated right away,
+ * with tickets held by a {@link DefaultTicketRegistry}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CentralAuthenticationServiceBenchmarks {
+
+    private static final int REGISTERED_SERVICES = 100;
+
+    private static final long SERVICE_TICKET_TIME_TO_KILL = 10000;
+
+    private CentralAuthenticationServiceImpl centralAuthenticationService;
+
+    private String ticketGrantingTicketId;
+
+    private Service service;
+
+    /**
+     * Build the central authentication service with in-memory components.
+     */
+    @Setup
+    public void setup() {
+        final InMemoryServiceRegistryDaoImpl dao = new InMemoryServiceRegistryDaoImpl();
+        dao.setRegisteredServices(BenchmarkFixtures.getRegisteredServices(REGISTERED_SERVICES));
+        final DefaultServicesManagerImpl servicesManager = new DefaultServicesManagerImpl(dao);
+
+        final DefaultTicketGrantingTicketFactory ticketGrantingTicketFactory = new DefaultTicketGrantingTicketFactory();
+        ticketGrantingTicketFactory.setTicketGrantingTicketUniqueTicketIdGenerator(new DefaultUniqueTicketIdGenerator());
+        ticketGrantingTicketFactory.setTicketGrantingTicketExpirationPolicy(new NeverExpiresExpirationPolicy());
+
+        final DefaultServiceTicketFactory serviceTicketFactory = new DefaultServiceTicketFactory();
+        serviceTicketFactory.setUniqueTicketIdGeneratorsForService(
+                Collections.<String, UniqueTicketIdGenerator>emptyMap());
+        serviceTicketFactory.setServiceTicketExpirationPolicy(
+                new MultiTimeUseOrTimeoutExpirationPolicy(1, SERVICE_TICKET_TIME_TO_KILL));
+
+        final DefaultTicketFactory ticketFactory = new DefaultTicketFactory();
+        ticketFactory.setTicketGrantingTicketFactory(ticketGrantingTicketFactory);
+        ticketFactory.setServiceTicketFactory(serviceTicketFactory);
+        ticketFactory.setProxyGrantingTicketFactory(new DefaultProxyGrantingTicketFactory());
+        ticketFactory.setProxyTicketFactory(new DefaultProxyTicketFactory());
+        ticketFactory.initialize();
+
+        final DefaultTicketRegistry ticketRegistry = new DefaultTicketRegistry();
+        final TicketGrantingTicket ticketGrantingTicket = ticketGrantingTicketFactory.create(
+                BenchmarkFixtures.getAuthentication());
+        ticketRegistry.addTicket(ticketGrantingTicket);
+        this.ticketGrantingTicketId = ticketGrantingTicket.getId();
+
+        // the logout manager is only used when ticket granting tickets are destroyed
+        this.centralAuthenticationService = new CentralAuthenticationServiceImpl(ticketRegistry,
+                ticketFactory, servicesManager, null);
+        this.centralAuthenticationService.setApplicationEventPublisher(new ApplicationEventPublisher() {
+            @Override
+            public void publishEvent(final ApplicationEvent event) {
+            }
+
+            @Override
+            public void publishEvent(final Object event) {
+            }
+        });
+
+        this.service = BenchmarkFixtures.getService("https://app" + (REGISTERED_SERVICES / 2) + ".example.org/login");
+    }
+
+    /**
+     * Grant a service ticket and validate it.
+     *
+     * @return the assertion
+     * @throws Exception if the ticket cannot be granted or validated
+     */
+    @Benchmark
+    public Assertion grantAndValidateServiceTicket() throws Exception {
+        final ServiceTicket serviceTicket = this.centralAuthenticationService.grantServiceTicket(
+                this.ticketGrantingTicketId, this.service, null);
+        return this.centralAuthenticationService.validateServiceTicket(serviceTicket.getId(), this.service);
+    }
+}
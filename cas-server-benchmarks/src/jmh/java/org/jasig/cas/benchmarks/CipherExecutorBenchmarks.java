@@ -0,0 +1,64 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.util.DefaultCipherExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DefaultCipherExecutor} encoding and decoding a ticket granting cookie value.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CipherExecutorBenchmarks {
+
+    private static final String ENCRYPTION_KEY = "1PbwSbnHeinpkZOSZjuSJ8yYpUrInm5aaV18J2Ar4rM";
+
+    private static final String SIGNING_KEY =
+            "szxK-5_eJjs-aUj-64MpUZ-GPPzGLhYPLGl0wrYjYNVAGva2P0lLe6UGKGM7k8dWxsOVGutZWgvmY3l5oVPO3w";
+
+    private final DefaultCipherExecutor cipherExecutor = new DefaultCipherExecutor(ENCRYPTION_KEY, SIGNING_KEY);
+
+    private String value;
+
+    private String encoded;
+
+    /**
+     * Prepare the value and its encoded form.
+     */
+    @Setup
+    public void setup() {
+        this.value = BenchmarkFixtures.TGT_ID + "@127.0.0.1@Mozilla/5.0 (X11; Linux x86_64) Firefox/42.0";
+        this.encoded = this.cipherExecutor.encode(this.value);
+    }
+
+    /**
+     * Encrypt and sign the value.
+     *
+     * @return the encoded value
+     */
+    @Benchmark
+    public String encode() {
+        return this.cipherExecutor.encode(this.value);
+    }
+
+    /**
+     * Verify and decrypt the value.
+     *
+     * @return the decoded value
+     */
+    @Benchmark
+    public String decode() {
+        return this.cipherExecutor.decode(this.encoded);
+    }
+}
@@ -0,0 +1,53 @@
+package org.jasig.cas.benchmarks;
+
+import com.duosecurity.duoweb.DuoWeb;
+import org.jasig.cas.adaptors.duo.DuoRequestSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks signing Duo requests with {@link DuoRequestSigner}, which prepares keys once,
+ * against {@link DuoWeb}, which prepares them for every request.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DuoRequestSignerBenchmarks {
+
+    private static final String INTEGRATION_KEY = "DIXXXXXXXXXXXXXXXXXX";
+
+    private static final String SECRET_KEY = "deadbeefdeadbeefdeadbeefdeadbeefdeadbeef";
+
+    private static final String APPLICATION_KEY = "useacustomerprovidedapplicationsecretkey";
+
+    private final DuoRequestSigner signer = new DuoRequestSigner(INTEGRATION_KEY, SECRET_KEY, APPLICATION_KEY);
+
+    /**
+     * Sign a request with the prepared signer.
+     *
+     * @return the signed request
+     */
+    @Benchmark
+    public String signRequest() {
+        return this.signer.signRequest(BenchmarkFixtures.USERNAME);
+    }
+
+    /**
+     * Sign a request with the Duo web SDK.
+     *
+     * @return the signed request
+     */
+    @Benchmark
+    public String signRequestWithDuoWeb() {
+        return DuoWeb.signRequest(INTEGRATION_KEY, SECRET_KEY, APPLICATION_KEY, BenchmarkFixtures.USERNAME);
+    }
+}
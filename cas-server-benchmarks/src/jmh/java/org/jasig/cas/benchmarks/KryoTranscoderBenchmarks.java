@@ -0,0 +1,69 @@
+package org.jasig.cas.benchmarks;
+
+import net.spy.memcached.CachedData;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
+import org.jasig.cas.ticket.registry.support.kryo.KryoTranscoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link KryoTranscoder} used by the memcached ticket registry
+ * on ticket granting tickets that have accessed an increasing number of services.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KryoTranscoderBenchmarks {
+
+    /** Number of services accessed with the ticket. */
+    @Param({"1", "10"})
+    protected int services;
+
+    private KryoTranscoder transcoder;
+
+    private TicketGrantingTicketImpl ticket;
+
+    private CachedData encoded;
+
+    /**
+     * Prepare the transcoder and the ticket.
+     */
+    @Setup
+    public void setup() {
+        this.transcoder = new KryoTranscoder();
+        this.transcoder.initialize();
+        this.ticket = BenchmarkFixtures.getTicketGrantingTicket(this.services);
+        this.encoded = this.transcoder.encode(this.ticket);
+    }
+
+    /**
+     * Encode the ticket.
+     *
+     * @return the encoded ticket
+     */
+    @Benchmark
+    public CachedData encode() {
+        return this.transcoder.encode(this.ticket);
+    }
+
+    /**
+     * Decode the ticket.
+     *
+     * @return the decoded ticket
+     */
+    @Benchmark
+    public Object decode() {
+        return this.transcoder.decode(this.encoded);
+    }
+}
@@ -0,0 +1,93 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.services.DefaultServicesManagerImpl;
+import org.jasig.cas.services.InMemoryServiceRegistryDaoImpl;
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.support.oauth.OAuthUtils;
+import org.jasig.cas.support.oauth.services.OAuthRegisteredService;
+import org.jasig.cas.support.oauth.services.OAuthRegisteredServiceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks resolving an OAuth client and checking its redirect uri
+ * through the {@link OAuthRegisteredServiceIndex}, against scanning all registered services.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OAuthRegisteredServiceIndexBenchmarks {
+
+    /** Number of registered OAuth clients. */
+    @Param({"10", "1000"})
+    protected int clients;
+
+    private DefaultServicesManagerImpl servicesManager;
+
+    private OAuthRegisteredServiceIndex index;
+
+    private String clientId;
+
+    private String redirectUri;
+
+    /**
+     * Register the OAuth clients.
+     */
+    @Setup
+    public void setup() {
+        final List<RegisteredService> services = new ArrayList<>(this.clients);
+        for (int i = 0; i < this.clients; i++) {
+            final OAuthRegisteredService service = new OAuthRegisteredService();
+            service.setId(i);
+            service.setName("Client " + i);
+            service.setEvaluationOrder(i);
+            service.setServiceId("^https://app" + i + "\\.example\\.org/oauth/callback.*");
+            service.setClientId("client" + i);
+            service.setClientSecret("secret" + i);
+            services.add(service);
+        }
+        final InMemoryServiceRegistryDaoImpl dao = new InMemoryServiceRegistryDaoImpl();
+        dao.setRegisteredServices(services);
+        this.servicesManager = new DefaultServicesManagerImpl(dao);
+        this.index = new OAuthRegisteredServiceIndex(this.servicesManager);
+
+        final int last = this.clients - 1;
+        this.clientId = "client" + last;
+        this.redirectUri = "https://app" + last + ".example.org/oauth/callback?state=xyz";
+    }
+
+    /**
+     * Resolve the client and check the redirect uri through the index.
+     *
+     * @return whether the redirect uri is allowed
+     */
+    @Benchmark
+    public boolean resolveWithIndex() {
+        final OAuthRegisteredService service = this.index.getService(this.clientId);
+        return this.index.isRedirectUriAllowed(service, this.redirectUri);
+    }
+
+    /**
+     * Resolve the client and check the redirect uri by scanning the registered services.
+     *
+     * @return whether the redirect uri is allowed
+     */
+    @Benchmark
+    public boolean resolveWithServicesManager() {
+        final OAuthRegisteredService service = OAuthUtils.getRegisteredOAuthService(this.servicesManager, this.clientId);
+        return this.redirectUri.matches(service.getServiceId());
+    }
+}
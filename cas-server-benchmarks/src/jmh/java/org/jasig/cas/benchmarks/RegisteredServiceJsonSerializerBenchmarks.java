@@ -0,0 +1,76 @@
+package org.jasig.cas.benchmarks;
+
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.util.services.RegisteredServiceJsonSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RegisteredServiceJsonSerializer} writing and reading a registered service,
+ * as the JSON service registry and the other registries that store services as JSON do.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RegisteredServiceJsonSerializerBenchmarks {
+
+    /** Whether the JSON is formatted, as in service definition files. */
+    @Param({"false", "true"})
+    protected boolean prettyPrint;
+
+    private RegisteredServiceJsonSerializer serializer;
+
+    private RegisteredService service;
+
+    private byte[] json;
+
+    /**
+     * Prepare the service and its JSON form.
+     */
+    @Setup
+    public void setup() {
+        this.serializer = this.prettyPrint
+                ? new RegisteredServiceJsonSerializer(new DefaultPrettyPrinter())
+                : new RegisteredServiceJsonSerializer();
+        this.service = BenchmarkFixtures.getRegisteredServices(1).get(0);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.serializer.toJson(out, this.service);
+        this.json = out.toByteArray();
+    }
+
+    /**
+     * Write the service as JSON.
+     *
+     * @return the JSON
+     */
+    @Benchmark
+    public byte[] toJson() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(this.json.length);
+        this.serializer.toJson(out, this.service);
+        return out.toByteArray();
+    }
+
+    /**
+     * Read the service from JSON.
+     *
+     * @return the service
+     */
+    @Benchmark
+    public RegisteredService fromJson() {
+        return this.serializer.fromJson(new ByteArrayInputStream(this.json));
+    }
+}
@@ -0,0 +1,85 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.authentication.principal.Service;
+import org.jasig.cas.services.DefaultServicesManagerImpl;
+import org.jasig.cas.services.InMemoryServiceRegistryDaoImpl;
+import org.jasig.cas.services.RegisteredService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DefaultServicesManagerImpl#findServiceBy(Service)} against
+ * registries of increasing size, for services matched first, last and not at all.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServicesManagerBenchmarks {
+
+    /** Number of registered services. */
+    @Param({"10", "100", "1000"})
+    protected int registeredServices;
+
+    private DefaultServicesManagerImpl servicesManager;
+
+    private Service firstService;
+
+    private Service lastService;
+
+    private Service unknownService;
+
+    /**
+     * Load the registered services.
+     */
+    @Setup
+    public void setup() {
+        final InMemoryServiceRegistryDaoImpl dao = new InMemoryServiceRegistryDaoImpl();
+        dao.setRegisteredServices(BenchmarkFixtures.getRegisteredServices(this.registeredServices));
+        this.servicesManager = new DefaultServicesManagerImpl(dao);
+
+        this.firstService = BenchmarkFixtures.getService("https://app0.example.org/login");
+        this.lastService = BenchmarkFixtures.getService("https://app" + (this.registeredServices - 1) + ".example.org/login");
+        this.unknownService = BenchmarkFixtures.getService("https://unknown.example.com/login");
+    }
+
+    /**
+     * Find the service with the lowest evaluation order.
+     *
+     * @return the registered service
+     */
+    @Benchmark
+    public RegisteredService findFirstService() {
+        return this.servicesManager.findServiceBy(this.firstService);
+    }
+
+    /**
+     * Find the service with the highest evaluation order.
+     *
+     * @return the registered service
+     */
+    @Benchmark
+    public RegisteredService findLastService() {
+        return this.servicesManager.findServiceBy(this.lastService);
+    }
+
+    /**
+     * Look up a service that is not registered.
+     *
+     * @return null
+     */
+    @Benchmark
+    public RegisteredService findUnknownService() {
+        return this.servicesManager.findServiceBy(this.unknownService);
+    }
+}
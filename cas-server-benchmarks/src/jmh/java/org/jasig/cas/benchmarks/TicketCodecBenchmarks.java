@@ -0,0 +1,98 @@
+package org.jasig.cas.benchmarks;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.jasig.cas.ticket.Ticket;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
+import org.jasig.cas.ticket.registry.encrypt.CompactTicketCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link CompactTicketCodec} used by cryptic ticket registries
+ * against the plain Java serialization it replaces. Payload sizes of both encodings
+ * are logged when each trial starts.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketCodecBenchmarks {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TicketCodecBenchmarks.class);
+
+    /** Number of services accessed with the ticket. */
+    @Param({"1", "10"})
+    protected int services;
+
+    private final CompactTicketCodec codec = new CompactTicketCodec();
+
+    private TicketGrantingTicketImpl ticket;
+
+    private byte[] schemaEncoded;
+
+    private byte[] javaEncoded;
+
+    /**
+     * Prepare the ticket and its encoded forms.
+     */
+    @Setup
+    public void setup() {
+        this.ticket = BenchmarkFixtures.getTicketGrantingTicket(this.services);
+        this.schemaEncoded = this.codec.encode(this.ticket);
+        this.javaEncoded = SerializationUtils.serialize(this.ticket);
+        LOGGER.info("Ticket with {} services: {} bytes with the schema, {} bytes with Java serialization",
+                this.services, this.schemaEncoded.length, this.javaEncoded.length);
+    }
+
+    /**
+     * Encode the ticket with the schema.
+     *
+     * @return the encoded ticket
+     */
+    @Benchmark
+    public byte[] encodeWithSchema() {
+        return this.codec.encode(this.ticket);
+    }
+
+    /**
+     * Decode the ticket encoded with the schema.
+     *
+     * @return the decoded ticket
+     */
+    @Benchmark
+    public Ticket decodeWithSchema() {
+        return this.codec.decode(this.schemaEncoded);
+    }
+
+    /**
+     * Encode the ticket with Java serialization.
+     *
+     * @return the encoded ticket
+     */
+    @Benchmark
+    public byte[] encodeWithJavaSerialization() {
+        return SerializationUtils.serialize(this.ticket);
+    }
+
+    /**
+     * Decode the ticket encoded with Java serialization.
+     *
+     * @return the decoded ticket
+     */
+    @Benchmark
+    public Object decodeWithJavaSerialization() {
+        return SerializationUtils.deserialize(this.javaEncoded);
+    }
+}
@@ -0,0 +1,49 @@
+package org.jasig.cas.benchmarks;
+
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.util.DefaultUniqueTicketIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DefaultUniqueTicketIdGenerator#getNewTicketId(String)},
+ * single-threaded and with threads contending for the generator.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UniqueTicketIdGeneratorBenchmarks {
+
+    private final DefaultUniqueTicketIdGenerator generator = new DefaultUniqueTicketIdGenerator();
+
+    /**
+     * Generate a ticket id.
+     *
+     * @return the ticket id
+     */
+    @Benchmark
+    public String getNewTicketId() {
+        return this.generator.getNewTicketId(TicketGrantingTicket.PREFIX);
+    }
+
+    /**
+     * Generate a ticket id from several threads at once.
+     *
+     * @return the ticket id
+     */
+    @Benchmark
+    @Threads(4)
+    public String getNewTicketIdContended() {
+        return this.generator.getNewTicketId(TicketGrantingTicket.PREFIX);
+    }
+}
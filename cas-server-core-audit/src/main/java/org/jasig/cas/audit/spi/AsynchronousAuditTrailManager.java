@@ -0,0 +1,266 @@
+package org.jasig.cas.audit.spi;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.jasig.inspektr.audit.AuditActionContext;
+import org.jasig.inspektr.audit.AuditTrailManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records audit records on a background thread, so that audited operations do
+ * not wait for the audit trail to be written.
+ *
+ * <p>Records are placed into a bounded ring buffer and handed to the delegate
+ * audit trail managers in batches of whatever accumulated while the previous batch
+ * was written. Managers that implement {@link BatchAuditTrailManager} receive each
+ * batch at once. What happens when the buffer is full is decided by the
+ * {@link OverflowPolicy}.</p>
+ *
+ * <p>Records still in the buffer are written when the manager is destroyed.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class AsynchronousAuditTrailManager implements AuditTrailManager, DisposableBean {
+
+    /**
+     * What to do with a record when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the buffer has room. No record is lost. */
+        BLOCK,
+        /** Discard the record. */
+        DROP,
+        /** Wait for room for one out of every {@code sampleRate} records, and discard the rest. */
+        SAMPLE
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    private static final int DEFAULT_SAMPLE_RATE = 10;
+
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT_IN_SECONDS = 30;
+
+    private static final EventTranslatorOneArg<AuditEvent, AuditActionContext> TRANSLATOR =
+            new EventTranslatorOneArg<AuditEvent, AuditActionContext>() {
+                @Override
+                public void translateTo(final AuditEvent event, final long sequence, final AuditActionContext context) {
+                    event.context = context;
+                }
+            };
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @NotNull
+    private final List<AuditTrailManager> auditTrailManagers;
+
+    private final ExecutorService executor;
+
+    private final Disruptor<AuditEvent> disruptor;
+
+    private final RingBuffer<AuditEvent> ringBuffer;
+
+    private final int bufferSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final int maxBatchSize;
+
+    private final int sampleRate;
+
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    private final Meter recorded = new Meter();
+
+    private final Meter dropped = new Meter();
+
+    private final Meter failed = new Meter();
+
+    /**
+     * Instantiates a new manager with the default buffer size, blocking when the buffer is full.
+     *
+     * @param auditTrailManager the audit trail manager that writes the records
+     */
+    public AsynchronousAuditTrailManager(final AuditTrailManager auditTrailManager) {
+        this(Collections.singletonList(auditTrailManager), DEFAULT_BUFFER_SIZE, OverflowPolicy.BLOCK,
+                DEFAULT_MAX_BATCH_SIZE, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Instantiates a new manager, and starts its background thread.
+     *
+     * @param auditTrailManagers the audit trail managers that write the records
+     * @param bufferSize the number of records the buffer holds; rounded up to a power of two
+     * @param overflowPolicy what to do with records when the buffer is full
+     * @param maxBatchSize the maximum number of records handed to the managers at once
+     * @param sampleRate one out of this many records is kept when the buffer is full, with {@link OverflowPolicy#SAMPLE}
+     */
+    public AsynchronousAuditTrailManager(final List<AuditTrailManager> auditTrailManagers, final int bufferSize,
+                                         final OverflowPolicy overflowPolicy, final int maxBatchSize,
+                                         final int sampleRate) {
+        this.auditTrailManagers = new ArrayList<>(auditTrailManagers);
+        this.bufferSize = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        this.overflowPolicy = overflowPolicy;
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.sampleRate = Math.max(sampleRate, 1);
+
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "cas-audit-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.disruptor = new Disruptor<>(new EventFactory<AuditEvent>() {
+            @Override
+            public AuditEvent newInstance() {
+                return new AuditEvent();
+            }
+        }, this.bufferSize, this.executor, ProducerType.MULTI, new BlockingWaitStrategy());
+        this.disruptor.handleEventsWith(new BatchingHandler());
+        this.ringBuffer = this.disruptor.start();
+        logger.debug("Started asynchronous audit trail with a buffer of {} records", this.bufferSize);
+    }
+
+    @Override
+    public void record(final AuditActionContext auditActionContext) {
+        if (this.ringBuffer.tryPublishEvent(TRANSLATOR, auditActionContext)) {
+            return;
+        }
+        switch (this.overflowPolicy) {
+            case DROP:
+                drop(auditActionContext);
+                break;
+            case SAMPLE:
+                if (this.overflowCount.getAndIncrement() % this.sampleRate == 0) {
+                    this.ringBuffer.publishEvent(TRANSLATOR, auditActionContext);
+                } else {
+                    drop(auditActionContext);
+                }
+                break;
+            default:
+                this.ringBuffer.publishEvent(TRANSLATOR, auditActionContext);
+                break;
+        }
+    }
+
+    /**
+     * Registers the number of records written, dropped and failed, and the
+     * number of records waiting in the buffer, with the metric registry.
+     *
+     * @param metricRegistry the metric registry
+     */
+    @Autowired(required = false)
+    public void setMetricRegistry(@Qualifier("metrics") final MetricRegistry metricRegistry) {
+        final String prefix = MetricRegistry.name(AsynchronousAuditTrailManager.class);
+        metricRegistry.register(MetricRegistry.name(prefix, "recorded"), this.recorded);
+        metricRegistry.register(MetricRegistry.name(prefix, "dropped"), this.dropped);
+        metricRegistry.register(MetricRegistry.name(prefix, "failed"), this.failed);
+        metricRegistry.register(MetricRegistry.name(prefix, "backlog"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getBacklog();
+            }
+        });
+    }
+
+    /**
+     * Gets the number of records waiting to be written.
+     *
+     * @return the backlog
+     */
+    public long getBacklog() {
+        return this.bufferSize - this.ringBuffer.remainingCapacity();
+    }
+
+    public long getDroppedCount() {
+        return this.dropped.getCount();
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            this.disruptor.shutdown(DEFAULT_SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        } catch (final TimeoutException e) {
+            logger.warn("{} audit records were not written before shutdown", getBacklog());
+            this.disruptor.halt();
+        }
+        this.executor.shutdown();
+    }
+
+    private void drop(final AuditActionContext auditActionContext) {
+        this.dropped.mark();
+        logger.debug("Audit buffer is full; dropped [{}] of [{}]", auditActionContext.getActionPerformed(),
+                auditActionContext.getPrincipal());
+    }
+
+    private void write(final List<AuditActionContext> batch) {
+        for (final AuditTrailManager manager : this.auditTrailManagers) {
+            try {
+                if (manager instanceof BatchAuditTrailManager) {
+                    ((BatchAuditTrailManager) manager).recordAll(batch);
+                } else {
+                    for (final AuditActionContext context : batch) {
+                        manager.record(context);
+                    }
+                }
+            } catch (final RuntimeException e) {
+                this.failed.mark(batch.size());
+                logger.error("Failed to write {} audit records with {}", batch.size(),
+                        manager.getClass().getSimpleName(), e);
+            }
+        }
+        this.recorded.mark(batch.size());
+    }
+
+    /**
+     * Slot of the ring buffer.
+     */
+    private static final class AuditEvent {
+        private AuditActionContext context;
+    }
+
+    /**
+     * Collects records until the end of what is available, or the maximum batch size,
+     * and writes them.
+     */
+    private final class BatchingHandler implements EventHandler<AuditEvent> {
+        private final List<AuditActionContext> batch = new ArrayList<>();
+
+        @Override
+        public void onEvent(final AuditEvent event, final long sequence, final boolean endOfBatch) {
+            this.batch.add(event.context);
+            event.context = null;
+            if (endOfBatch || this.batch.size() >= maxBatchSize) {
+                write(new ArrayList<>(this.batch));
+                this.batch.clear();
+            }
+        }
+    }
+}
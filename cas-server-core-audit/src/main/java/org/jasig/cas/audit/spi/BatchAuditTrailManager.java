@@ -0,0 +1,23 @@
+package org.jasig.cas.audit.spi;
+
+import org.jasig.inspektr.audit.AuditActionContext;
+import org.jasig.inspektr.audit.AuditTrailManager;
+
+import java.util.List;
+
+/**
+ * An {@link AuditTrailManager} that can record several audit records at once,
+ * such as with a single JDBC batch.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public interface BatchAuditTrailManager extends AuditTrailManager {
+
+    /**
+     * Record the audit records, in order.
+     *
+     * @param auditActionContexts the audit records
+     */
+    void recordAll(List<AuditActionContext> auditActionContexts);
+}
@@ -0,0 +1,141 @@
+package org.jasig.cas.audit.spi;
+
+import org.jasig.inspektr.audit.AuditActionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes audit records into the Inspektr audit table with JDBC batch inserts,
+ * so that a batch of records costs one round trip and one transaction.
+ *
+ * <p>The table has the same layout as the one of
+ * {@link org.jasig.inspektr.audit.support.JdbcAuditTrailManager}.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class JdbcBatchAuditTrailManager implements BatchAuditTrailManager {
+
+    /** Default name of the audit table. */
+    public static final String DEFAULT_TABLE_NAME = "COM_AUDIT_TRAIL";
+
+    private static final String INSERT_SQL_TEMPLATE = "INSERT INTO %s "
+            + "(AUD_USER, AUD_CLIENT_IP, AUD_SERVER_IP, AUD_RESOURCE, AUD_ACTION, APPLIC_CD, AUD_DATE) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_SQL_TEMPLATE = "DELETE FROM %s WHERE AUD_DATE < ?";
+
+    private static final int DEFAULT_COLUMN_LENGTH = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @NotNull
+    private final JdbcTemplate jdbcTemplate;
+
+    @NotNull
+    private final TransactionTemplate transactionTemplate;
+
+    @NotNull
+    private String tableName = DEFAULT_TABLE_NAME;
+
+    @Min(1)
+    private int columnLength = DEFAULT_COLUMN_LENGTH;
+
+    private int maxAgeDays;
+
+    /**
+     * Instantiates a new manager.
+     *
+     * @param dataSource the data source of the audit table
+     * @param transactionTemplate the transaction template that batches are written in
+     */
+    public JdbcBatchAuditTrailManager(final DataSource dataSource, final TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void record(final AuditActionContext auditActionContext) {
+        recordAll(Collections.singletonList(auditActionContext));
+    }
+
+    @Override
+    public void recordAll(final List<AuditActionContext> auditActionContexts) {
+        if (auditActionContexts.isEmpty()) {
+            return;
+        }
+        final String sql = String.format(INSERT_SQL_TEMPLATE, this.tableName);
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+                        final AuditActionContext context = auditActionContexts.get(i);
+                        int column = 1;
+                        ps.setString(column++, context.getPrincipal());
+                        ps.setString(column++, context.getClientIpAddress());
+                        ps.setString(column++, context.getServerIpAddress());
+                        ps.setString(column++, truncate(context.getResourceOperatedUpon()));
+                        ps.setString(column++, context.getActionPerformed());
+                        ps.setString(column++, context.getApplicationCode());
+                        ps.setTimestamp(column, new Timestamp(context.getWhenActionWasPerformed().getTime()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return auditActionContexts.size();
+                    }
+                });
+            }
+        });
+        logger.trace("Recorded {} audit records", auditActionContexts.size());
+    }
+
+    /**
+     * Delete the audit records that are older than {@link #setMaxAgeDays(int)}.
+     * Does nothing if no maximum age is defined.
+     */
+    public void clean() {
+        if (this.maxAgeDays <= 0) {
+            return;
+        }
+        final Timestamp cutoff = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(this.maxAgeDays));
+        final int count = this.jdbcTemplate.update(String.format(DELETE_SQL_TEMPLATE, this.tableName), cutoff);
+        logger.info("Deleted {} audit records older than {}", count, cutoff);
+    }
+
+    public void setTableName(final String tableName) {
+        this.tableName = tableName;
+    }
+
+    public void setColumnLength(final int columnLength) {
+        this.columnLength = columnLength;
+    }
+
+    public void setMaxAgeDays(final int maxAgeDays) {
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    private String truncate(final String value) {
+        if (value == null || value.length() <= this.columnLength) {
+            return value;
+        }
+        return value.substring(0, this.columnLength);
+    }
+}
@@ -0,0 +1,109 @@
+package org.jasig.cas.audit.spi;
+
+import org.jasig.inspektr.audit.AuditActionContext;
+import org.jasig.inspektr.audit.AuditPointRuntimeInfo;
+import org.jasig.inspektr.audit.AuditTrailManager;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class AsynchronousAuditTrailManagerTests {
+
+    private AsynchronousAuditTrailManager manager;
+
+    @After
+    public void tearDown() {
+        if (this.manager != null) {
+            this.manager.destroy();
+        }
+    }
+
+    @Test
+    public void verifyRecordsWrittenInBatches() throws Exception {
+        final RecordingBatchManager delegate = new RecordingBatchManager();
+        this.manager = new AsynchronousAuditTrailManager(Collections.<AuditTrailManager>singletonList(delegate), 64,
+                AsynchronousAuditTrailManager.OverflowPolicy.BLOCK, 10, 1);
+        for (int i = 0; i < 100; i++) {
+            this.manager.record(newContext("user" + i));
+        }
+        this.manager.destroy();
+
+        int count = 0;
+        for (final List<AuditActionContext> batch : delegate.batches) {
+            assertTrue(batch.size() <= 10);
+            for (final AuditActionContext context : batch) {
+                assertEquals("user" + count++, context.getPrincipal());
+            }
+        }
+        assertEquals(100, count);
+        this.manager = null;
+    }
+
+    @Test
+    public void verifyRecordsDroppedWhenBufferIsFull() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<AuditActionContext> written = new CopyOnWriteArrayList<>();
+        this.manager = new AsynchronousAuditTrailManager(Collections.<AuditTrailManager>singletonList(new AuditTrailManager() {
+            @Override
+            public void record(final AuditActionContext context) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(context);
+            }
+        }), 4, AsynchronousAuditTrailManager.OverflowPolicy.DROP, 1, 1);
+
+        this.manager.record(newContext("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            this.manager.record(newContext("user" + i));
+        }
+        assertEquals(7, this.manager.getDroppedCount());
+        release.countDown();
+        this.manager.destroy();
+        assertEquals(4, written.size());
+        this.manager = null;
+    }
+
+    static AuditActionContext newContext(final String principal) {
+        return new AuditActionContext(principal, "ST-1-abcdefghij-cas", "SERVICE_TICKET_CREATED", "CAS", new Date(),
+                "127.0.0.1", "127.0.0.1", new AuditPointRuntimeInfo() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    public String asString() {
+                        return "test";
+                    }
+                });
+    }
+
+    private static final class RecordingBatchManager implements BatchAuditTrailManager {
+        private final List<List<AuditActionContext>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void recordAll(final List<AuditActionContext> contexts) {
+            this.batches.add(contexts);
+        }
+
+        @Override
+        public void record(final AuditActionContext context) {
+            recordAll(Collections.singletonList(context));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.jasig.cas.audit.spi;
+
+import org.jasig.inspektr.audit.AuditActionContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class JdbcBatchAuditTrailManagerTests {
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        this.dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:cas-audit", "sa", "");
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.jdbcTemplate.execute("CREATE TABLE COM_AUDIT_TRAIL (AUD_USER VARCHAR(100), AUD_CLIENT_IP VARCHAR(15), "
+                + "AUD_SERVER_IP VARCHAR(15), AUD_RESOURCE VARCHAR(100), AUD_ACTION VARCHAR(100), "
+                + "APPLIC_CD VARCHAR(5), AUD_DATE TIMESTAMP)");
+    }
+
+    @After
+    public void tearDown() {
+        this.jdbcTemplate.execute("DROP TABLE COM_AUDIT_TRAIL");
+    }
+
+    @Test
+    public void verifyBatchIsWritten() {
+        final JdbcBatchAuditTrailManager manager = new JdbcBatchAuditTrailManager(this.dataSource,
+                new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)));
+        manager.setColumnLength(10);
+        manager.setMaxAgeDays(1);
+        final List<AuditActionContext> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(AsynchronousAuditTrailManagerTests.newContext("user" + i));
+        }
+        manager.recordAll(batch);
+        assertEquals(20, count());
+        assertEquals("ST-1-abcde", this.jdbcTemplate.queryForObject(
+                "SELECT AUD_RESOURCE FROM COM_AUDIT_TRAIL WHERE AUD_USER = 'user0'", String.class));
+
+        manager.clean();
+        assertEquals(20, count());
+    }
+
+    private int count() {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM COM_AUDIT_TRAIL", Integer.class);
+    }
+}
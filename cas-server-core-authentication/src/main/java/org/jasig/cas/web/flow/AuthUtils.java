@@ -5,15 +5,10 @@
  */
 package org.jasig.cas.web.flow;
 
-import java.net.URL;
-import java.util.regex.Pattern;
-
 import javax.servlet.ServletRequest;
-import javax.servlet.http.HttpServletRequest;
 
-import org.jasig.cas.authentication.principal.Service;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * This class provides utility methods.
@@ -29,27 +24,15 @@ public final class AuthUtils {
   //The self tenant id.
   public static final String SELF = "self";
 
-  //The logger.
-  private static final Logger LOGGER = LoggerFactory.getLogger(AuthUtils.class);
-
   /**
-   * Extracts the tenant id from the request.
+   * Extracts the tenant id from the request. The tenant is resolved once per request.
    *
    * @param request The HTTP request.
    * @return Tenant id, if any.
+   * @see TenantResolver#resolve(ServletRequest)
    */
   public static String extractTenantID(ServletRequest request) {
-    String tenantID = SELF;
-    if (request instanceof HttpServletRequest) {
-      HttpServletRequest httpRequest = (HttpServletRequest) request;
-      String uri = httpRequest.getParameter("service");
-      if(uri==null) {
-        uri = httpRequest.getRequestURL().toString();
-      }
-     tenantID = extractTenantID(uri);
-    }
-
-    return tenantID;
+    return TenantResolver.resolve(request).getTenantId();
   }
 
 
@@ -59,54 +42,10 @@ public final class AuthUtils {
    *
    * @param uri The URI from the request.
    * @return  Tenand id, if any.
+   * @see TenantResolver#resolve(String)
    */
   public static String extractTenantID(String uri) {
-    String tenantID = SELF;
-    LOGGER.info("Request URI for tenant extraction:{}", uri);
-    final Pattern servicePattern = Pattern.compile("^(http|https)://.*.wavity.(com|net|info|local).*", Pattern.CASE_INSENSITIVE);
-    final boolean isServiceUrl = servicePattern.matcher(uri).matches();
-    try {
-      URL url = new URL(uri);
-      String host = url.getHost();
-      int idx = host.indexOf('.');
-      if (idx != -1) {
-        String subDomain = host.substring(0, idx);
-        if (host.length() > idx) {
-          if (isServiceUrl && subDomain != null && !subDomain.equalsIgnoreCase(WWW) && !subDomain.equalsIgnoreCase(ACCOUNTS)) {
-            tenantID = subDomain;
-          }
-        }
-      }
-    } catch (Exception ex) {
-      LOGGER.warn("URL parsing for tenant failed, trying again", ex);
-      try {
-        int startIndex = uri.indexOf("://");
-        if (startIndex != -1) {
-          String host = uri.substring(startIndex + 3);
-          int idx = host.indexOf('.');
-          if (idx != -1) {
-            String subDomain = host.substring(0, idx);
-            if (host.length() > idx) {
-              if (isServiceUrl && subDomain != null
-                      && !subDomain.equalsIgnoreCase(WWW)
-                      && !subDomain.equalsIgnoreCase(ACCOUNTS)) {
-                tenantID = subDomain;
-              }
-            }
-          }
-        }
-      } catch (Exception e) {
-        LOGGER.warn("URL parsing for tenant failed again", e);
-      }
-    }
-    if (tenantID == null) {
-      LOGGER.warn("Using fallback tenant ID:{}", SELF);
-      tenantID = SELF;
-    } else {
-      LOGGER.info("extracted tenant ID:{}", tenantID);
-    }
-
-    return tenantID;
+    return TenantResolver.resolve(uri);
   }
 
 
@@ -123,12 +62,23 @@ public final class AuthUtils {
 
 
   /**
-   * Returns the tenant id.
+   * Returns the tenant id that was set on this thread, or else the tenant
+   * that was resolved for the current request, if any.
    *
    * @return The tenant id.
    */
   public static String getTenantId() {
     String tenantId = TenantContextHolder.get();
+    if (tenantId == null) {
+      RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+      if (attributes != null) {
+        Object context = attributes.getAttribute(TenantResolver.TENANT_CONTEXT_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (context instanceof TenantContext) {
+          tenantId = ((TenantContext) context).getTenantId();
+        }
+      }
+    }
     return tenantId;
   }
 
@@ -0,0 +1,39 @@
+package org.jasig.cas.web.flow;
+
+/**
+ * The tenant that a request belongs to, as resolved once by {@link TenantResolver}
+ * and kept on the request.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class TenantContext {
+
+    private final String tenantId;
+
+    private final String url;
+
+    /**
+     * Instantiates a new tenant context.
+     *
+     * @param tenantId the tenant id
+     * @param url the url that the tenant was resolved from; may be null
+     */
+    public TenantContext(final String tenantId, final String url) {
+        this.tenantId = tenantId;
+        this.url = url;
+    }
+
+    public String getTenantId() {
+        return this.tenantId;
+    }
+
+    public String getUrl() {
+        return this.url;
+    }
+
+    @Override
+    public String toString() {
+        return "TenantContext[tenantId=" + this.tenantId + ", url=" + this.url + ']';
+    }
+}
@@ -0,0 +1,123 @@
+package org.jasig.cas.web.flow;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the tenant of a url or of a request.
+ *
+ * <p>The tenant is the first label of the host name of urls on the Wavity domains,
+ * other than {@code www} and {@code accounts}; otherwise it is {@link AuthUtils#SELF}.
+ * The tenant of a request is resolved from its {@code service} parameter, or else its
+ * url. It is resolved once per request, and kept on the request as a {@link TenantContext}.
+ * The tenants of urls are remembered, up to a limited number of urls.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class TenantResolver {
+
+    /** Name of the request attribute that holds the {@link TenantContext}. */
+    public static final String TENANT_CONTEXT_ATTRIBUTE = TenantContext.class.getName();
+
+    private static final String SERVICE_PARAMETER = "service";
+
+    private static final String SCHEME_SEPARATOR = "://";
+
+    private static final int MAX_CACHED_URLS = 10000;
+
+    private static final Pattern SERVICE_URL_PATTERN =
+            Pattern.compile("^(http|https)://.*.wavity.(com|net|info|local).*", Pattern.CASE_INSENSITIVE);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantResolver.class);
+
+    private static final Cache<String, String> TENANTS_BY_URL =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_URLS).build();
+
+    private TenantResolver() {
+    }
+
+    /**
+     * Resolve the tenant of the request, unless it was resolved before.
+     *
+     * @param request the request
+     * @return the tenant context of the request
+     */
+    public static TenantContext resolve(final ServletRequest request) {
+        final Object existing = request.getAttribute(TENANT_CONTEXT_ATTRIBUTE);
+        if (existing instanceof TenantContext) {
+            return (TenantContext) existing;
+        }
+        String url = null;
+        if (request instanceof HttpServletRequest) {
+            final HttpServletRequest httpRequest = (HttpServletRequest) request;
+            url = httpRequest.getParameter(SERVICE_PARAMETER);
+            if (url == null) {
+                url = httpRequest.getRequestURL().toString();
+            }
+        }
+        final TenantContext context = new TenantContext(resolve(url), url);
+        request.setAttribute(TENANT_CONTEXT_ATTRIBUTE, context);
+        return context;
+    }
+
+    /**
+     * Resolve the tenant of the url.
+     *
+     * @param url the url
+     * @return the tenant id, or {@link AuthUtils#SELF}
+     */
+    public static String resolve(final String url) {
+        if (url == null) {
+            return AuthUtils.SELF;
+        }
+        String tenantId = TENANTS_BY_URL.getIfPresent(url);
+        if (tenantId == null) {
+            tenantId = parse(url);
+            TENANTS_BY_URL.put(url, tenantId);
+            LOGGER.debug("Resolved tenant [{}] of [{}]", tenantId, url);
+        }
+        return tenantId;
+    }
+
+    /**
+     * Parse the tenant out of the host name of the url.
+     *
+     * @param url the url
+     * @return the tenant id, or {@link AuthUtils#SELF}
+     */
+    static String parse(final String url) {
+        if (!SERVICE_URL_PATTERN.matcher(url).matches()) {
+            return AuthUtils.SELF;
+        }
+        int hostStart = url.indexOf(SCHEME_SEPARATOR) + SCHEME_SEPARATOR.length();
+        int hostEnd = url.length();
+        for (int i = hostStart; i < hostEnd; i++) {
+            final char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                hostEnd = i;
+                break;
+            }
+        }
+        final int userInfoEnd = url.lastIndexOf('@', hostEnd - 1);
+        if (userInfoEnd >= hostStart) {
+            hostStart = userInfoEnd + 1;
+        }
+        final int labelEnd = url.indexOf('.', hostStart);
+        if (labelEnd == -1 || labelEnd >= hostEnd) {
+            return AuthUtils.SELF;
+        }
+        final String label = url.substring(hostStart, labelEnd);
+        if (label.isEmpty() || label.indexOf(':') != -1
+                || label.equalsIgnoreCase(AuthUtils.WWW) || label.equalsIgnoreCase(AuthUtils.ACCOUNTS)) {
+            return AuthUtils.SELF;
+        }
+        return label;
+    }
+}
@@ -0,0 +1,49 @@
+package org.jasig.cas.web.flow;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TenantResolver}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class TenantResolverTests {
+
+    @Test
+    public void verifyTenantOfUrl() {
+        assertEquals("acme", TenantResolver.resolve("https://acme.wavity.com/app?x=1"));
+        assertEquals("acme", TenantResolver.resolve("https://acme.wavity.net:8443/app"));
+        assertEquals("acme", TenantResolver.resolve("https://user@acme.wavity.local"));
+        assertEquals(AuthUtils.SELF, TenantResolver.resolve("https://www.wavity.com/app"));
+        assertEquals(AuthUtils.SELF, TenantResolver.resolve("https://Accounts.wavity.com/app"));
+        assertEquals(AuthUtils.SELF, TenantResolver.resolve("https://acme.example.org/app"));
+        assertEquals(AuthUtils.SELF, TenantResolver.resolve("https://localhost:8443/cas/login?x=.wavity.com"));
+        assertEquals(AuthUtils.SELF, TenantResolver.resolve("not a url"));
+        assertEquals(AuthUtils.SELF, TenantResolver.resolve((String) null));
+    }
+
+    @Test
+    public void verifyTenantOfRequestIsResolvedOnce() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cas/login");
+        request.setServerName("localhost");
+        request.addParameter("service", "https://acme.wavity.com/app");
+
+        final TenantContext context = TenantResolver.resolve(request);
+        assertEquals("acme", context.getTenantId());
+        assertEquals("https://acme.wavity.com/app", context.getUrl());
+        assertSame(context, request.getAttribute(TenantResolver.TENANT_CONTEXT_ATTRIBUTE));
+        assertSame(context, TenantResolver.resolve(request));
+        assertEquals("acme", AuthUtils.extractTenantID(request));
+    }
+
+    @Test
+    public void verifyTenantOfRequestUrl() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cas/login");
+        request.setServerName("globex.wavity.info");
+        assertEquals("globex", AuthUtils.extractTenantID(request));
+    }
+}
@@ -0,0 +1,41 @@
+package org.jasig.cas.support.events;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.jasig.cas.services.RegisteredService;
+
+import java.util.Collection;
+
+/**
+ * This is {@link CasRegisteredServicesLoadedEvent}, signaled
+ * when all services are (re)loaded from the registry.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class CasRegisteredServicesLoadedEvent extends AbstractCasEvent {
+
+    private static final long serialVersionUID = -8175212419227404736L;
+    private final Collection<RegisteredService> services;
+
+    /**
+     * Instantiates a new cas services loaded event.
+     *
+     * @param source   the source
+     * @param services the loaded services
+     */
+    public CasRegisteredServicesLoadedEvent(final Object source, final Collection<RegisteredService> services) {
+        super(source);
+        this.services = services;
+    }
+
+    public Collection<RegisteredService> getServices() {
+        return this.services;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("services", this.services.size())
+                .toString();
+    }
+}
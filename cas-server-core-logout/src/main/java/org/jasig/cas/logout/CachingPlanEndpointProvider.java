@@ -0,0 +1,176 @@
+package org.jasig.cas.logout;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.wavity.plan.api.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the endpoints that another {@link PlanEndpointProvider} looked up, by service
+ * type and tenant, so that logging out of many services does not look up the deployment
+ * plan for each one.
+ *
+ * <p>Endpoints older than the refresh interval are looked up again in the background,
+ * while the last known endpoint keeps being returned. If that lookup fails, the last
+ * known endpoint is kept, but no longer than the expiration interval, after which the
+ * endpoint is looked up again before it is returned.</p>
+ *
+ * <p>Endpoints can also be forgotten explicitly when the deployment plan of a tenant
+ * changes. Nothing in CAS is notified of such changes, so {@link #invalidate(String)}
+ * and {@link #invalidateAll()} are exposed as JMX operations for the plan service or an
+ * operator to call, once the MBean exporter of {@code mbeans.xml} is enabled.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@Component("planEndpointProvider")
+@ManagedResource(objectName = "CAS:name=PlanEndpointProvider",
+        description = "Exposes the cache of deployment plan endpoints via JMX")
+public final class CachingPlanEndpointProvider implements PlanEndpointProvider, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingPlanEndpointProvider.class);
+
+    private static final int MAX_ENDPOINTS = 10000;
+
+    private static final long DEFAULT_EXPIRE_INTERVAL_IN_SECONDS = 3600;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "cas-plan-endpoint-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final LoadingCache<Key, String> endPoints;
+
+    /**
+     * Instantiates a new provider.
+     *
+     * @param planEndpointProvider the provider that looks up the endpoints
+     * @param refreshIntervalInSeconds the age after which an endpoint is looked up again
+     */
+    public CachingPlanEndpointProvider(final PlanEndpointProvider planEndpointProvider,
+                                       final long refreshIntervalInSeconds) {
+        this(planEndpointProvider, refreshIntervalInSeconds, DEFAULT_EXPIRE_INTERVAL_IN_SECONDS);
+    }
+
+    /**
+     * Instantiates a new provider.
+     *
+     * @param planEndpointProvider the provider that looks up the endpoints
+     * @param refreshIntervalInSeconds the age after which an endpoint is looked up again
+     * @param expireIntervalInSeconds the age after which an endpoint that could not be
+     *                                refreshed is no longer returned; at least the refresh interval
+     */
+    @Autowired
+    public CachingPlanEndpointProvider(
+            @Qualifier("deploymentPlanEndpointProvider") final PlanEndpointProvider planEndpointProvider,
+            @Value("${slo.plan.endpoint.refresh.seconds:300}") final long refreshIntervalInSeconds,
+            @Value("${slo.plan.endpoint.expire.seconds:3600}") final long expireIntervalInSeconds) {
+        final CacheLoader<Key, String> loader = new CacheLoader<Key, String>() {
+            @Override
+            public String load(final Key key) {
+                LOGGER.debug("Looking up the {} endpoint of tenant [{}]", key.type, key.tenant);
+                return planEndpointProvider.getServiceRestEndPoint(key.type, key.tenant);
+            }
+        };
+        this.endPoints = CacheBuilder.newBuilder()
+                .maximumSize(MAX_ENDPOINTS)
+                .refreshAfterWrite(refreshIntervalInSeconds, TimeUnit.SECONDS)
+                .expireAfterWrite(Math.max(expireIntervalInSeconds, refreshIntervalInSeconds), TimeUnit.SECONDS)
+                .build(CacheLoader.asyncReloading(loader, this.executor));
+    }
+
+    @Override
+    public String getServiceRestEndPoint(final ServiceType type, final String tenant) {
+        try {
+            return this.endPoints.getUnchecked(new Key(type, tenant));
+        } catch (final UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Forget the endpoints of the tenant.
+     *
+     * @param tenant the tenant id
+     */
+    @ManagedOperation(description = "Forgets the endpoints of a tenant whose deployment plan changed.")
+    @ManagedOperationParameter(name = "tenant", description = "the tenant id")
+    public void invalidate(final String tenant) {
+        final Iterator<Key> keys = this.endPoints.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            if (Objects.equals(keys.next().tenant, tenant)) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Forget all endpoints.
+     */
+    @ManagedOperation(description = "Forgets the endpoints of all tenants.")
+    public void invalidateAll() {
+        this.endPoints.invalidateAll();
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Service type and tenant of an endpoint.
+     */
+    private static final class Key {
+        private final ServiceType type;
+
+        private final String tenant;
+
+        /**
+         * Instantiates a new key.
+         *
+         * @param type the service type
+         * @param tenant the tenant id
+         */
+        Key(final ServiceType type, final String tenant) {
+            this.type = type;
+            this.tenant = tenant;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.type == other.type && Objects.equals(this.tenant, other.tenant);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.type, this.tenant);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.jasig.cas.logout;
+
+import com.wavity.plan.api.PlanProvider;
+import com.wavity.plan.api.deployment.DeploymentPlan;
+import com.wavity.plan.api.service.ServiceType;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up endpoints in the deployment plan of the {@link PlanProvider}, on every call.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@Component("deploymentPlanEndpointProvider")
+public final class DeploymentPlanEndpointProvider implements PlanEndpointProvider {
+
+    @Override
+    public String getServiceRestEndPoint(final ServiceType type, final String tenant) {
+        final DeploymentPlan deploymentPlan = PlanProvider.getInstance().getDeploymentPlan();
+        if (deploymentPlan == null) {
+            throw new IllegalArgumentException("Deployment plan can't be null");
+        }
+        final String endPoint = deploymentPlan.getServiceRestEndPoint(type, tenant);
+        if (StringUtils.isEmpty(endPoint)) {
+            throw new IllegalArgumentException("End point can't be null");
+        }
+        return endPoint;
+    }
+}
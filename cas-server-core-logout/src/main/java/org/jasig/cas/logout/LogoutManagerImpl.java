@@ -1,6 +1,5 @@
 package org.jasig.cas.logout;
 
-import org.apache.commons.lang3.StringUtils;
 import org.jasig.cas.authentication.principal.Service;
 import org.jasig.cas.services.LogoutType;
 import org.jasig.cas.services.RegisteredService;
@@ -18,8 +17,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
-import com.wavity.plan.api.PlanProvider;
-import com.wavity.plan.api.deployment.DeploymentPlan;
 import com.wavity.plan.api.service.ServiceType;
 
 import javax.validation.constraints.NotNull;
@@ -61,6 +58,12 @@ public final class LogoutManagerImpl implements LogoutManager {
     @Autowired
     @Qualifier("logoutBuilder")
     private LogoutMessageCreator logoutMessageBuilder;
+
+    /** Looks up the endpoints that logout urls are rewritten to. */
+    @NotNull
+    @Autowired
+    @Qualifier("planEndpointProvider")
+    private PlanEndpointProvider planEndpointProvider;
     
     /** Whether single sign out is disabled or not. */
     @Value("${slo.callbacks.disabled:false}")
@@ -86,9 +89,24 @@ public final class LogoutManagerImpl implements LogoutManager {
      */
     public LogoutManagerImpl(final ServicesManager servicesManager, final HttpClient httpClient,
                              final LogoutMessageCreator logoutMessageBuilder) {
+        this(servicesManager, httpClient, logoutMessageBuilder, new DeploymentPlanEndpointProvider());
+    }
+
+    /**
+     * Build the logout manager.
+     * @param servicesManager the services manager.
+     * @param httpClient an HTTP client.
+     * @param logoutMessageBuilder the builder to construct logout messages.
+     * @param planEndpointProvider the provider of the endpoints that logout urls are rewritten to.
+     * @since 4.3
+     */
+    public LogoutManagerImpl(final ServicesManager servicesManager, final HttpClient httpClient,
+                             final LogoutMessageCreator logoutMessageBuilder,
+                             final PlanEndpointProvider planEndpointProvider) {
         this.servicesManager = servicesManager;
         this.httpClient = httpClient;
         this.logoutMessageBuilder = logoutMessageBuilder;
+        this.planEndpointProvider = planEndpointProvider;
     }
 
     /**
@@ -189,15 +207,7 @@ public final class LogoutManagerImpl implements LogoutManager {
      * @return the string of end point.
      */
     private String getPlanEndPointServerName(final ServiceType type, final String tenant) {
-        final PlanProvider provider = PlanProvider.getInstance();
-        final DeploymentPlan deploymentPlan = provider.getDeploymentPlan();
-        if (deploymentPlan == null) {
-            throw new IllegalArgumentException("Deployment plan can't be null");
-        }
-        final String endPoint = deploymentPlan.getServiceRestEndPoint(type, tenant);
-        if (StringUtils.isEmpty(endPoint)) {
-            throw new IllegalArgumentException("End point can't be null");
-        }
+        final String endPoint = this.planEndpointProvider.getServiceRestEndPoint(type, tenant);
         try {
             final URL url = new URL(endPoint);
             final StringBuilder builder = new StringBuilder();
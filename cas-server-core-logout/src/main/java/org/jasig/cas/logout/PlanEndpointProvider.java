@@ -0,0 +1,22 @@
+package org.jasig.cas.logout;
+
+import com.wavity.plan.api.service.ServiceType;
+
+/**
+ * Looks up the endpoints of tenant services in the deployment plan.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public interface PlanEndpointProvider {
+
+    /**
+     * Gets the REST endpoint of the service of the tenant.
+     *
+     * @param type the type of service
+     * @param tenant the tenant id
+     * @return the endpoint url; never empty
+     * @throws IllegalArgumentException if the deployment plan has no endpoint for the service
+     */
+    String getServiceRestEndPoint(ServiceType type, String tenant);
+}
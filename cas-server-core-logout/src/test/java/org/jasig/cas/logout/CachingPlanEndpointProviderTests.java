@@ -0,0 +1,118 @@
+package org.jasig.cas.logout;
+
+import com.wavity.plan.api.service.ServiceType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link CachingPlanEndpointProvider}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class CachingPlanEndpointProviderTests {
+
+    private final Map<String, String> plan = new HashMap<>();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private CachingPlanEndpointProvider provider;
+
+    @Before
+    public void setUp() {
+        this.plan.put("acme", "https://acme.example.org/api");
+        this.provider = new CachingPlanEndpointProvider(new PlanEndpointProvider() {
+            @Override
+            public String getServiceRestEndPoint(final ServiceType type, final String tenant) {
+                lookups.incrementAndGet();
+                final String endPoint = plan.get(tenant);
+                if (endPoint == null) {
+                    throw new IllegalArgumentException("End point can't be null");
+                }
+                return endPoint;
+            }
+        }, 300);
+    }
+
+    @After
+    public void tearDown() {
+        this.provider.destroy();
+    }
+
+    @Test
+    public void verifyEndpointIsLookedUpOnce() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals("https://acme.example.org/api", this.provider.getServiceRestEndPoint(ServiceType.cas, "acme"));
+        }
+        assertEquals(1, this.lookups.get());
+    }
+
+    @Test
+    public void verifyInvalidate() {
+        this.provider.getServiceRestEndPoint(ServiceType.cas, "acme");
+        this.plan.put("acme", "https://acme.example.net/api");
+        this.provider.invalidate("other");
+        assertEquals("https://acme.example.org/api", this.provider.getServiceRestEndPoint(ServiceType.cas, "acme"));
+        this.provider.invalidate("acme");
+        assertEquals("https://acme.example.net/api", this.provider.getServiceRestEndPoint(ServiceType.cas, "acme"));
+        assertEquals(2, this.lookups.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyMissingEndpoint() {
+        this.provider.getServiceRestEndPoint(ServiceType.cas, "unknown");
+    }
+
+    @Test
+    public void verifyLastKnownEndpointIsKeptWhenRefreshFails() throws Exception {
+        final CachingPlanEndpointProvider refreshing = new CachingPlanEndpointProvider(new PlanEndpointProvider() {
+            private final AtomicInteger calls = new AtomicInteger();
+
+            @Override
+            public String getServiceRestEndPoint(final ServiceType type, final String tenant) {
+                if (calls.incrementAndGet() > 1) {
+                    throw new IllegalStateException("Plan provider is unavailable");
+                }
+                return "https://acme.example.org/api";
+            }
+        }, 1);
+        try {
+            assertEquals("https://acme.example.org/api", refreshing.getServiceRestEndPoint(ServiceType.cas, "acme"));
+            Thread.sleep(1100);
+            assertEquals("https://acme.example.org/api", refreshing.getServiceRestEndPoint(ServiceType.cas, "acme"));
+            Thread.sleep(100);
+            assertEquals("https://acme.example.org/api", refreshing.getServiceRestEndPoint(ServiceType.cas, "acme"));
+        } finally {
+            refreshing.destroy();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void verifyEndpointExpiresWhenRefreshKeepsFailing() throws Exception {
+        final CachingPlanEndpointProvider expiring = new CachingPlanEndpointProvider(new PlanEndpointProvider() {
+            private final AtomicInteger calls = new AtomicInteger();
+
+            @Override
+            public String getServiceRestEndPoint(final ServiceType type, final String tenant) {
+                if (calls.incrementAndGet() > 1) {
+                    throw new IllegalStateException("Plan provider is unavailable");
+                }
+                return "https://acme.example.org/api";
+            }
+        }, 1, 1);
+        try {
+            assertEquals("https://acme.example.org/api", expiring.getServiceRestEndPoint(ServiceType.cas, "acme"));
+            Thread.sleep(1100);
+            expiring.getServiceRestEndPoint(ServiceType.cas, "acme");
+        } finally {
+            expiring.destroy();
+        }
+    }
+}
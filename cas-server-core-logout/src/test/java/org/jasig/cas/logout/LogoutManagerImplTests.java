@@ -8,6 +8,7 @@ import org.jasig.cas.services.ServicesManager;
 import org.jasig.cas.ticket.TicketGrantingTicket;
 import org.jasig.cas.util.http.HttpClient;
 import org.jasig.cas.util.http.HttpMessage;
+import com.wavity.plan.api.service.ServiceType;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -62,7 +63,13 @@ public class LogoutManagerImplTests {
         when(client.isValidEndPoint(any(String.class))).thenReturn(true);
         when(client.isValidEndPoint(any(URL.class))).thenReturn(true);
         when(client.sendMessageToEndPoint(any(HttpMessage.class))).thenReturn(true);
-        this.logoutManager = new LogoutManagerImpl(servicesManager, client, new SamlCompliantLogoutMessageCreator());
+        this.logoutManager = new LogoutManagerImpl(servicesManager, client, new SamlCompliantLogoutMessageCreator(),
+                new PlanEndpointProvider() {
+                    @Override
+                    public String getServiceRestEndPoint(final ServiceType type, final String tenant) {
+                        return "https://" + type + '.' + tenant + ".example.org/api";
+                    }
+                });
 
         this.services = new HashMap<>();
         this.simpleWebApplicationServiceImpl = org.jasig.cas.services.TestUtils.getService(URL);
@@ -81,6 +88,13 @@ public class LogoutManagerImplTests {
         assertEquals(logoutRequest.getLogoutUrl(), this.registeredService.getLogoutUrl());
     }
 
+    @Test
+    public void verifyLogoutUrlIsRewrittenToPlanEndpoint() throws Exception {
+        final Collection<LogoutRequest> logoutRequests = this.logoutManager.performLogout(tgt);
+        final LogoutRequest logoutRequest = logoutRequests.iterator().next();
+        assertEquals(new URL("https://cas.self.example.org"), logoutRequest.getLogoutUrl());
+    }
+
     @Test
     public void verifyLogoutDisabled() {
         this.logoutManager.setSingleLogoutCallbacksDisabled(true);
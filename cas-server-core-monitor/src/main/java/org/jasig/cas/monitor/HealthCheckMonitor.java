@@ -1,28 +1,91 @@
 package org.jasig.cas.monitor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
 import javax.validation.constraints.NotNull;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Simple health check monitor that reports the overall health as the greatest reported
  * {@link StatusCode} of an arbitrary number of individual checks.
+ * <p>Individual checks run concurrently on a dedicated pool of threads, and each one that
+ * does not complete within the timeout is reported as {@link StatusCode#WARN}, so that the
+ * overall health is degraded even when every other check is fine. A check
+ * that is still running from an earlier observation is not started again until it completes.
+ * The overall health is cached for a short while, so that frequent polling does not run
+ * the checks on every request. Once the cached health is stale it is still returned, while
+ * a background thread observes the checks again; only the very first observation waits
+ * for the checks.</p>
  *
  * @author Marvin S. Addison
  * @since 3.5.0
  */
 @Component("healthCheckMonitor")
-public class HealthCheckMonitor implements Monitor<HealthStatus> {
+public class HealthCheckMonitor implements Monitor<HealthStatus>, DisposableBean {
+
+    /** Default time in ms that each individual check may take. */
+    public static final long DEFAULT_TIMEOUT = 5000;
+
+    /** Default time in ms that the overall health is cached for. */
+    public static final long DEFAULT_CACHE_TIME_TO_LIVE = 1000;
+
+    /** Default number of threads that run checks. */
+    public static final int DEFAULT_THREADS = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
     /** Individual monitors that comprise health check. */
     @NotNull
-
     private Collection<Monitor> monitors = Collections.emptySet();
 
+    @Value("${cas.monitor.health.timeout:5000}")
+    private long timeout = DEFAULT_TIMEOUT;
+
+    @Value("${cas.monitor.health.cache.timeToLive:1000}")
+    private long cacheTimeToLive = DEFAULT_CACHE_TIME_TO_LIVE;
+
+    @Value("${cas.monitor.health.threads:4}")
+    private int threads = DEFAULT_THREADS;
+
+    /** Checks started by an earlier observation that had not completed in time. */
+    private final Map<Monitor, Future<Status>> pending = new IdentityHashMap<>();
+
+    private ExecutorService executor;
+
+    /** Refreshes the overall health in the background, so that no caller waits on slow checks. */
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "cas-health-check-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile HealthStatus cachedStatus;
+
+    private volatile long cachedStatusExpiration;
 
     /**
      * Sets the monitors that comprise the health check.
@@ -30,8 +93,36 @@ public class HealthCheckMonitor implements Monitor<HealthStatus> {
      * @param monitors Collection of monitors responsible for observing various aspects of CAS.
      */
     @Resource(name="monitorsList")
-    public void setMonitors(final Collection<Monitor> monitors) {
+    public synchronized void setMonitors(final Collection<Monitor> monitors) {
         this.monitors = monitors;
+        this.cachedStatus = null;
+    }
+
+    /**
+     * Sets the time that each individual check may take.
+     *
+     * @param timeout Timeout in milliseconds.
+     */
+    public void setTimeout(final long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets the time that the overall health is cached for. Zero or less turns caching off.
+     *
+     * @param cacheTimeToLive Time to live in milliseconds.
+     */
+    public void setCacheTimeToLive(final long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    /**
+     * Sets the number of threads that run checks.
+     *
+     * @param threads Number of threads.
+     */
+    public void setThreads(final int threads) {
+        this.threads = threads;
     }
 
     @Override
@@ -41,23 +132,125 @@ public class HealthCheckMonitor implements Monitor<HealthStatus> {
 
     @Override
     public HealthStatus observe() {
-        final Map<String, Status> results = new LinkedHashMap<>(this.monitors.size());
-        StatusCode code = StatusCode.UNKNOWN;
-        Status result;
-        for (final Monitor monitor : this.monitors) {
-            try {
-                result = monitor.observe();
-                final StatusCode resCode = result.getCode();
-                if (resCode.value() > code.value()) {
-                    code = resCode;
+        final HealthStatus status = this.cachedStatus;
+        if (status == null) {
+            synchronized (this) {
+                return this.cachedStatus != null ? this.cachedStatus : refresh();
+            }
+        }
+        if (System.currentTimeMillis() >= this.cachedStatusExpiration && this.refreshing.compareAndSet(false, true)) {
+            this.refresher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        synchronized (HealthCheckMonitor.this) {
+                            refresh();
+                        }
+                    } finally {
+                        refreshing.set(false);
+                    }
                 }
-            } catch (final Exception e) {
-                code = StatusCode.ERROR;
-                result = new Status(code, e.getClass().getSimpleName() + ": " + e.getMessage());
+            });
+        }
+        return status;
+    }
+
+    @Override
+    public void destroy() {
+        this.refresher.shutdownNow();
+        synchronized (this) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+                this.executor = null;
             }
-            results.put(monitor.getName(), result);
         }
+    }
 
+    /**
+     * Observe the monitors and cache the overall health.
+     * Must be called while holding the lock.
+     *
+     * @return the overall health
+     */
+    private HealthStatus refresh() {
+        final HealthStatus status = observeMonitors();
+        this.cachedStatus = status;
+        this.cachedStatusExpiration = System.currentTimeMillis() + this.cacheTimeToLive;
+        return status;
+    }
+
+    private HealthStatus observeMonitors() {
+        final Map<Monitor, Future<Status>> futures = new LinkedHashMap<>(this.monitors.size());
+        for (final Monitor monitor : this.monitors) {
+            Future<Status> future = this.pending.remove(monitor);
+            if (future == null || future.isDone()) {
+                future = getExecutor().submit(new Check(monitor));
+            }
+            futures.put(monitor, future);
+        }
+
+        final Map<String, Status> results = new LinkedHashMap<>(this.monitors.size());
+        StatusCode code = StatusCode.UNKNOWN;
+        final long deadline = System.currentTimeMillis() + this.timeout;
+        for (final Map.Entry<Monitor, Future<Status>> entry : futures.entrySet()) {
+            final Status result = getResult(entry.getKey(), entry.getValue(), deadline);
+            if (result.getCode().value() > code.value()) {
+                code = result.getCode();
+            }
+            results.put(entry.getKey().getName(), result);
+        }
         return new HealthStatus(code, results);
     }
+
+    private Status getResult(final Monitor monitor, final Future<Status> future, final long deadline) {
+        try {
+            return future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            this.pending.put(monitor, future);
+            logger.warn("Monitor {} did not complete within {} ms", monitor.getName(), this.timeout);
+            return new Status(StatusCode.WARN, String.format("Check timed out.  Timeout is %s ms.", this.timeout));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Status(StatusCode.WARN, "Interrupted while waiting for the check.");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            return new Status(StatusCode.ERROR, cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        }
+    }
+
+    private ExecutorService getExecutor() {
+        if (this.executor == null) {
+            final AtomicInteger count = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(Math.max(this.threads, 1), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "cas-health-check-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return this.executor;
+    }
+
+    /**
+     * Runs a single monitor.
+     */
+    private static final class Check implements Callable<Status> {
+        private final Monitor monitor;
+
+        /**
+         * Instantiates a new check.
+         *
+         * @param monitor the monitor
+         */
+        Check(final Monitor monitor) {
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Status call() throws Exception {
+            return this.monitor.observe();
+        }
+    }
 }
@@ -1,10 +1,15 @@
 package org.jasig.cas.monitor;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jasig.cas.ticket.registry.DefaultTicketRegistry;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -25,6 +30,11 @@ public class HealthCheckMonitorTests {
         this.monitor = new HealthCheckMonitor();
     }
 
+    @After
+    public void tearDown() throws Exception {
+        this.monitor.destroy();
+    }
+
     @Test
     public void verifyObserveUnknown() throws Exception {
         assertEquals(StatusCode.UNKNOWN, this.monitor.observe().getCode());
@@ -67,6 +77,149 @@ public class HealthCheckMonitorTests {
         assertEquals(StatusCode.ERROR, this.monitor.observe().getCode());
     }
 
+    @Test
+    public void verifySlowMonitorTimesOut() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final Monitor slow = new Monitor() {
+            @Override
+            public String getName() {
+                return "Slow";
+            }
+
+            @Override
+            public Status observe() {
+                runs.incrementAndGet();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Status.OK;
+            }
+        };
+        this.monitor.setMonitors(Arrays.<Monitor>asList(slow, new MemoryMonitor()));
+        this.monitor.setTimeout(100);
+        this.monitor.setCacheTimeToLive(0);
+
+        HealthStatus status = this.monitor.observe();
+        assertEquals(StatusCode.WARN, status.getCode());
+        assertEquals(StatusCode.WARN, status.getDetails().get("Slow").getCode());
+        assertEquals("Check timed out.  Timeout is 100 ms.", status.getDetails().get("Slow").getDescription());
+
+        final long start = System.currentTimeMillis();
+        status = this.monitor.observe();
+        assertTrue(System.currentTimeMillis() - start < 100);
+        assertEquals(StatusCode.WARN, status.getCode());
+        assertEquals(StatusCode.WARN, status.getDetails().get("Slow").getCode());
+        assertEquals(1, runs.get());
+
+        release.countDown();
+        assertEquals(StatusCode.OK, awaitStatusOf("Slow", StatusCode.OK).getDetails().get("Slow").getCode());
+    }
+
+    @Test
+    public void verifyStaleStatusIsServedWhileRefreshing() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final Monitor blocking = new Monitor() {
+            @Override
+            public String getName() {
+                return "Blocking";
+            }
+
+            @Override
+            public Status observe() {
+                if (runs.incrementAndGet() > 1) {
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return Status.OK;
+            }
+        };
+        this.monitor.setMonitors(Collections.singleton(blocking));
+        this.monitor.setCacheTimeToLive(0);
+
+        final HealthStatus first = this.monitor.observe();
+        assertEquals(StatusCode.OK, first.getCode());
+        for (int i = 0; i < 5; i++) {
+            final long start = System.currentTimeMillis();
+            assertSame(first, this.monitor.observe());
+            assertTrue(System.currentTimeMillis() - start < 100);
+        }
+        assertTrue(runs.get() <= 2);
+        release.countDown();
+    }
+
+    @Test
+    public void verifyMonitorsRunConcurrently() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final Monitor first = newWaitingMonitor("First", started);
+        final Monitor second = newWaitingMonitor("Second", started);
+        this.monitor.setMonitors(Arrays.asList(first, second));
+
+        final HealthStatus status = this.monitor.observe();
+        assertEquals(StatusCode.OK, status.getCode());
+        assertEquals(2, status.getDetails().size());
+    }
+
+    @Test
+    public void verifyStatusIsCached() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final Monitor counting = new Monitor() {
+            @Override
+            public String getName() {
+                return "Counting";
+            }
+
+            @Override
+            public Status observe() {
+                runs.incrementAndGet();
+                return Status.OK;
+            }
+        };
+        this.monitor.setMonitors(Collections.singleton(counting));
+        this.monitor.setCacheTimeToLive(60000);
+        assertSame(this.monitor.observe(), this.monitor.observe());
+        assertEquals(1, runs.get());
+    }
+
+    /**
+     * Polls the monitor until the background refresh reports the given code for the check.
+     */
+    private HealthStatus awaitStatusOf(final String name, final StatusCode code) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        HealthStatus status = this.monitor.observe();
+        while (status.getDetails().get(name).getCode() != code && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = this.monitor.observe();
+        }
+        return status;
+    }
+
+    private static Monitor newWaitingMonitor(final String name, final CountDownLatch started) {
+        return new Monitor() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Status observe() {
+                started.countDown();
+                try {
+                    return started.await(1, TimeUnit.SECONDS) ? Status.OK : Status.UNKNOWN;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return Status.UNKNOWN;
+                }
+            }
+        };
+    }
+
     private SessionMonitor newSessionMonitor() {
         final SessionMonitor sessionMonitor = new SessionMonitor();
         sessionMonitor.setTicketRegistry(new DefaultTicketRegistry());
@@ -3,6 +3,7 @@ package org.jasig.cas.services;
 import org.jasig.cas.authentication.principal.Service;
 import org.jasig.cas.support.events.CasRegisteredServiceDeletedEvent;
 import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
+import org.jasig.cas.support.events.CasRegisteredServicesLoadedEvent;
 import org.jasig.cas.util.CasSpringBeanJobFactory;
 import org.jasig.inspektr.audit.annotation.Audit;
 import org.joda.time.DateTime;
@@ -186,6 +187,10 @@ public final class DefaultServicesManagerImpl implements ReloadableServicesManag
         LOGGER.info("Loaded {} services from {}.", this.services.size(),
             this.serviceRegistryDao);
 
+        if (this.eventPublisher != null) {
+            this.eventPublisher.publishEvent(new CasRegisteredServicesLoadedEvent(this, getAllServices()));
+        }
+
     }
 
     /**
@@ -1,6 +1,7 @@
 package org.jasig.cas.services;
 
 
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jasig.cas.util.JsonSerializer;
@@ -116,12 +117,13 @@ public class JsonServiceRegistryDao implements ServiceRegistryDao, ApplicationCo
     /**
      * Instantiates a new Json service registry dao.
      * Sets the path to the directory where JSON service registry entries are
-     * stored. Uses the {@link RegisteredServiceJsonSerializer} by default.
+     * stored. Uses the {@link RegisteredServiceJsonSerializer} by default,
+     * formatting the files so that they remain easy to edit.
      *
      * @param configDirectory the config directory where service registry files can be found.
      */
     public JsonServiceRegistryDao(final Path configDirectory) {
-        this(configDirectory, new RegisteredServiceJsonSerializer());
+        this(configDirectory, new RegisteredServiceJsonSerializer(new DefaultPrettyPrinter()));
     }
 
     /**
@@ -1,6 +1,7 @@
 package org.jasig.cas.util.services;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jasig.cas.services.RegisteredService;
 import org.jasig.cas.services.RegisteredServiceAccessStrategy;
@@ -19,6 +20,22 @@ import java.util.Map;
 public final class RegisteredServiceJsonSerializer extends AbstractJacksonBackedJsonSerializer<RegisteredService> {
     private static final long serialVersionUID = 7645698151115635245L;
 
+    /**
+     * Instantiates a new serializer that produces compact JSON.
+     */
+    public RegisteredServiceJsonSerializer() {
+        super();
+    }
+
+    /**
+     * Instantiates a new serializer that formats JSON with the pretty printer.
+     *
+     * @param prettyPrinter the pretty printer
+     */
+    public RegisteredServiceJsonSerializer(final PrettyPrinter prettyPrinter) {
+        super(prettyPrinter);
+    }
+
     /**
      * Mixins are added to the object mapper in order to
      * ignore certain method signatures from serialization
@@ -0,0 +1,54 @@
+package org.jasig.cas.util.services;
+
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import org.jasig.cas.services.RegexRegisteredService;
+import org.jasig.cas.services.RegisteredService;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link RegisteredServiceJsonSerializer}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class RegisteredServiceJsonSerializerTests {
+
+    @Test
+    public void verifyCompactJsonByDefault() {
+        final RegisteredService service = newService();
+        final RegisteredServiceJsonSerializer serializer = new RegisteredServiceJsonSerializer();
+        final String json = toJson(serializer, service);
+        assertFalse(json.contains("\n"));
+        assertEquals(service, serializer.fromJson(json));
+        assertEquals(service, serializer.fromJson(json));
+    }
+
+    @Test
+    public void verifyPrettyPrintedJson() {
+        final RegisteredService service = newService();
+        final RegisteredServiceJsonSerializer serializer = new RegisteredServiceJsonSerializer(new DefaultPrettyPrinter());
+        final String json = toJson(serializer, service);
+        assertTrue(json.contains("\n"));
+        assertEquals(service, new RegisteredServiceJsonSerializer().fromJson(json));
+    }
+
+    private static String toJson(final RegisteredServiceJsonSerializer serializer, final RegisteredService service) {
+        final StringWriter writer = new StringWriter();
+        serializer.toJson(writer, service);
+        return writer.toString();
+    }
+
+    private static RegisteredService newService() {
+        final RegexRegisteredService service = new RegexRegisteredService();
+        service.setId(1000);
+        service.setName("name");
+        service.setDescription("description");
+        service.setServiceId("^https://app\\.example\\.org/.*");
+        service.setEvaluationOrder(1);
+        return service;
+    }
+}
@@ -32,6 +32,8 @@ public abstract class AbstractCrypticTicketRegistry extends AbstractDistributedT
     @Qualifier("ticketCipherExecutor")
     private CipherExecutor<byte[], byte[]> cipherExecutor;
 
+    private CompactTicketCodec ticketCodec = new CompactTicketCodec();
+
     /**
      * Instantiates a new Cryptic ticket registry.
      */
@@ -42,6 +44,10 @@ public abstract class AbstractCrypticTicketRegistry extends AbstractDistributedT
         this.cipherExecutor = cipherExecutor;
     }
 
+    public void setTicketCodec(final CompactTicketCodec ticketCodec) {
+        this.ticketCodec = ticketCodec;
+    }
+
     /**
      * Encode ticket id into a SHA-512.
      *
@@ -77,8 +83,7 @@ public abstract class AbstractCrypticTicketRegistry extends AbstractDistributedT
         }
 
         logger.info("Encoding [{}]", ticket);
-        final byte[] encodedTicketObject = CompressionUtils.serializeAndEncodeObject(
-                this.cipherExecutor, ticket);
+        final byte[] encodedTicketObject = this.cipherExecutor.encode(this.ticketCodec.encode(ticket));
         final String encodedTicketId = encodeTicketId(ticket.getId());
         final Ticket encodedTicket = new EncodedTicket(
                 ByteSource.wrap(encodedTicketObject), encodedTicketId);
@@ -102,11 +107,15 @@ public abstract class AbstractCrypticTicketRegistry extends AbstractDistributedT
             return result;
         }
 
+        if (!(result instanceof EncodedTicket)) {
+            logger.debug("Ticket [{}] was stored before encryption was enabled and is returned as is", result.getId());
+            return result;
+        }
+
         logger.info("Attempting to decode {}", result);
         final EncodedTicket encodedTicket = (EncodedTicket) result;
 
-        final Ticket ticket = CompressionUtils.decodeAndSerializeObject(
-                encodedTicket.getEncoded(), this.cipherExecutor, Ticket.class);
+        final Ticket ticket = this.ticketCodec.decode(this.cipherExecutor.decode(encodedTicket.getEncoded()));
         logger.info("Decoded {}",  ticket);
         return ticket;
     }
@@ -0,0 +1,606 @@
+package org.jasig.cas.ticket.registry.encrypt;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.apache.commons.lang3.SerializationUtils;
+import org.jasig.cas.authentication.Authentication;
+import org.jasig.cas.authentication.AuthenticationManager;
+import org.jasig.cas.authentication.CredentialMetaData;
+import org.jasig.cas.authentication.HandlerResult;
+import org.jasig.cas.authentication.ImmutableAuthentication;
+import org.jasig.cas.authentication.RememberMeCredential;
+import org.jasig.cas.authentication.SuccessfulHandlerMetaDataPopulator;
+import org.jasig.cas.authentication.principal.DefaultPrincipalFactory;
+import org.jasig.cas.authentication.principal.Principal;
+import org.jasig.cas.authentication.principal.PrincipalFactory;
+import org.jasig.cas.authentication.principal.Service;
+import org.jasig.cas.authentication.principal.SimplePrincipal;
+import org.jasig.cas.ticket.AbstractTicket;
+import org.jasig.cas.ticket.ExpirationPolicy;
+import org.jasig.cas.ticket.ProxyGrantingTicketImpl;
+import org.jasig.cas.ticket.ProxyTicketImpl;
+import org.jasig.cas.ticket.ServiceTicketImpl;
+import org.jasig.cas.ticket.Ticket;
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary codec for tickets stored by {@link AbstractCrypticTicketRegistry}.
+ *
+ * <p>The core ticket types, their authentications and principals are written field by field
+ * according to a fixed schema, so that class descriptors and field names of the ticket graph
+ * never make it into the payload. Attribute names and other repeated names are written once per
+ * payload and referenced by index afterwards; the most common names are known to the codec up front.
+ * Objects outside of the schema, such as services, expiration policies and custom ticket types,
+ * are written with Java serialization on the same stream, so that their class descriptors
+ * are shared as well.</p>
+ *
+ * <p>Payloads start with a magic number and the schema version. Payloads produced by plain Java
+ * serialization, as written by previous versions, are still decoded.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class CompactTicketCodec {
+
+    /** Schema version written after the magic number. */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC_HIGH = 0xCA;
+    private static final int MAGIC_LOW = 0x5C;
+    private static final int HEADER_LENGTH = 3;
+    private static final int BYTE_MASK = 0xFF;
+
+    private static final int TICKET_NULL = 0;
+    private static final int TICKET_OBJECT = 1;
+    private static final int TICKET_GRANTING_TICKET = 2;
+    private static final int PROXY_GRANTING_TICKET = 3;
+    private static final int SERVICE_TICKET = 4;
+    private static final int PROXY_TICKET = 5;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_OBJECT = 1;
+    private static final int VALUE_STRING = 2;
+    private static final int VALUE_TRUE = 3;
+    private static final int VALUE_FALSE = 4;
+    private static final int VALUE_INTEGER = 5;
+    private static final int VALUE_LONG = 6;
+    private static final int VALUE_ARRAY_LIST = 7;
+    private static final int VALUE_HASH_SET = 8;
+    private static final int VALUE_LINKED_HASH_SET = 9;
+
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int VARINT_SHIFT = 7;
+
+    /**
+     * Names known to both ends of the codec. Entries may only be appended,
+     * and only together with a new {@link #VERSION}.
+     */
+    private static final String[] WELL_KNOWN_NAMES = {
+            AuthenticationManager.AUTHENTICATION_METHOD_ATTRIBUTE,
+            SuccessfulHandlerMetaDataPopulator.SUCCESSFUL_AUTHENTICATION_HANDLERS,
+            RememberMeCredential.AUTHENTICATION_ATTRIBUTE_REMEMBER_ME,
+            "samlAuthenticationStatementAuthMethod",
+            "credentialType",
+            "UTC",
+            "uid", "cn", "sn", "mail", "givenName", "displayName", "memberOf", "eduPersonAffiliation",
+    };
+
+    private static final Map<String, Integer> WELL_KNOWN_INDEXES = new HashMap<>();
+
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+
+    private static final Field EXPIRATION_POLICY = field(AbstractTicket.class, "expirationPolicy");
+    private static final Field ID = field(AbstractTicket.class, "id");
+    private static final Field GRANTING_TICKET = field(AbstractTicket.class, "ticketGrantingTicket");
+    private static final Field LAST_TIME_USED = field(AbstractTicket.class, "lastTimeUsed");
+    private static final Field PREVIOUS_LAST_TIME_USED = field(AbstractTicket.class, "previousLastTimeUsed");
+    private static final Field CREATION_TIME = field(AbstractTicket.class, "creationTime");
+    private static final Field COUNT_OF_USES = field(AbstractTicket.class, "countOfUses");
+
+    private static final Field AUTHENTICATION = field(TicketGrantingTicketImpl.class, "authentication");
+    private static final Field EXPIRED = field(TicketGrantingTicketImpl.class, "expired");
+    private static final Field PROXIED_BY = field(TicketGrantingTicketImpl.class, "proxiedBy");
+    private static final Field SERVICES = field(TicketGrantingTicketImpl.class, "services");
+    private static final Field SUPPLEMENTAL_AUTHENTICATIONS =
+            field(TicketGrantingTicketImpl.class, "supplementalAuthentications");
+
+    private static final Field SERVICE = field(ServiceTicketImpl.class, "service");
+    private static final Field FROM_NEW_LOGIN = field(ServiceTicketImpl.class, "fromNewLogin");
+    private static final Field GRANTED_TICKET_ALREADY = field(ServiceTicketImpl.class, "grantedTicketAlready");
+
+    static {
+        for (int i = 0; i < WELL_KNOWN_NAMES.length; i++) {
+            WELL_KNOWN_INDEXES.put(WELL_KNOWN_NAMES[i], i);
+        }
+    }
+
+    private final PrincipalFactory principalFactory = new DefaultPrincipalFactory();
+
+    private boolean schemaEncodingEnabled = true;
+
+    /**
+     * Encode the ticket.
+     *
+     * @param ticket the ticket
+     * @return the encoded ticket
+     */
+    public byte[] encode(final Ticket ticket) {
+        if (!this.schemaEncodingEnabled) {
+            return SerializationUtils.serialize(ticket);
+        }
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.write(MAGIC_HIGH);
+            bytes.write(MAGIC_LOW);
+            bytes.write(VERSION);
+            try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                new Writer(out).writeTicket(ticket);
+            }
+            return bytes.toByteArray();
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Unable to encode ticket " + ticket.getId(), e);
+        }
+    }
+
+    /**
+     * Decode the ticket.
+     *
+     * @param encoded the encoded ticket
+     * @return the ticket
+     */
+    public Ticket decode(final byte[] encoded) {
+        if (encoded.length < HEADER_LENGTH || (encoded[0] & BYTE_MASK) != MAGIC_HIGH
+                || (encoded[1] & BYTE_MASK) != MAGIC_LOW) {
+            return (Ticket) SerializationUtils.deserialize(encoded);
+        }
+        if (encoded[2] != VERSION) {
+            throw new IllegalArgumentException("Unsupported ticket schema version " + encoded[2]);
+        }
+        try (final ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(encoded, HEADER_LENGTH, encoded.length - HEADER_LENGTH))) {
+            return new Reader(in).readTicket();
+        } catch (final IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to decode ticket", e);
+        }
+    }
+
+    /**
+     * Sets whether tickets are written with the schema. When disabled, tickets
+     * are written with plain Java serialization, which nodes running a previous version
+     * are able to read during a rolling upgrade. Both formats are always decoded.
+     *
+     * @param schemaEncodingEnabled true to write tickets with the schema
+     */
+    public void setSchemaEncodingEnabled(final boolean schemaEncodingEnabled) {
+        this.schemaEncodingEnabled = schemaEncodingEnabled;
+    }
+
+    private static Field field(final Class<?> type, final String name) {
+        final Field field = ReflectionUtils.findField(type, name);
+        if (field == null) {
+            throw new IllegalStateException("Field " + name + " is not defined by " + type.getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+    private static Object get(final Field field, final Object target) {
+        return ReflectionUtils.getField(field, target);
+    }
+
+    private static void set(final Field field, final Object target, final Object value) {
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    /**
+     * Writes a single payload. Not thread-safe.
+     */
+    private static final class Writer {
+        private final ObjectOutputStream out;
+        private final Map<String, Integer> names = new HashMap<>();
+
+        Writer(final ObjectOutputStream out) {
+            this.out = out;
+        }
+
+        void writeTicket(final Ticket ticket) throws IOException {
+            if (ticket == null) {
+                this.out.writeByte(TICKET_NULL);
+                return;
+            }
+
+            final Class<?> type = ticket.getClass();
+            if (type == TicketGrantingTicketImpl.class || type == ProxyGrantingTicketImpl.class) {
+                this.out.writeByte(type == TicketGrantingTicketImpl.class ? TICKET_GRANTING_TICKET : PROXY_GRANTING_TICKET);
+                writeAbstractTicket((AbstractTicket) ticket);
+                writeAuthentication((Authentication) get(AUTHENTICATION, ticket));
+                this.out.writeBoolean((Boolean) get(EXPIRED, ticket));
+                this.out.writeObject(get(PROXIED_BY, ticket));
+
+                final Map<String, Service> services = (Map<String, Service>) get(SERVICES, ticket);
+                writeCount(services.size());
+                for (final Map.Entry<String, Service> entry : services.entrySet()) {
+                    writeText(entry.getKey());
+                    this.out.writeObject(entry.getValue());
+                }
+
+                final List<Authentication> supplemental = (List<Authentication>) get(SUPPLEMENTAL_AUTHENTICATIONS, ticket);
+                writeCount(supplemental.size());
+                for (final Authentication authentication : supplemental) {
+                    writeAuthentication(authentication);
+                }
+            } else if (type == ServiceTicketImpl.class || type == ProxyTicketImpl.class) {
+                this.out.writeByte(type == ServiceTicketImpl.class ? SERVICE_TICKET : PROXY_TICKET);
+                writeAbstractTicket((AbstractTicket) ticket);
+                this.out.writeObject(get(SERVICE, ticket));
+                this.out.writeBoolean((Boolean) get(FROM_NEW_LOGIN, ticket));
+                writeValue(get(GRANTED_TICKET_ALREADY, ticket));
+            } else {
+                this.out.writeByte(TICKET_OBJECT);
+                this.out.writeObject(ticket);
+            }
+        }
+
+        private void writeAbstractTicket(final AbstractTicket ticket) throws IOException {
+            writeText(ticket.getId());
+            this.out.writeObject(get(EXPIRATION_POLICY, ticket));
+            this.out.writeLong(ticket.getCreationTime());
+            this.out.writeLong(ticket.getLastTimeUsed());
+            this.out.writeLong(ticket.getPreviousTimeUsed());
+            writeCount(ticket.getCountOfUses());
+            writeTicket((Ticket) get(GRANTING_TICKET, ticket));
+        }
+
+        private void writeAuthentication(final Authentication authentication) throws IOException {
+            if (!isSchemaAuthentication(authentication)) {
+                this.out.writeBoolean(false);
+                this.out.writeObject(authentication);
+                return;
+            }
+            this.out.writeBoolean(true);
+
+            final DateTime date = authentication.getAuthenticationDate();
+            this.out.writeLong(date.getMillis());
+            writeName(date.getZone().getID());
+
+            writePrincipal(authentication.getPrincipal());
+            writeAttributes(authentication.getAttributes());
+
+            final List<CredentialMetaData> credentials = authentication.getCredentials();
+            writeCount(credentials.size());
+            for (final CredentialMetaData credential : credentials) {
+                this.out.writeObject(credential);
+            }
+
+            final Map<String, HandlerResult> successes = authentication.getSuccesses();
+            writeCount(successes.size());
+            for (final Map.Entry<String, HandlerResult> entry : successes.entrySet()) {
+                writeName(entry.getKey());
+                this.out.writeObject(entry.getValue());
+            }
+
+            final Map<String, Class<? extends Exception>> failures = authentication.getFailures();
+            writeCount(failures.size());
+            for (final Map.Entry<String, Class<? extends Exception>> entry : failures.entrySet()) {
+                writeName(entry.getKey());
+                this.out.writeObject(entry.getValue());
+            }
+        }
+
+        private void writePrincipal(final Principal principal) throws IOException {
+            if (principal == null || principal.getClass() != SimplePrincipal.class) {
+                this.out.writeBoolean(false);
+                this.out.writeObject(principal);
+                return;
+            }
+            this.out.writeBoolean(true);
+            writeText(principal.getId());
+            writeAttributes(principal.getAttributes());
+        }
+
+        private void writeAttributes(final Map<String, Object> attributes) throws IOException {
+            writeCount(attributes.size());
+            for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+                writeName(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        private void writeValue(final Object value) throws IOException {
+            if (value == null) {
+                this.out.writeByte(VALUE_NULL);
+                return;
+            }
+
+            final Class<?> type = value.getClass();
+            if (type == String.class) {
+                this.out.writeByte(VALUE_STRING);
+                writeText((String) value);
+            } else if (type == Boolean.class) {
+                this.out.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+            } else if (type == Integer.class) {
+                this.out.writeByte(VALUE_INTEGER);
+                this.out.writeInt((Integer) value);
+            } else if (type == Long.class) {
+                this.out.writeByte(VALUE_LONG);
+                this.out.writeLong((Long) value);
+            } else if (type == ArrayList.class || type == HashSet.class || type == LinkedHashSet.class) {
+                this.out.writeByte(type == ArrayList.class ? VALUE_ARRAY_LIST
+                        : type == HashSet.class ? VALUE_HASH_SET : VALUE_LINKED_HASH_SET);
+                final Collection<?> values = (Collection<?>) value;
+                writeCount(values.size());
+                for (final Object element : values) {
+                    writeValue(element);
+                }
+            } else {
+                this.out.writeByte(VALUE_OBJECT);
+                this.out.writeObject(value);
+            }
+        }
+
+        /**
+         * Names are written once per payload and referenced by index afterwards.
+         * Indexes below the number of well-known names refer to those.
+         */
+        private void writeName(final String name) throws IOException {
+            Integer index = WELL_KNOWN_INDEXES.get(name);
+            if (index == null) {
+                index = this.names.get(name);
+                if (index != null) {
+                    index += WELL_KNOWN_NAMES.length;
+                }
+            }
+            if (index != null) {
+                writeCount(index + 1);
+                return;
+            }
+            this.names.put(name, this.names.size());
+            writeCount(0);
+            writeText(name);
+        }
+
+        private void writeText(final String text) throws IOException {
+            if (text == null) {
+                writeCount(0);
+                return;
+            }
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeCount(bytes.length + 1);
+            this.out.write(bytes);
+        }
+
+        private void writeCount(final int count) throws IOException {
+            int value = count;
+            while ((value & ~VARINT_MASK) != 0) {
+                this.out.writeByte((value & VARINT_MASK) | VARINT_CONTINUATION);
+                value >>>= VARINT_SHIFT;
+            }
+            this.out.writeByte(value);
+        }
+
+        /**
+         * Authentications are only written with the schema if they can be rebuilt
+         * through the {@link ImmutableAuthentication} constructor.
+         */
+        private boolean isSchemaAuthentication(final Authentication authentication) {
+            if (authentication == null || authentication.getClass() != ImmutableAuthentication.class) {
+                return false;
+            }
+            final DateTime date = authentication.getAuthenticationDate();
+            return date != null && date.getChronology().equals(ISOChronology.getInstance(date.getZone()))
+                    && authentication.getPrincipal() != null
+                    && !authentication.getCredentials().isEmpty()
+                    && !authentication.getSuccesses().isEmpty();
+        }
+    }
+
+    /**
+     * Reads a single payload. Not thread-safe.
+     */
+    private final class Reader {
+        private final ObjectInputStream in;
+        private final List<String> names = new ArrayList<>();
+
+        Reader(final ObjectInputStream in) {
+            this.in = in;
+        }
+
+        Ticket readTicket() throws IOException, ClassNotFoundException {
+            final int type = this.in.readUnsignedByte();
+            switch (type) {
+                case TICKET_NULL:
+                    return null;
+                case TICKET_OBJECT:
+                    return (Ticket) this.in.readObject();
+                case TICKET_GRANTING_TICKET:
+                case PROXY_GRANTING_TICKET:
+                    final TicketGrantingTicketImpl ticketGrantingTicket = type == TICKET_GRANTING_TICKET
+                            ? new TicketGrantingTicketImpl() : new ProxyGrantingTicketImpl();
+                    readAbstractTicket(ticketGrantingTicket);
+                    set(AUTHENTICATION, ticketGrantingTicket, readAuthentication());
+                    set(EXPIRED, ticketGrantingTicket, this.in.readBoolean());
+                    set(PROXIED_BY, ticketGrantingTicket, this.in.readObject());
+
+                    final Map<String, Service> services = (Map<String, Service>) get(SERVICES, ticketGrantingTicket);
+                    for (int i = readCount(); i > 0; i--) {
+                        services.put(readText(), (Service) this.in.readObject());
+                    }
+
+                    final int supplementalCount = readCount();
+                    final List<Authentication> supplemental = new ArrayList<>(supplementalCount);
+                    for (int i = 0; i < supplementalCount; i++) {
+                        supplemental.add(readAuthentication());
+                    }
+                    ((List<Authentication>) get(SUPPLEMENTAL_AUTHENTICATIONS, ticketGrantingTicket)).addAll(supplemental);
+                    return ticketGrantingTicket;
+                case SERVICE_TICKET:
+                case PROXY_TICKET:
+                    final ServiceTicketImpl serviceTicket = type == SERVICE_TICKET
+                            ? new ServiceTicketImpl() : new ProxyTicketImpl();
+                    readAbstractTicket(serviceTicket);
+                    set(SERVICE, serviceTicket, this.in.readObject());
+                    set(FROM_NEW_LOGIN, serviceTicket, this.in.readBoolean());
+                    set(GRANTED_TICKET_ALREADY, serviceTicket, readValue());
+                    return serviceTicket;
+                default:
+                    throw new IOException("Unknown ticket type " + type);
+            }
+        }
+
+        private void readAbstractTicket(final AbstractTicket ticket) throws IOException, ClassNotFoundException {
+            set(ID, ticket, readText());
+            set(EXPIRATION_POLICY, ticket, (ExpirationPolicy) this.in.readObject());
+            ((AtomicLong) get(CREATION_TIME, ticket)).set(this.in.readLong());
+            ((AtomicLong) get(LAST_TIME_USED, ticket)).set(this.in.readLong());
+            ((AtomicLong) get(PREVIOUS_LAST_TIME_USED, ticket)).set(this.in.readLong());
+            ((AtomicInteger) get(COUNT_OF_USES, ticket)).set(readCount());
+            set(GRANTING_TICKET, ticket, (TicketGrantingTicket) readTicket());
+        }
+
+        private Authentication readAuthentication() throws IOException, ClassNotFoundException {
+            if (!this.in.readBoolean()) {
+                return (Authentication) this.in.readObject();
+            }
+
+            final long millis = this.in.readLong();
+            final DateTime date = new DateTime(millis, DateTimeZone.forID(readName()));
+
+            final Principal principal = readPrincipal();
+            final Map<String, Object> attributes = readAttributes();
+
+            final int credentialCount = readCount();
+            final List<CredentialMetaData> credentials = new ArrayList<>(credentialCount);
+            for (int i = 0; i < credentialCount; i++) {
+                credentials.add((CredentialMetaData) this.in.readObject());
+            }
+
+            final int successCount = readCount();
+            final Map<String, HandlerResult> successes = new LinkedHashMap<>(successCount);
+            for (int i = 0; i < successCount; i++) {
+                successes.put(readName(), (HandlerResult) this.in.readObject());
+            }
+
+            final int failureCount = readCount();
+            final Map<String, Class<? extends Exception>> failures = new LinkedHashMap<>(failureCount);
+            for (int i = 0; i < failureCount; i++) {
+                failures.put(readName(), (Class<? extends Exception>) this.in.readObject());
+            }
+            return new ImmutableAuthentication(date, credentials, principal, attributes, successes, failures);
+        }
+
+        private Principal readPrincipal() throws IOException, ClassNotFoundException {
+            if (!this.in.readBoolean()) {
+                return (Principal) this.in.readObject();
+            }
+            final String id = readText();
+            return principalFactory.createPrincipal(id, readAttributes());
+        }
+
+        private Map<String, Object> readAttributes() throws IOException, ClassNotFoundException {
+            final int count = readCount();
+            final Map<String, Object> attributes = new LinkedHashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                attributes.put(readName(), readValue());
+            }
+            return attributes;
+        }
+
+        private Object readValue() throws IOException, ClassNotFoundException {
+            final int type = this.in.readUnsignedByte();
+            switch (type) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_OBJECT:
+                    return this.in.readObject();
+                case VALUE_STRING:
+                    return readText();
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_INTEGER:
+                    return this.in.readInt();
+                case VALUE_LONG:
+                    return this.in.readLong();
+                case VALUE_ARRAY_LIST:
+                case VALUE_HASH_SET:
+                case VALUE_LINKED_HASH_SET:
+                    final int count = readCount();
+                    final Collection<Object> values = type == VALUE_ARRAY_LIST ? new ArrayList<>(count)
+                            : type == VALUE_HASH_SET ? new HashSet<>() : new LinkedHashSet<>();
+                    for (int i = 0; i < count; i++) {
+                        values.add(readValue());
+                    }
+                    return values;
+                default:
+                    throw new IOException("Unknown value type " + type);
+            }
+        }
+
+        private String readName() throws IOException {
+            final int reference = readCount();
+            if (reference == 0) {
+                final String name = NAMES.intern(readText());
+                this.names.add(name);
+                return name;
+            }
+            final int index = reference - 1;
+            if (index < WELL_KNOWN_NAMES.length) {
+                return WELL_KNOWN_NAMES[index];
+            }
+            if (index - WELL_KNOWN_NAMES.length >= this.names.size()) {
+                throw new IOException("Unknown name reference " + reference);
+            }
+            return this.names.get(index - WELL_KNOWN_NAMES.length);
+        }
+
+        private String readText() throws IOException {
+            final int length = readCount();
+            if (length == 0) {
+                return null;
+            }
+            final byte[] bytes = new byte[length - 1];
+            this.in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readCount() throws IOException {
+            int value = 0;
+            int shift = 0;
+            int current;
+            do {
+                if (shift > Integer.SIZE) {
+                    throw new IOException("Malformed count");
+                }
+                current = this.in.readUnsignedByte();
+                value |= (current & VARINT_MASK) << shift;
+                shift += VARINT_SHIFT;
+            } while ((current & VARINT_CONTINUATION) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.jasig.cas.ticket.registry.encrypt;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.jasig.cas.authentication.Authentication;
+import org.jasig.cas.authentication.TestUtils;
+import org.jasig.cas.authentication.principal.Principal;
+import org.jasig.cas.mock.MockService;
+import org.jasig.cas.ticket.ServiceTicket;
+import org.jasig.cas.ticket.Ticket;
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
+import org.jasig.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class CompactTicketCodecTests {
+
+    private final CompactTicketCodec codec = new CompactTicketCodec();
+
+    @Test
+    public void verifyTicketGrantingTicketRoundTrip() {
+        final TicketGrantingTicketImpl tgt = newTicketGrantingTicket();
+        tgt.grantServiceTicket("ST-1", new MockService("https://example.org"), new NeverExpiresExpirationPolicy(), false, true);
+        tgt.getSupplementalAuthentications().add(TestUtils.getAuthentication("other"));
+
+        final TicketGrantingTicket decoded = (TicketGrantingTicket) this.codec.decode(this.codec.encode(tgt));
+
+        assertEquals(tgt, decoded);
+        assertEquals(tgt.getAuthentication(), decoded.getAuthentication());
+        assertEquals(tgt.getAuthentication().getPrincipal().getAttributes(),
+                decoded.getAuthentication().getPrincipal().getAttributes());
+        assertEquals(tgt.getCreationTime(), decoded.getCreationTime());
+        assertEquals(tgt.getLastTimeUsed(), decoded.getLastTimeUsed());
+        assertEquals(tgt.getCountOfUses(), decoded.getCountOfUses());
+        assertEquals("https://example.org", decoded.getServices().get("ST-1").getId());
+        assertEquals(tgt.getSupplementalAuthentications(), decoded.getSupplementalAuthentications());
+        assertFalse(decoded.isExpired());
+    }
+
+    @Test
+    public void verifyServiceTicketRoundTrip() {
+        final TicketGrantingTicketImpl tgt = newTicketGrantingTicket();
+        final ServiceTicket st = tgt.grantServiceTicket("ST-1", new MockService("https://example.org"),
+                new NeverExpiresExpirationPolicy(), false, true);
+
+        final ServiceTicket decoded = (ServiceTicket) this.codec.decode(this.codec.encode(st));
+
+        assertEquals(st, decoded);
+        assertEquals("https://example.org", decoded.getService().getId());
+        assertTrue(decoded.isFromNewLogin());
+        assertEquals(tgt, decoded.getGrantingTicket());
+        assertEquals(tgt.getAuthentication(), decoded.getGrantingTicket().getAuthentication());
+    }
+
+    @Test
+    public void verifyJavaSerializedTicketIsDecoded() {
+        final TicketGrantingTicketImpl tgt = newTicketGrantingTicket();
+        final Ticket decoded = this.codec.decode(SerializationUtils.serialize(tgt));
+        assertEquals(tgt, decoded);
+    }
+
+    @Test
+    public void verifyJavaSerializationWhenSchemaDisabled() {
+        final TicketGrantingTicketImpl tgt = newTicketGrantingTicket();
+        this.codec.setSchemaEncodingEnabled(false);
+        final byte[] encoded = this.codec.encode(tgt);
+        assertEquals(tgt, SerializationUtils.deserialize(encoded));
+        assertEquals(tgt, this.codec.decode(encoded));
+    }
+
+    @Test
+    public void verifySchemaEncodingIsSmaller() {
+        final TicketGrantingTicketImpl tgt = newTicketGrantingTicket();
+        assertTrue(this.codec.encode(tgt).length < SerializationUtils.serialize(tgt).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyUnknownVersionIsRejected() {
+        final byte[] encoded = this.codec.encode(newTicketGrantingTicket());
+        encoded[2] = (byte) (CompactTicketCodec.VERSION + 1);
+        this.codec.decode(encoded);
+    }
+
+    private static TicketGrantingTicketImpl newTicketGrantingTicket() {
+        final Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("uid", "casuser");
+        attributes.put("memberOf", new ArrayList<>(Arrays.asList("staff", "faculty")));
+        attributes.put("customAttribute", 42L);
+        final Principal principal = TestUtils.getPrincipal("casuser", attributes);
+        final Authentication authentication = TestUtils.getAuthentication(principal,
+                Collections.<String, Object>singletonMap("authenticationMethod", "testHandler"));
+        return new TicketGrantingTicketImpl("TGT-1", authentication, new NeverExpiresExpirationPolicy());
+    }
+}
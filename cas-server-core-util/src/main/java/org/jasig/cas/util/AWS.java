@@ -25,7 +25,7 @@ public class AWS
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
 
-  private KeyManager keymanager = null;
+  private volatile KeyManager keymanager = null;
 
 
 
@@ -38,10 +38,7 @@ public class AWS
    */
   public static AWS getAWSKeyManager()
   {
-    if (instance != null)
-    {
-      instance.init();
-    }
+    instance.initIfNecessary();
     return instance;
   }
 
@@ -55,12 +52,26 @@ public class AWS
    */
   public synchronized void init() 
   {
-	logger.info("Initializing Mail server");
+	logger.info("Initializing key manager");
     keymanager = new KeyManager();
   }
 
 
 
+  /**
+   * Performs the initialization of the encryption/decryption service,
+   * unless it has already been initialized.
+   */
+  private synchronized void initIfNecessary()
+  {
+    if (keymanager == null)
+    {
+      init();
+    }
+  }
+
+
+
   /**
    * decryptes the properties in the properties file.
    * 
@@ -71,21 +82,18 @@ public class AWS
   public Properties decryptProperties(
       final Properties encryptedProperties) throws IOException
   {
-	logger.info("decrypting the properties {} ",
-        encryptedProperties.toString());
+	logger.info("decrypting {} properties", encryptedProperties.size());
     final Properties decryptedProperties = new Properties();
     final Iterator<Entry<Object, Object>> propertyIterator =
         encryptedProperties.entrySet().iterator();
     while (propertyIterator.hasNext())
     {
       final Entry<Object, Object> property = propertyIterator.next();
-      logger.debug("decrypting property {}", property.toString());
+      logger.debug("decrypting property {}", property.getKey());
       decryptedProperties.put(property.getKey(),
           decrypt((String) property.getValue()));
     }
-    logger.info("completed decrypting th properties");
-    logger.debug("completed decrypting th properties {}",
-        decryptedProperties.toString());
+    logger.info("completed decrypting the properties");
     return decryptedProperties;
   }
 
@@ -5,9 +5,11 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.PrettyPrinter;
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 
 import java.io.File;
 import java.io.InputStream;
@@ -17,6 +19,7 @@ import java.io.Writer;
 
 /**
  * Generic class to serialize objects to/from JSON based on jackson.
+ * The reader and writer are created once, and are shared by all calls.
  * @author Misagh Moayyed
  * @since 4.1
  */
@@ -24,48 +27,48 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     private static final long serialVersionUID = -8415599777321259365L;
 
     /**
-     * The Pretty printer.
+     * The reader of the type to serialize.
      */
-    private final PrettyPrinter prettyPrinter;
+    private final ObjectReader reader;
 
     /**
-     * The Object mapper.
+     * The writer, formatting with the pretty printer if any.
      */
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
 
     /**
      * Instantiates a new Registered service json serializer.
-     * Uses the {@link com.fasterxml.jackson.core.util.DefaultPrettyPrinter} for formatting.
+     * Produces compact JSON, without formatting.
      */
     public AbstractJacksonBackedJsonSerializer() {
-        this(new DefaultPrettyPrinter());
+        this((PrettyPrinter) null);
     }
 
     /**
      * Instantiates a new Registered service json serializer.
      *
-     * @param prettyPrinter the pretty printer
+     * @param prettyPrinter the pretty printer; null produces compact JSON
      */
     public AbstractJacksonBackedJsonSerializer(final PrettyPrinter prettyPrinter) {
-        this.objectMapper = initializeObjectMapper();
-        this.prettyPrinter = prettyPrinter;
+        this(null, prettyPrinter);
     }
 
     /**
      * Instantiates a new Registered service json serializer.
      *
-     * @param objectMapper  the object mapper
-     * @param prettyPrinter the pretty printer
+     * @param objectMapper  the object mapper; null uses {@link #initializeObjectMapper()}
+     * @param prettyPrinter the pretty printer; null produces compact JSON
      */
     public AbstractJacksonBackedJsonSerializer(final ObjectMapper objectMapper, final PrettyPrinter prettyPrinter) {
-        this.objectMapper = objectMapper;
-        this.prettyPrinter = prettyPrinter;
+        final ObjectMapper mapper = objectMapper != null ? objectMapper : initializeObjectMapper();
+        this.reader = mapper.readerFor(getTypeToSerialize());
+        this.writer = prettyPrinter != null ? mapper.writer(prettyPrinter) : mapper.writer();
     }
 
     @Override
     public T fromJson(final String json) {
         try {
-            return this.objectMapper.readValue(json, getTypeToSerialize());
+            return this.reader.readValue(json);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -74,7 +77,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     @Override
     public T fromJson(final File json) {
         try {
-            return this.objectMapper.readValue(json, getTypeToSerialize());
+            return this.reader.readValue(json);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -83,7 +86,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     @Override
     public T fromJson(final Reader json) {
         try {
-            return this.objectMapper.readValue(json, getTypeToSerialize());
+            return this.reader.readValue(json);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -92,7 +95,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     @Override
     public T fromJson(final InputStream json) {
         try {
-            return this.objectMapper.readValue(json, getTypeToSerialize());
+            return this.reader.readValue(json);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -101,7 +104,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     @Override
     public void toJson(final OutputStream out, final T object) {
         try {
-            this.objectMapper.writer(this.prettyPrinter).writeValue(out, object);
+            this.writer.writeValue(out, object);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -110,7 +113,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     @Override
     public void toJson(final Writer out, final T object) {
         try {
-            this.objectMapper.writer(this.prettyPrinter).writeValue(out, object);
+            this.writer.writeValue(out, object);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -119,7 +122,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
     @Override
     public void toJson(final File out, final T object) {
         try {
-            this.objectMapper.writer(this.prettyPrinter).writeValue(out, object);
+            this.writer.writeValue(out, object);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -138,6 +141,7 @@ public abstract class AbstractJacksonBackedJsonSerializer<T> implements JsonSeri
         mapper.setVisibility(PropertyAccessor.GETTER, JsonAutoDetect.Visibility.PROTECTED_AND_PUBLIC);
         mapper.setVisibility(PropertyAccessor.IS_GETTER, JsonAutoDetect.Visibility.PROTECTED_AND_PUBLIC);
         mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        mapper.registerModule(new AfterburnerModule());
         return mapper;
     }
 
@@ -0,0 +1,143 @@
+package org.jasig.cas.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Remembers the values that another {@link PropertyKeyManager} decrypted, by their
+ * ciphertext, so that each distinct value is decrypted once.
+ *
+ * <p>{@link #decryptAll(Collection)} decrypts a whole property set at once: values
+ * that occur more than once or were decrypted before are decrypted only once, and
+ * the others are decrypted concurrently. The decrypting key manager must therefore
+ * be safe for concurrent use, unless the concurrency is 1.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class CachingPropertyKeyManager implements PropertyKeyManager {
+
+    /** Default number of values that are decrypted at the same time. */
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final PropertyKeyManager keyManager;
+
+    private final int concurrency;
+
+    private final Map<String, String> decryptedValues = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new key manager.
+     *
+     * @param keyManager the key manager that decrypts values
+     */
+    public CachingPropertyKeyManager(final PropertyKeyManager keyManager) {
+        this(keyManager, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Instantiates a new key manager.
+     *
+     * @param keyManager the key manager that decrypts values
+     * @param concurrency the number of values that {@link #decryptAll(Collection)} decrypts at the same time
+     */
+    public CachingPropertyKeyManager(final PropertyKeyManager keyManager, final int concurrency) {
+        this.keyManager = keyManager;
+        this.concurrency = Math.max(concurrency, 1);
+    }
+
+    @Override
+    public String decrypt(final String value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        String decrypted = this.decryptedValues.get(value);
+        if (decrypted == null) {
+            decrypted = this.keyManager.decrypt(value);
+            remember(value, decrypted);
+        }
+        return decrypted;
+    }
+
+    /**
+     * Decrypt all values.
+     *
+     * @param values the property values
+     * @return the decrypted values, by their original value
+     * @throws IOException if any value cannot be decrypted
+     */
+    public Map<String, String> decryptAll(final Collection<String> values) throws IOException {
+        final Set<String> pending = new LinkedHashSet<>();
+        for (final String value : values) {
+            if (value != null && !this.decryptedValues.containsKey(value)) {
+                pending.add(value);
+            }
+        }
+        if (pending.size() == 1 || this.concurrency == 1) {
+            for (final String value : pending) {
+                decrypt(value);
+            }
+        } else if (!pending.isEmpty()) {
+            decryptConcurrently(pending);
+        }
+        logger.debug("Decrypted {} property values", pending.size());
+
+        final Map<String, String> result = new HashMap<>(values.size());
+        for (final String value : values) {
+            if (value != null) {
+                result.put(value, this.decryptedValues.get(value));
+            }
+        }
+        return result;
+    }
+
+    private void remember(final String value, final String decrypted) {
+        if (decrypted != null) {
+            this.decryptedValues.put(value, decrypted);
+        }
+    }
+
+    private void decryptConcurrently(final Set<String> values) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.concurrency, values.size()));
+        try {
+            final Map<String, Future<String>> futures = new LinkedHashMap<>(values.size());
+            for (final String value : values) {
+                futures.put(value, executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return keyManager.decrypt(value);
+                    }
+                }));
+            }
+            for (final Map.Entry<String, Future<String>> entry : futures.entrySet()) {
+                remember(entry.getKey(), entry.getValue().get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decrypting property values", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -8,39 +8,80 @@ package org.jasig.cas.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
+import org.springframework.util.ObjectUtils;
 
-public class EncryptationAwarePropertyPlaceholderConfigurer extends PropertyPlaceholderConfigurer{
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
-	/** Log instance for logging events, info, warnings, errors, etc. */
+/**
+ * Property placeholder configurer that decrypts the property values with a {@link PropertyKeyManager}.
+ *
+ * <p>All values are decrypted at once before placeholders are resolved, and each distinct
+ * value is decrypted once. By default values are decrypted one at a time with the key
+ * management service, which is connected to when the first value is decrypted.</p>
+ */
+public class EncryptationAwarePropertyPlaceholderConfigurer extends PropertyPlaceholderConfigurer {
+
+    /** Log instance for logging events, info, warnings, errors, etc. */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-	@Override
-	protected String convertPropertyValue(String originalValue) throws IllegalArgumentException{
-		try {
-			return decrypt(originalValue);
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-			logger.error("Error occured while decripting the give value {}", e);
-			throw new IllegalArgumentException(e); 
-		}		
-	}
-	
+    private CachingPropertyKeyManager keyManager;
+
     /**
-     * Decryption the given value using KeyManagemtn mechanism   
-     * 
-     * @param ciphertext
-     * @return The decrypted value.
-     * @throws IllegalArgumentException 
+     * Sets the key manager that decrypts the property values.
+     *
+     * @param keyManager the key manager
      */
-    private String decrypt(String ciphertext) throws IllegalArgumentException 
-	{
-    	try {
-    		ciphertext = AWS.getAWSKeyManager().decrypt(ciphertext);
-		} catch (Exception e) {
-			e.printStackTrace();
-			logger.error("Error occured while decripting the give value {}"+ciphertext, e);
-			throw new IllegalArgumentException(e); 
-		}
-	    return ciphertext;
-	}
-}
\ No newline at end of file
+    public void setKeyManager(final PropertyKeyManager keyManager) {
+        this.keyManager = keyManager instanceof CachingPropertyKeyManager
+                ? (CachingPropertyKeyManager) keyManager : new CachingPropertyKeyManager(keyManager);
+    }
+
+    @Override
+    protected void convertProperties(final Properties props) {
+        final List<String> values = new ArrayList<>(props.size());
+        final Enumeration<?> names = props.propertyNames();
+        while (names.hasMoreElements()) {
+            values.add(props.getProperty((String) names.nextElement()));
+        }
+
+        final Map<String, String> decryptedValues;
+        try {
+            decryptedValues = getKeyManager().decryptAll(values);
+        } catch (final IOException e) {
+            logger.error("Error occurred while decrypting the property values", e);
+            throw new IllegalArgumentException(e);
+        }
+
+        final Enumeration<?> propertyNames = props.propertyNames();
+        while (propertyNames.hasMoreElements()) {
+            final String name = (String) propertyNames.nextElement();
+            final String value = props.getProperty(name);
+            final String decryptedValue = decryptedValues.get(value);
+            if (decryptedValue != null && !ObjectUtils.nullSafeEquals(value, decryptedValue)) {
+                props.setProperty(name, decryptedValue);
+            }
+        }
+    }
+
+    @Override
+    protected String convertPropertyValue(final String originalValue) throws IllegalArgumentException {
+        try {
+            return getKeyManager().decrypt(originalValue);
+        } catch (final IOException e) {
+            logger.error("Error occurred while decrypting a property value", e);
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private synchronized CachingPropertyKeyManager getKeyManager() {
+        if (this.keyManager == null) {
+            this.keyManager = new CachingPropertyKeyManager(new KmsPropertyKeyManager(), 1);
+        }
+        return this.keyManager;
+    }
+}
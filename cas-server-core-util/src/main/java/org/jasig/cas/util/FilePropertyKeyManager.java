@@ -0,0 +1,70 @@
+package org.jasig.cas.util;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+import org.apache.shiro.crypto.AesCipherService;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decrypts property values with an AES key that is read from a local file, so that
+ * encrypted configuration can be used without access to the key management service,
+ * such as in tests.
+ *
+ * <p>The file holds the Base64 encoded key. Encrypted values are written as
+ * {@code ENC(<Base64 encoded ciphertext>)}; other values are returned as they are.
+ * {@link #encrypt(String)} produces such values.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class FilePropertyKeyManager implements PropertyKeyManager {
+
+    private static final String PREFIX = "ENC(";
+
+    private static final String SUFFIX = ")";
+
+    private final AesCipherService cipherService = new AesCipherService();
+
+    private final byte[] key;
+
+    /**
+     * Instantiates a new key manager.
+     *
+     * @param keyFile the file that holds the Base64 encoded key
+     * @throws IOException if the file cannot be read
+     */
+    public FilePropertyKeyManager(final Resource keyFile) throws IOException {
+        try (final InputStream in = keyFile.getInputStream()) {
+            this.key = Base64.decodeBase64(IOUtils.toString(in, StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    @Override
+    public String decrypt(final String value) throws IOException {
+        if (value == null || !value.startsWith(PREFIX) || !value.endsWith(SUFFIX)) {
+            return value;
+        }
+        final String ciphertext = value.substring(PREFIX.length(), value.length() - SUFFIX.length());
+        try {
+            final byte[] decrypted = this.cipherService.decrypt(Base64.decodeBase64(ciphertext), this.key).getBytes();
+            return new String(decrypted, StandardCharsets.UTF_8);
+        } catch (final RuntimeException e) {
+            throw new IOException("Could not decrypt property value", e);
+        }
+    }
+
+    /**
+     * Encrypt the value into the form that {@link #decrypt(String)} accepts.
+     *
+     * @param value the value
+     * @return the encrypted value
+     */
+    public String encrypt(final String value) {
+        final byte[] encrypted = this.cipherService.encrypt(value.getBytes(StandardCharsets.UTF_8), this.key).getBytes();
+        return PREFIX + Base64.encodeBase64String(encrypted) + SUFFIX;
+    }
+}
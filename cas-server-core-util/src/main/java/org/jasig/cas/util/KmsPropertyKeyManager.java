@@ -0,0 +1,38 @@
+package org.jasig.cas.util;
+
+import com.wavity.kms.KeyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Decrypts property values with the key management service.
+ *
+ * <p>The {@link KeyManager} is created once, when the first value is decrypted.
+ * The {@link KeyManager} does not document itself as safe for concurrent use, so
+ * values are decrypted one at a time.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class KmsPropertyKeyManager implements PropertyKeyManager {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private KeyManager keyManager;
+
+    @Override
+    public synchronized String decrypt(final String value) throws IOException {
+        return getKeyManager().decrypt(value);
+    }
+
+    private KeyManager getKeyManager() {
+        if (this.keyManager == null) {
+            final long start = System.currentTimeMillis();
+            this.keyManager = new KeyManager();
+            logger.info("Initialized key manager in {} ms", System.currentTimeMillis() - start);
+        }
+        return this.keyManager;
+    }
+}
@@ -0,0 +1,22 @@
+package org.jasig.cas.util;
+
+import java.io.IOException;
+
+/**
+ * Decrypts the values of encrypted configuration properties,
+ * such as those of {@code cas.properties}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public interface PropertyKeyManager {
+
+    /**
+     * Decrypt the property value. Values that are not encrypted are returned as they are.
+     *
+     * @param value the property value
+     * @return the decrypted value
+     * @throws IOException if the value cannot be decrypted
+     */
+    String decrypt(String value) throws IOException;
+}
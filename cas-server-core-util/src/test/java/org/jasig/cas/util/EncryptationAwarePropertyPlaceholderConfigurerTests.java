@@ -0,0 +1,67 @@
+package org.jasig.cas.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link EncryptationAwarePropertyPlaceholderConfigurer}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class EncryptationAwarePropertyPlaceholderConfigurerTests {
+
+    private FilePropertyKeyManager fileKeyManager;
+
+    private final AtomicInteger decryptions = new AtomicInteger();
+
+    private EncryptationAwarePropertyPlaceholderConfigurer configurer;
+
+    @Before
+    public void setUp() throws Exception {
+        this.fileKeyManager = new FilePropertyKeyManager(new ClassPathResource("property.key"));
+        this.configurer = new EncryptationAwarePropertyPlaceholderConfigurer();
+        this.configurer.setKeyManager(new PropertyKeyManager() {
+            @Override
+            public String decrypt(final String value) throws IOException {
+                decryptions.incrementAndGet();
+                return fileKeyManager.decrypt(value);
+            }
+        });
+    }
+
+    @Test
+    public void verifyPropertiesAreDecryptedOnce() {
+        final String secret = this.fileKeyManager.encrypt("s3cr3t");
+        final Properties properties = new Properties();
+        properties.setProperty("ldap.password", secret);
+        properties.setProperty("database.password", secret);
+        properties.setProperty("server.name", "https://cas.example.org");
+        properties.setProperty("server.prefix", "${server.name}/cas");
+        this.configurer.setProperties(properties);
+        this.configurer.postProcessBeanFactory(new DefaultListableBeanFactory());
+
+        final Properties converted = new Properties();
+        converted.putAll(properties);
+        this.configurer.convertProperties(converted);
+        assertEquals("s3cr3t", converted.getProperty("ldap.password"));
+        assertEquals("s3cr3t", converted.getProperty("database.password"));
+        assertEquals("https://cas.example.org", converted.getProperty("server.name"));
+        assertEquals(3, this.decryptions.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyUndecryptableValue() {
+        final Properties properties = new Properties();
+        properties.setProperty("ldap.password", "ENC(AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=)");
+        this.configurer.convertProperties(properties);
+    }
+}
@@ -48,6 +48,8 @@ public final class WebUtils {
 
     private static final String UNKNOWN_USER = "audit:unknown";
 
+    private static final String TICKET_GRANTING_TICKET = "ticketGrantingTicket";
+
     /**
      * Instantiates a new web utils instance.
      */
@@ -264,6 +266,47 @@ public final class WebUtils {
 
     }
 
+    /**
+     * Put the ticket granting ticket that was resolved from the registry into request scope,
+     * so that later actions of the same request can reuse it instead of fetching it again.
+     *
+     * @param context the context
+     * @param ticket the ticket, as found in the registry
+     */
+    public static void putTicketGrantingTicket(final RequestContext context, final TicketGrantingTicket ticket) {
+        context.getRequestScope().put(TICKET_GRANTING_TICKET, ticket);
+    }
+
+    /**
+     * Gets the ticket granting ticket resolved earlier in the same request. The ticket is only returned
+     * if it is still the ticket granting ticket of the flow and has not expired in the meantime;
+     * otherwise it is removed from request scope.
+     *
+     * @param context the context
+     * @return the ticket granting ticket, or null if it must be fetched from the registry
+     */
+    public static TicketGrantingTicket getTicketGrantingTicket(@NotNull final RequestContext context) {
+        final TicketGrantingTicket ticket = (TicketGrantingTicket) context.getRequestScope().get(TICKET_GRANTING_TICKET);
+        if (ticket == null) {
+            return null;
+        }
+        if (ticket.isExpired() || !ticket.getId().equals(getTicketGrantingTicketId(context))) {
+            removeTicketGrantingTicket(context);
+            return null;
+        }
+        return ticket;
+    }
+
+    /**
+     * Remove the resolved ticket granting ticket from request scope. Must be called once the ticket
+     * has been destroyed or updated in the registry.
+     *
+     * @param context the context
+     */
+    public static void removeTicketGrantingTicket(final RequestContext context) {
+        context.getRequestScope().remove(TICKET_GRANTING_TICKET);
+    }
+
     /**
      * Put service ticket in request scope.
      *
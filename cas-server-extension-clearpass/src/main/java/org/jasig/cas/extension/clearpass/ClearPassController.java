@@ -65,11 +65,10 @@ public final class ClearPassController extends AbstractController {
             return returnError("No username was provided to clearPass.");
         }
 
-        if (!this.credentialsCache.containsKey(userName)) {
+        final String password = this.credentialsCache.get(userName);
+        if (password == null) {
             return returnError("Password could not be found in cache for user " + userName);
         }
-
-        final String password = this.credentialsCache.get(userName);
         if (StringUtils.isBlank(password)) {
             return returnError("Password is null or blank");
         }
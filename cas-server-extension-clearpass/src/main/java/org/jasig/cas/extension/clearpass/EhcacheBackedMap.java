@@ -4,14 +4,22 @@ import net.sf.ehcache.Cache;
 import net.sf.ehcache.Element;
 
 import javax.validation.constraints.NotNull;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * EhCache-backed implementation of a Map for caching a set of Strings.
+ * The {@link #values()} and {@link #entrySet()} views read elements from the cache
+ * as they are iterated rather than copying the whole cache up front. Entries may be given
+ * a time to live of their own, such as the maximum lifetime of a ticket-granting ticket,
+ * which takes precedence over the configuration of the cache.
  *
  * @deprecated As of 4.1, use {@link org.jasig.cas.authentication.CacheCredentialsMetaDataPopulator} instead.
  * @author Scott Battaglia
@@ -23,13 +31,26 @@ public final class EhcacheBackedMap implements Map<String, String> {
     @NotNull
     private final Cache cache;
 
+    private final int timeToLiveInSeconds;
+
     /**
-     * Instantiates a new ehcache backed map.
+     * Instantiates a new ehcache backed map whose entries expire as configured for the cache.
      *
      * @param cache the cache
      */
     public EhcacheBackedMap(final Cache cache) {
+        this(cache, 0);
+    }
+
+    /**
+     * Instantiates a new ehcache backed map.
+     *
+     * @param cache the cache
+     * @param timeToLiveInSeconds the time to live of each entry; zero or less to use the configuration of the cache
+     */
+    public EhcacheBackedMap(final Cache cache, final int timeToLiveInSeconds) {
         this.cache = cache;
+        this.timeToLiveInSeconds = timeToLiveInSeconds;
     }
 
     @Override
@@ -49,8 +70,12 @@ public final class EhcacheBackedMap implements Map<String, String> {
 
     @Override
     public boolean containsValue(final Object value) {
-        final Collection<String> col = values();
-        return col.contains(value);
+        for (final String element : values()) {
+            if (element.equals(value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -62,7 +87,11 @@ public final class EhcacheBackedMap implements Map<String, String> {
 
     @Override
     public String put(final String key, final String value) {
-        this.cache.put(new Element(key, value));
+        final Element element = new Element(key, value);
+        if (this.timeToLiveInSeconds > 0) {
+            element.setTimeToLive(this.timeToLiveInSeconds);
+        }
+        this.cache.put(element);
         return value;
     }
 
@@ -92,34 +121,111 @@ public final class EhcacheBackedMap implements Map<String, String> {
 
     @Override
     public Collection<String> values() {
-        final Set<String> keys = keySet();
-        final Collection<String> values = new ArrayList<>();
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<Element> elements = new ElementIterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return elements.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return (String) elements.next().getValue();
+                    }
 
-        for (final String key : keys) {
-            final String value = get(key);
-            if (value != null) {
-                values.add(value);
+                    @Override
+                    public void remove() {
+                        elements.remove();
+                    }
+                };
             }
-        }
 
-        return values;
+            @Override
+            public int size() {
+                return EhcacheBackedMap.this.size();
+            }
+        };
     }
 
     @Override
     public Set<Entry<String, String>> entrySet() {
-        final Set<String> keys = keySet();
-        final Set<Entry<String, String>> entries = new HashSet<>();
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                final Iterator<Element> elements = new ElementIterator();
+                return new Iterator<Entry<String, String>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return elements.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        return new ElementMapEntry(elements.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        elements.remove();
+                    }
+                };
+            }
 
-        for (final String key : keys) {
-            final Element element = this.cache.get(key);
+            @Override
+            public int size() {
+                return EhcacheBackedMap.this.size();
+            }
+        };
+    }
 
-            if (element != null) {
-                entries.add(new ElementMapEntry(element));
+    /**
+     * Iterates over the live elements of the cache, fetching each one only when it is reached.
+     * Elements that expire or are removed during iteration are skipped.
+     */
+    private final class ElementIterator implements Iterator<Element> {
+        private final Iterator<?> keys;
+
+        private Element nextElement;
+
+        private Element lastElement;
+
+        ElementIterator() {
+            final List<?> cacheKeys = cache.getKeys();
+            this.keys = cacheKeys.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.nextElement == null && this.keys.hasNext()) {
+                final Element element = cache.get(this.keys.next());
+                if (element != null && element.getValue() != null) {
+                    this.nextElement = element;
+                }
             }
+            return this.nextElement != null;
         }
 
-        return entries;
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.lastElement = this.nextElement;
+            this.nextElement = null;
+            return this.lastElement;
+        }
 
+        @Override
+        public void remove() {
+            if (this.lastElement == null) {
+                throw new IllegalStateException();
+            }
+            cache.remove(this.lastElement.getObjectKey());
+            this.lastElement = null;
+        }
     }
 
     protected static final class ElementMapEntry implements Map.Entry<String, String> {
@@ -22,7 +22,6 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.KeySpec;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -274,14 +273,14 @@ public final class EncryptedMapDecorator implements Map<String, String> {
         try {
             final Cipher cipher = getCipherObject();
             final byte[] ivCiphertext = CompressionUtils.decodeBase64ToByteArray(value);
-            final int ivSize = byte2int(Arrays.copyOfRange(ivCiphertext, 0, INTEGER_LEN));
-            final byte[] ivValue = Arrays.copyOfRange(ivCiphertext, INTEGER_LEN, (INTEGER_LEN + ivSize));
-            final byte[] ciphertext = Arrays.copyOfRange(ivCiphertext, INTEGER_LEN + ivSize, ivCiphertext.length);
-            final IvParameterSpec ivSpec = new IvParameterSpec(ivValue);
-            
+            // decrypt in place: the iv and ciphertext are read from the decoded value without copying
+            final int ivSize = ByteBuffer.wrap(ivCiphertext, 0, INTEGER_LEN).getInt();
+            final IvParameterSpec ivSpec = new IvParameterSpec(ivCiphertext, INTEGER_LEN, ivSize);
+
             cipher.init(Cipher.DECRYPT_MODE, this.key, ivSpec);
 
-            final byte[] plaintext = cipher.doFinal(ciphertext);
+            final int offset = INTEGER_LEN + ivSize;
+            final byte[] plaintext = cipher.doFinal(ivCiphertext, offset, ivCiphertext.length - offset);
 
             return new String(plaintext, Charset.defaultCharset());
         } catch (final Exception e) {
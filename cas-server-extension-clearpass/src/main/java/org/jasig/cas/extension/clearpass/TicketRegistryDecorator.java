@@ -1,5 +1,8 @@
 package org.jasig.cas.extension.clearpass;
 
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.Striped;
 import org.jasig.cas.ticket.registry.TicketRegistryState;
 import org.jasig.cas.ticket.Ticket;
 import org.jasig.cas.ticket.TicketGrantingTicket;
@@ -8,10 +11,20 @@ import org.jasig.cas.ticket.registry.TicketRegistry;
 
 import javax.validation.constraints.NotNull;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Decorator that captures tickets and attempts to map them.
+ * <p>Cached credentials follow the lifecycle of the ticket-granting tickets of their user:
+ * they are removed when the last ticket-granting ticket of the user is deleted, rather than
+ * lingering until the cache expires them. The ticket-granting tickets of each user are listed
+ * in the credentials cache itself, so that every node sharing the cache sees the tickets issued
+ * by the others. Listed tickets are looked up in the decorated registry before the credentials
+ * are removed, and those that expired or are gone are forgotten.</p>
  *
  * @deprecated As of 4.1, use {@link org.jasig.cas.authentication.CacheCredentialsMetaDataPopulator} instead.
  * @author Scott Battaglia
@@ -20,6 +33,13 @@ import java.util.Map;
 @Deprecated
 public final class TicketRegistryDecorator extends AbstractTicketRegistry {
 
+    /** Prefix of the cache keys that list the ticket-granting tickets of a user name. */
+    private static final String TICKETS_KEY_PREFIX = "clearPassTickets:";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final char SEPARATOR = ',';
+
     /** The real instance of the ticket registry that is to be decorated. */
     @NotNull
     private final TicketRegistry ticketRegistry;
@@ -28,6 +48,9 @@ public final class TicketRegistryDecorator extends AbstractTicketRegistry {
     @NotNull
     private final Map<String, String> cache;
 
+    /** Locks guarding the ticket list of each user name on this node. */
+    private final Striped<Lock> userNameLocks = Striped.lock(LOCK_STRIPES);
+
     /**
      * Constructs an instance of the decorator wrapping the real ticket registry instance inside.
      *
@@ -51,6 +74,7 @@ public final class TicketRegistryDecorator extends AbstractTicketRegistry {
             logger.debug("Creating mapping ticket {} to user name {}", ticketId, userName);
 
             this.cache.put(ticketId, userName);
+            trackTicket(userName, ticketId);
         }
 
         this.ticketRegistry.addTicket(ticket);
@@ -63,16 +87,80 @@ public final class TicketRegistryDecorator extends AbstractTicketRegistry {
 
     @Override
     public boolean deleteTicket(final String ticketId) {
-        final String userName = this.cache.get(ticketId);
+        final String userName = this.cache.remove(ticketId);
 
         if (userName != null) {
             logger.debug("Removing mapping ticket {} for user name {}", ticketId, userName);
-            this.cache.remove(userName);
+            if (untrackTicket(userName, ticketId)) {
+                logger.debug("Removing cached credentials of user name {}", userName);
+                this.cache.remove(userName);
+            }
         }
 
         return this.ticketRegistry.deleteTicket(ticketId);
     }
 
+    /**
+     * Record the ticket as one of the tickets of the user.
+     *
+     * @param userName the user name
+     * @param ticketId the ticket id
+     */
+    private void trackTicket(final String userName, final String ticketId) {
+        final Lock lock = this.userNameLocks.get(userName);
+        lock.lock();
+        try {
+            final Set<String> tickets = getTrackedTickets(userName);
+            tickets.add(ticketId);
+            this.cache.put(TICKETS_KEY_PREFIX + userName, Joiner.on(SEPARATOR).join(tickets));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget the ticket of the user, along with the listed tickets that expired or
+     * were removed from the decorated registry without going through this decorator.
+     *
+     * @param userName the user name
+     * @param ticketId the ticket id
+     * @return true if the user has no live tickets left
+     */
+    private boolean untrackTicket(final String userName, final String ticketId) {
+        final Lock lock = this.userNameLocks.get(userName);
+        lock.lock();
+        try {
+            final Set<String> tickets = getTrackedTickets(userName);
+            tickets.remove(ticketId);
+            final Iterator<String> it = tickets.iterator();
+            while (it.hasNext()) {
+                final Ticket ticket = this.ticketRegistry.getTicket(it.next());
+                if (ticket == null || ticket.isExpired()) {
+                    it.remove();
+                }
+            }
+            if (tickets.isEmpty()) {
+                this.cache.remove(TICKETS_KEY_PREFIX + userName);
+                return true;
+            }
+            this.cache.put(TICKETS_KEY_PREFIX + userName, Joiner.on(SEPARATOR).join(tickets));
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Set<String> getTrackedTickets(final String userName) {
+        final Set<String> tickets = new LinkedHashSet<>();
+        final String value = this.cache.get(TICKETS_KEY_PREFIX + userName);
+        if (value != null) {
+            for (final String ticketId : Splitter.on(SEPARATOR).omitEmptyStrings().split(value)) {
+                tickets.add(ticketId);
+            }
+        }
+        return tickets;
+    }
+
     @Override
     public Collection<Ticket> getTickets() {
         return this.ticketRegistry.getTickets();
@@ -42,6 +42,13 @@ public class EhcacheBackedMapTests {
         assertTrue(map.isEmpty());
     }
 
+    @Test
+    public void verifyEntryTimeToLive() {
+        new EhcacheBackedMap(this.cache, 86400).put("key", "value");
+        assertEquals(86400, this.cache.get("key").getTimeToLive());
+        assertFalse(this.cache.get("key").isEternal());
+    }
+
     @Test
     public void verifyGetPutOps() {
         this.map.put("key", "value");
@@ -6,9 +6,12 @@ import java.util.Map;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 
+import org.jasig.cas.authentication.TestUtils;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
 import org.jasig.cas.ticket.registry.DefaultTicketRegistry;
 import org.jasig.cas.ticket.registry.EhCacheTicketRegistry;
 import org.jasig.cas.ticket.registry.TicketRegistry;
+import org.jasig.cas.ticket.support.NeverExpiresExpirationPolicy;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -52,4 +55,61 @@ public class TicketRegistryDecoratorTests {
         manager.shutdown();
 
     }
+
+    @Test
+    public void verifyCredentialsRemovedWithLastTicketGrantingTicket() {
+        final Map<String, String> map = new HashMap<>();
+        final TicketRegistryDecorator decorator = new TicketRegistryDecorator(new DefaultTicketRegistry(), map);
+
+        decorator.addTicket(new TicketGrantingTicketImpl("TGT-1", TestUtils.getAuthentication("casuser"),
+                new NeverExpiresExpirationPolicy()));
+        decorator.addTicket(new TicketGrantingTicketImpl("TGT-2", TestUtils.getAuthentication("casuser"),
+                new NeverExpiresExpirationPolicy()));
+        map.put("casuser", "password");
+
+        assertTrue(decorator.deleteTicket("TGT-1"));
+        assertFalse(map.containsKey("TGT-1"));
+        assertEquals("password", map.get("casuser"));
+
+        assertTrue(decorator.deleteTicket("TGT-2"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void verifyCredentialsRemovedWhenOtherTicketGrantingTicketExpired() {
+        final Map<String, String> map = new HashMap<>();
+        final TicketRegistryDecorator decorator = new TicketRegistryDecorator(new DefaultTicketRegistry(), map);
+
+        final TicketGrantingTicketImpl expired = new TicketGrantingTicketImpl("TGT-1",
+                TestUtils.getAuthentication("casuser"), new NeverExpiresExpirationPolicy());
+        decorator.addTicket(expired);
+        decorator.addTicket(new TicketGrantingTicketImpl("TGT-2", TestUtils.getAuthentication("casuser"),
+                new NeverExpiresExpirationPolicy()));
+        map.put("casuser", "password");
+
+        expired.markTicketExpired();
+
+        assertTrue(decorator.deleteTicket("TGT-2"));
+        assertFalse(map.containsKey("casuser"));
+    }
+
+    @Test
+    public void verifyCredentialsKeptForTicketGrantingTicketOfAnotherNode() {
+        final TicketRegistry ticketRegistry = new DefaultTicketRegistry();
+        final Map<String, String> map = new HashMap<>();
+        final TicketRegistryDecorator node1 = new TicketRegistryDecorator(ticketRegistry, map);
+        final TicketRegistryDecorator node2 = new TicketRegistryDecorator(ticketRegistry, map);
+
+        node1.addTicket(new TicketGrantingTicketImpl("TGT-1", TestUtils.getAuthentication("casuser"),
+                new NeverExpiresExpirationPolicy()));
+        node2.addTicket(new TicketGrantingTicketImpl("TGT-2", TestUtils.getAuthentication("casuser"),
+                new NeverExpiresExpirationPolicy()));
+        map.put("casuser", "password");
+
+        assertTrue(node2.deleteTicket("TGT-2"));
+        assertEquals("password", map.get("casuser"));
+
+        assertTrue(node2.deleteTicket("TGT-1"));
+        assertTrue(map.isEmpty());
+    }
 }
@@ -0,0 +1,91 @@
+package org.jasig.cas.web.support;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.jasig.inspektr.common.web.ClientInfoHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles by both IP address and username, sharing the time of the last failure
+ * across all CAS nodes of a Hazelcast cluster. Entries are stored with a time-to-live
+ * after which the submission rate is below the threshold, so Hazelcast expires them
+ * without any cleanup job. Throttling decisions match those of
+ * {@code InMemoryThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@Component("hazelcastIpAddressUsernameThrottle")
+public final class HazelcastThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter
+        extends AbstractThrottledSubmissionHandlerInterceptorAdapter {
+
+    private static final double SUBMISSION_RATE_DIVIDEND = 1000.0;
+
+    private final IMap<String, Long> failures;
+
+    private long failureTimeToLive;
+
+    /**
+     * Instantiates a new throttle.
+     *
+     * @param hazelcastInstance the hazelcast instance
+     * @param mapName the name of the map holding last failure times
+     */
+    @Autowired
+    public HazelcastThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(
+            @Qualifier("hazelcast")
+            final HazelcastInstance hazelcastInstance,
+            @Value("${cas.throttle.hazelcast.mapname:throttledSubmissions}")
+            final String mapName) {
+        this.failures = hazelcastInstance.getMap(mapName);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        super.afterPropertiesSet();
+        this.failureTimeToLive = getThresholdRate() > 0
+                ? (long) Math.ceil(SUBMISSION_RATE_DIVIDEND / getThresholdRate()) : 0;
+    }
+
+    @Override
+    protected boolean exceedsThreshold(final HttpServletRequest request) {
+        final Long last = this.failures.get(constructKey(request));
+        if (last == null) {
+            return false;
+        }
+        return SUBMISSION_RATE_DIVIDEND / (System.currentTimeMillis() - last) > getThresholdRate();
+    }
+
+    @Override
+    protected void recordSubmissionFailure(final HttpServletRequest request) {
+        this.failures.set(constructKey(request), System.currentTimeMillis(),
+                this.failureTimeToLive, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Construct key to be used by the throttling agent to track requests.
+     *
+     * @param request the request
+     * @return the key
+     */
+    protected String constructKey(final HttpServletRequest request) {
+        final String username = request.getParameter(getUsernameParameter());
+
+        if (username == null) {
+            return request.getRemoteAddr();
+        }
+
+        return ClientInfoHolder.getClientInfo().getClientIpAddress() + ';' + username.toLowerCase();
+    }
+
+    @Override
+    protected String getName() {
+        return "hazelcastIpAddressUsernameThrottle";
+    }
+}
@@ -0,0 +1,84 @@
+package org.jasig.cas.web.support;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.jasig.inspektr.common.web.ClientInfo;
+import org.jasig.inspektr.common.web.ClientInfoHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.webflow.execution.Event;
+import org.springframework.webflow.test.MockRequestContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HazelcastThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class HazelcastThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapterTests {
+
+    private static final String IP_ADDRESS = "1.2.3.4";
+
+    private HazelcastInstance hazelcastInstance;
+
+    @Before
+    public void setUp() {
+        final Config config = new Config();
+        config.setInstanceName("throttle");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+        this.hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        ClientInfoHolder.setClientInfo(new ClientInfo(IP_ADDRESS, IP_ADDRESS));
+    }
+
+    @After
+    public void tearDown() {
+        ClientInfoHolder.setClientInfo(null);
+        this.hazelcastInstance.shutdown();
+    }
+
+    @Test
+    public void verifyThrottleSharedBetweenNodes() throws Exception {
+        final AbstractThrottledSubmissionHandlerInterceptorAdapter node1 = newThrottle();
+        final AbstractThrottledSubmissionHandlerInterceptorAdapter node2 = newThrottle();
+
+        assertEquals(200, loginUnsuccessfully(node1).getStatus());
+        assertEquals(403, loginUnsuccessfully(node2).getStatus());
+
+        // threshold rate is 2 submissions/sec; waiting longer than 500ms lets the entry expire
+        Thread.sleep(600);
+        assertEquals(200, loginUnsuccessfully(node2).getStatus());
+    }
+
+    private AbstractThrottledSubmissionHandlerInterceptorAdapter newThrottle() throws Exception {
+        final AbstractThrottledSubmissionHandlerInterceptorAdapter throttle =
+                new HazelcastThrottledSubmissionByIpAddressAndUsernameHandlerInterceptorAdapter(
+                        this.hazelcastInstance, "throttledSubmissions");
+        throttle.setFailureThreshold(10);
+        throttle.setFailureRangeInSeconds(5);
+        throttle.setUsernameParameter("username");
+        throttle.afterPropertiesSet();
+        return throttle;
+    }
+
+    private static MockHttpServletResponse loginUnsuccessfully(
+            final AbstractThrottledSubmissionHandlerInterceptorAdapter throttle) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        request.setMethod("POST");
+        request.setParameter("username", "mog");
+        request.setRemoteAddr(IP_ADDRESS);
+        final MockRequestContext context = new MockRequestContext();
+        context.setCurrentEvent(new Event("", "error"));
+        request.setAttribute("flowRequestContext", context);
+        throttle.preHandle(request, response, null);
+        throttle.postHandle(request, response, null, null);
+        return response;
+    }
+}
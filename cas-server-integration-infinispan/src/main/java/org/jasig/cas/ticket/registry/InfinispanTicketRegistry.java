@@ -29,7 +29,8 @@ public final class InfinispanTicketRegistry extends AbstractCrypticTicketRegistr
     }
 
     @Override
-    protected void updateTicket(final Ticket ticket) {
+    protected void updateTicket(final Ticket ticketToUpdate) {
+        final Ticket ticket = encodeTicket(ticketToUpdate);
         this.cache.put(ticket.getId(), ticket);
     }
 
@@ -44,22 +45,45 @@ public final class InfinispanTicketRegistry extends AbstractCrypticTicketRegistr
      * @param ticket The ticket we wish to add to the cache.
      */
     @Override
-    public void addTicket(final Ticket ticket) {
+    public void addTicket(final Ticket ticketToAdd) {
+        final Ticket ticket = encodeTicket(ticketToAdd);
         this.cache.put(ticket.getId(), ticket);
     }
 
     /**
-     * Retrieve a ticket from the registry.
+     * Retrieve a ticket from the registry. When encryption is enabled, tickets are stored under
+     * the digest of their id; a ticket stored under its plain id before encryption was enabled is
+     * moved to its digest the first time it is retrieved.
      *
      * @param ticketId the id of the ticket we wish to retrieve
      * @return the requested ticket.
      */
     @Override
     public Ticket getTicket(final String ticketId) {
-        final Ticket ticket = this.cache.get(ticketId);
+        final String key = encodeTicketId(ticketId);
+        Ticket ticket = decodeTicket(this.cache.get(key));
+        if (ticket == null && key != null && !key.equals(ticketId)) {
+            ticket = migrateUnencodedTicket(ticketId);
+        }
         return getProxiedTicketInstance(ticket);
     }
 
+    /**
+     * Move a ticket stored under its plain id to the digest of its id.
+     *
+     * @param ticketId the ticket id
+     * @return the ticket, or null if there is none under the plain id
+     */
+    private Ticket migrateUnencodedTicket(final String ticketId) {
+        final Ticket ticket = decodeTicket(this.cache.get(ticketId));
+        if (ticket != null) {
+            logger.debug("Moving ticket [{}] stored under its plain id to the digest of its id", ticketId);
+            addTicket(ticket);
+            this.cache.remove(ticketId);
+        }
+        return ticket;
+    }
+
     /**
      * Remove a specific ticket from the registry.
      *
@@ -72,7 +96,7 @@ public final class InfinispanTicketRegistry extends AbstractCrypticTicketRegistr
         if (getTicket(ticketId) == null) {
             return false;
         }
-        this.cache.evict(ticketId);
+        this.cache.evict(encodeTicketId(ticketId));
         return true;
 
     }
@@ -89,7 +113,7 @@ public final class InfinispanTicketRegistry extends AbstractCrypticTicketRegistr
      */
     @Override
     public Collection<Ticket> getTickets() {
-        return this.cache.values();
+        return decodeTickets(this.cache.values());
     }
 
     public void setCache(final Cache<String, Ticket> cache) {
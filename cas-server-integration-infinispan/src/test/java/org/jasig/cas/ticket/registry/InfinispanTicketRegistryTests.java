@@ -1,5 +1,7 @@
 package org.jasig.cas.ticket.registry;
 
+import org.infinispan.Cache;
+import org.jasig.cas.CipherExecutor;
 import org.jasig.cas.authentication.Authentication;
 import org.jasig.cas.authentication.TestUtils;
 import org.jasig.cas.ticket.Ticket;
@@ -28,6 +30,10 @@ public class InfinispanTicketRegistryTests {
     @Qualifier("infinispanTicketRegistry")
     private TicketRegistry infinispanTicketRegistry;
 
+    @Autowired
+    @Qualifier("infinispanTicketsCache")
+    private Cache<String, Ticket> cache;
+
     @Test
     public void updateTicketShouldOverwriteTicketInStorage() {
         final Ticket ticket = getTicket();
@@ -68,6 +74,33 @@ public class InfinispanTicketRegistryTests {
         assertNull(infinispanTicketRegistry.getTicket(""));
     }
 
+    @Test
+    public void verifyTicketStoredBeforeEncryptionIsFound() {
+        final Ticket ticket = new TicketGrantingTicketImpl("TGT-unencoded", TestUtils.getAuthentication(),
+                new NeverExpiresExpirationPolicy());
+        this.cache.put(ticket.getId(), ticket);
+
+        final InfinispanTicketRegistry registry = new InfinispanTicketRegistry();
+        registry.setCache(this.cache);
+        registry.setCipherExecutor(new CipherExecutor<byte[], byte[]>() {
+            @Override
+            public byte[] encode(final byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] decode(final byte[] value) {
+                return value;
+            }
+        });
+
+        assertEquals(ticket, registry.getTicket(ticket.getId()));
+        assertFalse(this.cache.containsKey(ticket.getId()));
+        assertEquals(ticket, registry.getTicket(ticket.getId()));
+        assertTrue(registry.deleteTicket(ticket.getId()));
+        assertNull(registry.getTicket(ticket.getId()));
+    }
+
     private Ticket getTicket() {
         final Authentication authentication = TestUtils.getAuthentication();
         return new TicketGrantingTicketImpl("123", authentication, new NeverExpiresExpirationPolicy());
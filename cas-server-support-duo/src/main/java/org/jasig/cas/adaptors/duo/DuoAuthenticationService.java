@@ -27,6 +27,8 @@ public final class DuoAuthenticationService {
     private final String duoApplicationKey;
     private final String duoApiHost;
 
+    private final DuoRequestSigner signer;
+
     /**
      * Creates the duo authentication service.
      * @param duoIntegrationKey duo integration key
@@ -57,6 +59,7 @@ public final class DuoAuthenticationService {
         this.duoSecretKey = duoSecretKey;
         this.duoApplicationKey = duoApplicationKey;
         this.duoApiHost = duoApiHost;
+        this.signer = new DuoRequestSigner(duoIntegrationKey, duoSecretKey, duoApplicationKey);
     }
 
     public String getDuoApiHost() {
@@ -81,11 +84,17 @@ public final class DuoAuthenticationService {
      * @return signed response
      */
     public String generateSignedRequestToken(final String username) {
-        return DuoWeb.signRequest(this.duoIntegrationKey, this.duoSecretKey, this.duoApplicationKey, username);
+        try {
+            return this.signer.signRequest(username);
+        } catch (final IllegalArgumentException e) {
+            logger.warn(e.getMessage());
+            return DuoWeb.ERR_USER;
+        }
     }
 
     /**
      * Verify the authentication response from Duo.
+     * A response is accepted only once.
      * @param signedRequestToken signed request token
      * @return authenticated user
      * @throws Exception if response verification fails
@@ -94,7 +103,7 @@ public final class DuoAuthenticationService {
         if (StringUtils.isBlank(signedRequestToken)) {
             throw new IllegalArgumentException("No signed request token was passed to verify");
         }
-        logger.debug("Calling DuoWeb.verifyResponse with signed request token '{}'", signedRequestToken);
-        return DuoWeb.verifyResponse(this.duoIntegrationKey, this.duoSecretKey, this.duoApplicationKey, signedRequestToken);
+        logger.debug("Verifying signed request token '{}'", signedRequestToken);
+        return this.signer.verifyResponse(signedRequestToken);
     }
 }
@@ -0,0 +1,226 @@
+package org.jasig.cas.adaptors.duo;
+
+import com.duosecurity.duoweb.DuoWebException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs Duo authentication requests and verifies signed responses using the
+ * same wire format as {@link com.duosecurity.duoweb.DuoWeb}.
+ *
+ * <p>Keys are prepared once: each thread keeps its own initialized {@link Mac} per key,
+ * signatures are compared in constant time on their raw bytes, and responses that were
+ * verified successfully are remembered until they expire so that a replayed response is
+ * rejected without recomputing any signature.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class DuoRequestSigner {
+
+    /** Lifetime in seconds of the request signed for Duo. */
+    public static final int DUO_EXPIRE = 300;
+
+    /** Lifetime in seconds of the request signed with the application key. */
+    public static final int APP_EXPIRE = 3600;
+
+    private static final String DUO_PREFIX = "TX";
+    private static final String APP_PREFIX = "APP";
+    private static final String AUTH_PREFIX = "AUTH";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+
+    private static final int IKEY_LEN = 20;
+    private static final int SKEY_LEN = 40;
+    private static final int AKEY_LEN = 40;
+
+    private final String integrationKey;
+
+    private final HmacSigner duoSigner;
+
+    private final HmacSigner appSigner;
+
+    private final Cache<String, Boolean> verifiedResponses;
+
+    /**
+     * Instantiates a new signer.
+     *
+     * @param integrationKey the Duo integration key
+     * @param secretKey the Duo secret key
+     * @param applicationKey the application key
+     */
+    public DuoRequestSigner(final String integrationKey, final String secretKey, final String applicationKey) {
+        if (integrationKey.length() != IKEY_LEN) {
+            throw new IllegalArgumentException("Duo integration key must be " + IKEY_LEN + " characters");
+        }
+        if (secretKey.length() != SKEY_LEN) {
+            throw new IllegalArgumentException("Duo secret key must be " + SKEY_LEN + " characters");
+        }
+        if (applicationKey.length() < AKEY_LEN) {
+            throw new IllegalArgumentException("Duo application key must be at least " + AKEY_LEN + " characters");
+        }
+        this.integrationKey = integrationKey;
+        this.duoSigner = new HmacSigner(secretKey);
+        this.appSigner = new HmacSigner(applicationKey);
+        this.verifiedResponses = CacheBuilder.newBuilder()
+                .expireAfterWrite(APP_EXPIRE, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Sign the request for the given user at the current time.
+     *
+     * @param username the username
+     * @return the signed request
+     */
+    public String signRequest(final String username) {
+        return signRequest(username, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Sign the request for the given user.
+     *
+     * @param username the username
+     * @param time the current time in seconds
+     * @return the signed request
+     */
+    public String signRequest(final String username, final long time) {
+        if (username.isEmpty() || username.indexOf('|') != -1) {
+            throw new IllegalArgumentException("Username " + username + " cannot be signed for Duo");
+        }
+        return signValues(this.duoSigner, username, DUO_PREFIX, time + DUO_EXPIRE)
+                + ':' + signValues(this.appSigner, username, APP_PREFIX, time + APP_EXPIRE);
+    }
+
+    /**
+     * Verify the response at the current time.
+     *
+     * @param signedResponse the signed response
+     * @return the authenticated username
+     * @throws DuoWebException if the response is invalid, expired or replayed
+     */
+    public String verifyResponse(final String signedResponse) throws DuoWebException {
+        return verifyResponse(signedResponse, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Verify the response.
+     *
+     * @param signedResponse the signed response
+     * @param time the current time in seconds
+     * @return the authenticated username
+     * @throws DuoWebException if the response is invalid, expired or replayed
+     */
+    public String verifyResponse(final String signedResponse, final long time) throws DuoWebException {
+        if (this.verifiedResponses.getIfPresent(signedResponse) != null) {
+            throw new DuoWebException("Response has already been used");
+        }
+
+        final int separator = signedResponse.indexOf(':');
+        if (separator < 0) {
+            throw new DuoWebException("Invalid response");
+        }
+        final String authUser = parseValues(this.duoSigner, signedResponse.substring(0, separator), AUTH_PREFIX, time);
+        final String appUser = parseValues(this.appSigner, signedResponse.substring(separator + 1), APP_PREFIX, time);
+        if (!authUser.equals(appUser)) {
+            throw new DuoWebException("Authentication failed.");
+        }
+
+        if (this.verifiedResponses.asMap().putIfAbsent(signedResponse, Boolean.TRUE) != null) {
+            throw new DuoWebException("Response has already been used");
+        }
+        return authUser;
+    }
+
+    private String signValues(final HmacSigner signer, final String username, final String prefix, final long expiry) {
+        final String value = username + '|' + this.integrationKey + '|' + expiry;
+        final String cookie = prefix + '|' + Base64.encodeBase64String(value.getBytes(StandardCharsets.UTF_8));
+        return cookie + '|' + Hex.encodeHexString(signer.sign(cookie));
+    }
+
+    private String parseValues(final HmacSigner signer, final String value, final String prefix,
+                               final long time) throws DuoWebException {
+        final int first = value.indexOf('|');
+        final int last = value.lastIndexOf('|');
+        if (first < 0 || first == last || value.indexOf('|', first + 1) != last) {
+            throw new DuoWebException("Invalid response");
+        }
+
+        final byte[] expected = signer.sign(value.substring(0, last));
+        final byte[] actual;
+        try {
+            actual = Hex.decodeHex(value.substring(last + 1).toCharArray());
+        } catch (final Exception e) {
+            throw new DuoWebException("Invalid response");
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new DuoWebException("Invalid response");
+        }
+        if (!prefix.equals(value.substring(0, first))) {
+            throw new DuoWebException("Invalid response");
+        }
+
+        final String cookie = new String(Base64.decodeBase64(value.substring(first + 1, last)), StandardCharsets.UTF_8);
+        final String[] parts = cookie.split("\\|");
+        if (parts.length != 3) {
+            throw new DuoWebException("Invalid response");
+        }
+        if (!this.integrationKey.equals(parts[1])) {
+            throw new DuoWebException("Invalid response");
+        }
+
+        final long expiry;
+        try {
+            expiry = Long.parseLong(parts[2]);
+        } catch (final NumberFormatException e) {
+            throw new DuoWebException("Invalid response");
+        }
+        if (time >= expiry) {
+            throw new DuoWebException("Transaction has expired. Please check that the system time is correct.");
+        }
+        return parts[0];
+    }
+
+    /**
+     * HMAC signer for a single key. {@link Mac} instances are not thread-safe,
+     * so each thread initializes its own once from the prepared key.
+     */
+    private static final class HmacSigner {
+        private final SecretKeySpec key;
+
+        private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>() {
+            @Override
+            protected Mac initialValue() {
+                return newMac();
+            }
+        };
+
+        HmacSigner(final String key) {
+            this.key = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+            newMac();
+        }
+
+        byte[] sign(final String data) {
+            return this.macs.get().doFinal(data.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private Mac newMac() {
+            try {
+                final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(this.key);
+                return mac;
+            } catch (final GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
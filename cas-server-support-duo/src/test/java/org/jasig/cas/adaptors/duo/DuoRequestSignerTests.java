@@ -0,0 +1,69 @@
+package org.jasig.cas.adaptors.duo;
+
+import com.duosecurity.duoweb.DuoWeb;
+import com.duosecurity.duoweb.DuoWebException;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link DuoRequestSigner}.
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class DuoRequestSignerTests {
+
+    private static final String IKEY = "DIXXXXXXXXXXXXXXXXXX";
+    private static final String SKEY = "deadbeefdeadbeefdeadbeefdeadbeefdeadbeef";
+    private static final String AKEY = "useacustomerprovidedapplicationsecretkey";
+    private static final long TIME = 1450000000L;
+
+    private final DuoRequestSigner signer = new DuoRequestSigner(IKEY, SKEY, AKEY);
+
+    @Test
+    public void verifySignatureMatchesDuoWeb() {
+        assertEquals(DuoWeb.signRequest(IKEY, SKEY, AKEY, "casuser", TIME), this.signer.signRequest("casuser", TIME));
+    }
+
+    @Test
+    public void verifyResponseAcceptedOnce() throws Exception {
+        final String response = createResponse("casuser", SKEY);
+        assertEquals("casuser", DuoWeb.verifyResponse(IKEY, SKEY, AKEY, response, TIME));
+        assertEquals("casuser", this.signer.verifyResponse(response, TIME));
+        try {
+            this.signer.verifyResponse(response, TIME);
+            fail("Replayed response should have been rejected");
+        } catch (final DuoWebException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test(expected = DuoWebException.class)
+    public void verifyForgedResponse() throws Exception {
+        this.signer.verifyResponse(createResponse("casuser", "0000000000000000000000000000000000000000"), TIME);
+    }
+
+    @Test(expected = DuoWebException.class)
+    public void verifyExpiredResponse() throws Exception {
+        this.signer.verifyResponse(createResponse("casuser", SKEY), TIME + DuoRequestSigner.DUO_EXPIRE);
+    }
+
+    private String createResponse(final String username, final String duoKey) throws Exception {
+        final String request = this.signer.signRequest(username, TIME);
+        final String appSig = request.substring(request.indexOf(':') + 1);
+        return sign(duoKey, "AUTH", username + '|' + IKEY + '|' + (TIME + DuoRequestSigner.DUO_EXPIRE)) + ':' + appSig;
+    }
+
+    private static String sign(final String key, final String prefix, final String value) throws Exception {
+        final String cookie = prefix + '|' + Base64.encodeBase64String(value.getBytes(StandardCharsets.UTF_8));
+        final Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA1"));
+        return cookie + '|' + Hex.encodeHexString(mac.doFinal(cookie.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -18,6 +18,11 @@
  */
 package org.jasig.cas.authorization.generator;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.lang3.StringUtils;
 import org.ldaptive.ConnectionFactory;
 import org.ldaptive.LdapAttribute;
 import org.ldaptive.LdapEntry;
@@ -37,7 +42,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides a simple {@link AuthorizationGenerator} implementation that obtains user roles from an LDAP search.
@@ -50,6 +62,10 @@ import javax.validation.constraints.NotNull;
  *     branch than that of the user search.</li>
  * </ol>
  *
+ * <p>If the roles of the user are available as an attribute of the user entry (such as {@code memberOf}),
+ * {@link #setUserRoleAttributeName(String)} may be used to collect them from the user search alone.
+ * Resolved roles may also be cached per user for a configurable period via {@link #setCacheDuration(long)}.</p>
+ *
  * @author Jerome Leleu
  * @author Marvin S. Addison
  * @author Misagh Moayyed
@@ -61,6 +77,8 @@ public class LdapAuthorizationGenerator implements AuthorizationGenerator<Common
     /** Default role prefix. */
     public static final String DEFAULT_ROLE_PREFIX = "ROLE_";
 
+    private static final long DEFAULT_MAXIMUM_CACHE_SIZE = 10000;
+
     /** Logger instance. */
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -103,6 +121,17 @@ public class LdapAuthorizationGenerator implements AuthorizationGenerator<Common
     @Value("${ldap.authorizationgenerator.allow.multiple:false}")
     private boolean allowMultipleResults;
 
+    /** Name of the attribute on the user entry that holds roles, e.g. memberOf. Enables single-search mode. */
+    @Value("${ldap.authorizationgenerator.user.role.attr:}")
+    private String userRoleAttributeName;
+
+    /** Number of seconds resolved roles are cached per user. Zero disables caching. */
+    @Value("${ldap.authorizationgenerator.cache.seconds:0}")
+    private long cacheDuration;
+
+    /** Cache of username to prefixed roles. */
+    private Cache<String, Set<String>> roleCache;
+
     /**
      * Instantiates a new Ldap authorization generator.
      */
@@ -156,15 +185,124 @@ public class LdapAuthorizationGenerator implements AuthorizationGenerator<Common
         this.allowMultipleResults = allowMultiple;
     }
 
+    /**
+     * Sets the name of the attribute on the user entry that lists the roles of the user,
+     * such as {@code memberOf}. When defined, roles are collected from the user search result
+     * and the separate role search is skipped, halving the number of LDAP round trips.
+     * Values that are distinguished names are reduced to the value of their first RDN.
+     *
+     * @param userRoleAttributeName the user role attribute name
+     */
+    public void setUserRoleAttributeName(final String userRoleAttributeName) {
+        this.userRoleAttributeName = userRoleAttributeName;
+    }
+
+    /**
+     * Sets the number of seconds resolved roles are cached per user.
+     * A value of zero or less disables the cache.
+     *
+     * @param cacheDuration the cache duration in seconds
+     */
+    public void setCacheDuration(final long cacheDuration) {
+        this.cacheDuration = cacheDuration;
+    }
+
+    /**
+     * Prepare the role cache once all properties are set.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (this.cacheDuration > 0) {
+            this.roleCache = CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_CACHE_SIZE)
+                    .expireAfterWrite(this.cacheDuration, TimeUnit.SECONDS).build();
+            logger.debug("Caching LDAP roles for {} seconds", this.cacheDuration);
+        }
+    }
+
     @Override
     public void generate(final CommonProfile profile) {
         final String username = profile.getId();
+        final Set<String> roles;
+        if (this.roleCache == null) {
+            roles = resolveRoles(username);
+        } else {
+            try {
+                roles = this.roleCache.get(username, new Callable<Set<String>>() {
+                    @Override
+                    public Set<String> call() {
+                        return resolveRoles(username);
+                    }
+                });
+            } catch (final ExecutionException | UncheckedExecutionException e) {
+                Throwables.propagateIfPossible(e.getCause());
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        for (final String role : roles) {
+            profile.addRole(role);
+        }
+    }
+
+    /**
+     * Resolve the prefixed roles of the user.
+     *
+     * @param username the username
+     * @return the roles
+     */
+    private Set<String> resolveRoles(final String username) {
+        final LdapEntry userResultEntry = searchForUser(username);
+        final Set<String> roles = new LinkedHashSet<>();
+
+        if (StringUtils.isNotBlank(this.userRoleAttributeName)) {
+            final LdapAttribute roleAttribute = userResultEntry.getAttribute(this.userRoleAttributeName);
+            if (roleAttribute == null) {
+                logger.debug("Role attribute {} not found on entry {}", this.userRoleAttributeName, userResultEntry.getDn());
+            } else {
+                addRoles(roles, roleAttribute, true);
+            }
+            return roles;
+        }
+
+        final String userDn = userResultEntry.getDn();
+        final SearchResult roleResult;
+        try {
+            logger.debug("Attempting to get roles for user {}.", userDn);
+            final Response<SearchResult> response = this.roleSearchExecutor.search(
+                    this.connectionFactory,
+                    createSearchFilter(this.roleSearchExecutor, userDn));
+            logger.debug("LDAP role search response: {}", response);
+            roleResult = response.getResult();
+        } catch (final LdapException e) {
+            throw new RuntimeException("LDAP error fetching roles for user.", e);
+        }
+        for (final LdapEntry entry : roleResult.getEntries()) {
+            final LdapAttribute roleAttribute = entry.getAttribute(this.roleAttributeName);
+            if (roleAttribute == null) {
+                logger.warn("Role attribute not found on entry {}", entry);
+                continue;
+            }
+            addRoles(roles, roleAttribute, false);
+        }
+        return roles;
+    }
+
+    /**
+     * Search for the user entry.
+     *
+     * @param username the username
+     * @return the user entry
+     */
+    private LdapEntry searchForUser(final String username) {
         final SearchResult userResult;
         try {
             logger.debug("Attempting to get details for user {}.", username);
-            final Response<SearchResult> response = this.userSearchExecutor.search(
-                    this.connectionFactory,
-                    createSearchFilter(this.userSearchExecutor, username));
+            final SearchFilter filter = createSearchFilter(this.userSearchExecutor, username);
+            final Response<SearchResult> response;
+            if (StringUtils.isNotBlank(this.userRoleAttributeName)) {
+                response = this.userSearchExecutor.search(this.connectionFactory, filter, getUserReturnAttributes());
+            } else {
+                response = this.userSearchExecutor.search(this.connectionFactory, filter);
+            }
             logger.debug("LDAP user search response: {}", response);
             userResult = response.getResult();
         } catch (final LdapException e) {
@@ -178,36 +316,57 @@ public class LdapAuthorizationGenerator implements AuthorizationGenerator<Common
                     "Found multiple results for user which is not allowed (allowMultipleResults=false).");
         }
         final LdapEntry userResultEntry = userResult.getEntry();
-        final String userDn = userResultEntry.getDn();
         final LdapAttribute userAttribute = userResultEntry.getAttribute(this.userAttributeName);
         if (userAttribute == null) {
             throw new IllegalStateException(this.userAttributeName + " attribute not found in results.");
         }
+        return userResultEntry;
+    }
 
-        final SearchResult roleResult;
-        try {
-            logger.debug("Attempting to get roles for user {}.", userDn);
-            final Response<SearchResult> response = this.roleSearchExecutor.search(
-                    this.connectionFactory,
-                    createSearchFilter(this.roleSearchExecutor, userDn));
-            logger.debug("LDAP role search response: {}", response);
-            roleResult = response.getResult();
-        } catch (final LdapException e) {
-            throw new RuntimeException("LDAP error fetching roles for user.", e);
+    /**
+     * Gets the attributes to return from the user search when roles are read from the user entry.
+     * These are the attributes configured on the user search executor plus the role attribute.
+     *
+     * @return the return attributes
+     */
+    private String[] getUserReturnAttributes() {
+        final String[] configured = this.userSearchExecutor.getReturnAttributes();
+        if (configured == null || configured.length == 0) {
+            return new String[] {this.userAttributeName, this.userRoleAttributeName};
         }
-        LdapAttribute roleAttribute;
-        for (final LdapEntry entry : roleResult.getEntries()) {
-            roleAttribute = entry.getAttribute(this.roleAttributeName);
-            if (roleAttribute == null) {
-                logger.warn("Role attribute not found on entry {}", entry);
-                continue;
-            }
+        final Set<String> attributes = new LinkedHashSet<>(Arrays.asList(configured));
+        attributes.add(this.userAttributeName);
+        attributes.add(this.userRoleAttributeName);
+        return attributes.toArray(new String[attributes.size()]);
+    }
 
-            for (final String role : roleAttribute.getStringValues()) {
-                profile.addRole(this.rolePrefix + role.toUpperCase());
-            }
+    private void addRoles(final Set<String> roles, final LdapAttribute roleAttribute, final boolean reduceDn) {
+        for (final String value : roleAttribute.getStringValues()) {
+            final String role = reduceDn ? getFirstRdnValue(value) : value;
+            roles.add(this.rolePrefix + role.toUpperCase());
+        }
+    }
 
+    /**
+     * Gets the value of the first RDN if the value is a distinguished name,
+     * e.g. {@code cn=admins,ou=groups,dc=example,dc=org} yields {@code admins}.
+     *
+     * @param value the attribute value
+     * @return the rdn value, or the value itself if it is not a distinguished name.
+     */
+    private static String getFirstRdnValue(final String value) {
+        final int equals = value.indexOf('=');
+        if (equals < 0) {
+            return value;
+        }
+        int end = equals + 1;
+        while (end < value.length() && value.charAt(end) != ',' && value.charAt(end) != '+') {
+            if (value.charAt(end) == '\\') {
+                end++;
+            }
+            end++;
         }
+        return value.substring(equals + 1, Math.min(end, value.length())).trim();
     }
 
     /**
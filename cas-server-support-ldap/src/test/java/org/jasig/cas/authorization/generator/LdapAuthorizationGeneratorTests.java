@@ -22,7 +22,11 @@ import org.jasig.cas.adaptors.ldap.AbstractLdapTests;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.ldaptive.ConnectionFactory;
 import org.ldaptive.LdapEntry;
+import org.ldaptive.SearchExecutor;
+import org.ldaptive.SearchFilter;
+import org.mockito.Matchers;
 import org.pac4j.core.profile.CommonProfile;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -30,6 +34,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit test for the {@link LdapAuthorizationGenerator} class.
@@ -69,6 +74,33 @@ public class LdapAuthorizationGeneratorTests extends AbstractLdapTests {
         }
     }
 
+    @Test
+    public void verifySingleSearchWithCachedRoles() throws Exception {
+        final SearchExecutor userSearchExecutor = spy(getBean("searchExecutorUser", SearchExecutor.class));
+        final LdapAuthorizationGenerator generator = new LdapAuthorizationGenerator(
+                getBean("provisioningConnectionFactory", ConnectionFactory.class),
+                userSearchExecutor, null, "mail", "uugid");
+        generator.setUserRoleAttributeName("uugid");
+        generator.setCacheDuration(60);
+        generator.initialize();
+
+        for (final LdapEntry entry : getEntries()) {
+            if (entry.getAttribute("objectclass").getStringValues().contains(CAS_SERVICE_DETAILS_OBJ_CLASS)) {
+                final String username = getUsername(entry);
+                for (int i = 0; i < 2; i++) {
+                    final CommonProfile profile = new CommonProfile();
+                    profile.setId(username);
+                    generator.generate(profile);
+                    assertTrue(hasAuthority(profile, "ROLE_ADMINISTRATORS"));
+                    assertTrue(hasAuthority(profile, "ROLE_USERS"));
+                }
+                verify(userSearchExecutor, times(1)).search(any(ConnectionFactory.class),
+                        any(SearchFilter.class), Matchers.<String>anyVararg());
+                reset(userSearchExecutor);
+            }
+        }
+    }
+
     private boolean hasAuthority(final CommonProfile profile, final String name) {
         return profile.getRoles().contains(name);
     }
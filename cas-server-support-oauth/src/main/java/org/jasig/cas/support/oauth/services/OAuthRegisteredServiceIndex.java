@@ -0,0 +1,173 @@
+package org.jasig.cas.support.oauth.services;
+
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.services.ServicesManager;
+import org.jasig.cas.support.events.AbstractCasEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceDeletedEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
+import org.jasig.cas.support.events.CasRegisteredServicesLoadedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Index of {@link OAuthRegisteredService}s by client id, built from the services
+ * manager and rebuilt whenever services are saved, deleted or reloaded.
+ * OAuth endpoints resolve clients in constant time, regardless of how many
+ * other services are registered, and redirect uris are matched against
+ * patterns compiled once per index.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@Component("oAuthRegisteredServiceIndex")
+public class OAuthRegisteredServiceIndex implements ApplicationListener<AbstractCasEvent> {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @NotNull
+    private ServicesManager servicesManager;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Map<String, IndexedClient> clients;
+
+    /**
+     * Instantiates a new index.
+     */
+    public OAuthRegisteredServiceIndex() {
+    }
+
+    /**
+     * Instantiates a new index.
+     *
+     * @param servicesManager the services manager
+     */
+    @Autowired
+    public OAuthRegisteredServiceIndex(@Qualifier("servicesManager") final ServicesManager servicesManager) {
+        this.servicesManager = servicesManager;
+    }
+
+    /**
+     * Locate the {@link OAuthRegisteredService} registered with the given client id.
+     *
+     * @param clientId the client id
+     * @return the service, or null if none is registered.
+     */
+    public OAuthRegisteredService getService(final String clientId) {
+        final IndexedClient client = getClients().get(clientId);
+        return client == null ? null : client.service;
+    }
+
+    /**
+     * Determine whether the redirect uri is allowed for the given service.
+     *
+     * @param service the service
+     * @param redirectUri the redirect uri
+     * @return true if the uri matches the service id
+     */
+    public boolean isRedirectUriAllowed(final OAuthRegisteredService service, final String redirectUri) {
+        final IndexedClient client = getClients().get(service.getClientId());
+        if (client != null && client.service == service) {
+            return client.redirectPattern != null && client.redirectPattern.matcher(redirectUri).matches();
+        }
+        return redirectUri.matches(service.getServiceId());
+    }
+
+    /**
+     * Compare the client secret of the service to the given secret in constant time.
+     *
+     * @param service the service
+     * @param clientSecret the client secret
+     * @return true if the secrets match
+     */
+    public boolean isClientSecretValid(final OAuthRegisteredService service, final String clientSecret) {
+        if (service.getClientSecret() == null || clientSecret == null) {
+            return service.getClientSecret() == null && clientSecret == null;
+        }
+        return MessageDigest.isEqual(service.getClientSecret().getBytes(StandardCharsets.UTF_8),
+                clientSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onApplicationEvent(final AbstractCasEvent event) {
+        if (event instanceof CasRegisteredServiceSavedEvent
+                || event instanceof CasRegisteredServiceDeletedEvent
+                || event instanceof CasRegisteredServicesLoadedEvent) {
+            this.version.incrementAndGet();
+            this.clients = null;
+            logger.debug("OAuth client index invalidated by {}", event.getClass().getSimpleName());
+        }
+    }
+
+    public void setServicesManager(final ServicesManager servicesManager) {
+        this.servicesManager = servicesManager;
+        this.version.incrementAndGet();
+        this.clients = null;
+    }
+
+    private Map<String, IndexedClient> getClients() {
+        Map<String, IndexedClient> current = this.clients;
+        if (current == null) {
+            final long expectedVersion = this.version.get();
+            current = buildIndex();
+            if (this.version.get() == expectedVersion) {
+                this.clients = current;
+            }
+        }
+        return current;
+    }
+
+    private Map<String, IndexedClient> buildIndex() {
+        final Map<String, IndexedClient> index = new HashMap<>();
+        for (final RegisteredService registeredService : this.servicesManager.getAllServices()) {
+            if (registeredService instanceof OAuthRegisteredService) {
+                final OAuthRegisteredService service = (OAuthRegisteredService) registeredService;
+                // services are sorted by evaluation order; the first one registered for a client id wins
+                if (service.getClientId() != null && !index.containsKey(service.getClientId())) {
+                    index.put(service.getClientId(), new IndexedClient(service, compile(service)));
+                }
+            }
+        }
+        logger.debug("Indexed {} OAuth clients", index.size());
+        return Collections.unmodifiableMap(index);
+    }
+
+    private Pattern compile(final OAuthRegisteredService service) {
+        if (service.getServiceId() == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(service.getServiceId());
+        } catch (final PatternSyntaxException e) {
+            logger.error("Service id {} of OAuth client {} is not a valid pattern", service.getServiceId(), service.getClientId());
+            return null;
+        }
+    }
+
+    /**
+     * An OAuth service along with its compiled redirect pattern.
+     */
+    private static final class IndexedClient {
+        private final OAuthRegisteredService service;
+        private final Pattern redirectPattern;
+
+        IndexedClient(final OAuthRegisteredService service, final Pattern redirectPattern) {
+            this.service = service;
+            this.redirectPattern = redirectPattern;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.jasig.cas.support.oauth.web;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jasig.cas.services.ServicesManager;
+import org.jasig.cas.support.oauth.services.OAuthRegisteredServiceIndex;
 import org.jasig.cas.ticket.registry.TicketRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,12 @@ public abstract class BaseOAuthWrapperController extends AbstractController {
     @Qualifier("servicesManager")
     protected ServicesManager servicesManager;
 
+    /** The index of OAuth services by client id. */
+    @NotNull
+    @Autowired
+    @Qualifier("oAuthRegisteredServiceIndex")
+    protected OAuthRegisteredServiceIndex registeredServiceIndex;
+
     /** The ticket registry. */
     @NotNull
     @Autowired
@@ -94,6 +101,10 @@ public abstract class BaseOAuthWrapperController extends AbstractController {
         this.servicesManager = servicesManager;
     }
 
+    public void setRegisteredServiceIndex(final OAuthRegisteredServiceIndex registeredServiceIndex) {
+        this.registeredServiceIndex = registeredServiceIndex;
+    }
+
     public void setTicketRegistry(final TicketRegistry ticketRegistry) {
         this.ticketRegistry = ticketRegistry;
     }
@@ -121,4 +132,4 @@ public abstract class BaseOAuthWrapperController extends AbstractController {
     public void setTimeout(final long timeout) {
         this.timeout = timeout;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -28,7 +28,7 @@ import java.util.concurrent.TimeUnit;
 public final class OAuth20AccessTokenController extends BaseOAuthWrapperController {
 
 	@Autowired
-	@Qualifier("defaultAccessTokenGenerator")
+	@Qualifier("accessTokenGenerator")
 	private AccessTokenGenerator accessTokenGenerator;
 
 	/**
@@ -72,8 +72,7 @@ public final class OAuth20AccessTokenController extends BaseOAuthWrapperControll
 		// successfully.
 		// ticketRegistry.deleteTicket(serviceTicket.getId());
 
-		final OAuthRegisteredService registeredService = OAuthUtils.getRegisteredOAuthService(this.servicesManager,
-				clientId);
+		final OAuthRegisteredService registeredService = this.registeredServiceIndex.getService(clientId);
 		final OAuthWebApplicationService service = new OAuthWebApplicationService(registeredService.getId());
 		final String accessTokenEncoded = this.accessTokenGenerator.generate(service, ticketGrantingTicket);
 		final int expires = (int) (this.timeout
@@ -125,19 +124,19 @@ public final class OAuth20AccessTokenController extends BaseOAuthWrapperControll
 			return false;
 		}
 
-		final OAuthRegisteredService service = OAuthUtils.getRegisteredOAuthService(this.servicesManager, clientId);
+		final OAuthRegisteredService service = this.registeredServiceIndex.getService(clientId);
 		if (service == null) {
 			logger.error("Unknown {} : {}", OAuthConstants.CLIENT_ID, clientId);
 			return false;
 		}
 
-		final String serviceId = service.getServiceId();
-		if (!redirectUri.matches(serviceId)) {
-			logger.error("Unsupported {} : {} for serviceId : {}", OAuthConstants.REDIRECT_URI, redirectUri, serviceId);
+		if (!this.registeredServiceIndex.isRedirectUriAllowed(service, redirectUri)) {
+			logger.error("Unsupported {} : {} for serviceId : {}", OAuthConstants.REDIRECT_URI, redirectUri,
+					service.getServiceId());
 			return false;
 		}
 
-		if (!StringUtils.equals(service.getClientSecret(), clientSecret)) {
+		if (!this.registeredServiceIndex.isClientSecretValid(service, clientSecret)) {
 			logger.error("Wrong client secret for service {}", service);
 			return false;
 		}
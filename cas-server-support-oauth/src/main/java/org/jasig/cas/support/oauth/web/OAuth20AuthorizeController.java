@@ -51,15 +51,15 @@ public final class OAuth20AuthorizeController extends BaseOAuthWrapperController
             return new ModelAndView(OAuthConstants.ERROR_VIEW);
         }
 
-        final OAuthRegisteredService service = OAuthUtils.getRegisteredOAuthService(this.servicesManager, clientId);
+        final OAuthRegisteredService service = this.registeredServiceIndex.getService(clientId);
         if (service == null) {
             logger.error("Unknown {} : {}", OAuthConstants.CLIENT_ID, clientId);
             return new ModelAndView(OAuthConstants.ERROR_VIEW);
         }
 
-        final String serviceId = service.getServiceId();
-        if (!redirectUri.matches(serviceId)) {
-            logger.error("Unsupported {} : {} for serviceId : {}", OAuthConstants.REDIRECT_URI, redirectUri, serviceId);
+        if (!this.registeredServiceIndex.isRedirectUriAllowed(service, redirectUri)) {
+            logger.error("Unsupported {} : {} for serviceId : {}", OAuthConstants.REDIRECT_URI, redirectUri,
+                    service.getServiceId());
             return new ModelAndView(OAuthConstants.ERROR_VIEW);
         }
 
@@ -45,7 +45,7 @@ public final class OAuth20ProfileController extends BaseOAuthWrapperController {
     private JwtAuthenticator accessTokenJwtAuthenticator;*/
     
     @Autowired
-    @Qualifier("defaultAccessTokenGenerator")
+    @Qualifier("accessTokenGenerator")
     private AccessTokenGenerator accessTokenGenerator;
 
     private final JsonFactory jsonFactory = new JsonFactory(new ObjectMapper());
@@ -82,25 +82,39 @@ public final class OAuth20ProfileController extends BaseOAuthWrapperController {
                 return null;
             }
             try {
-                final Pair<String, Service> pair = this.accessTokenGenerator.degenerate(accessToken);
-                accessToken = pair.getFirst();
-
-                final TicketGrantingTicket ticketGrantingTicket = verifyAccessToken(accessToken, jsonGenerator);
-                if (ticketGrantingTicket == null) {
-                    return null;
+                final String ticketGrantingTicketId;
+                final Service requestingService;
+                final Principal principal;
+                if (this.accessTokenGenerator instanceof SignedAccessTokenGenerator) {
+                    final SignedAccessToken signedAccessToken = verifySignedAccessToken(
+                            (SignedAccessTokenGenerator) this.accessTokenGenerator, accessToken, jsonGenerator);
+                    if (signedAccessToken == null) {
+                        return null;
+                    }
+                    ticketGrantingTicketId = signedAccessToken.getTicketGrantingTicketId();
+                    requestingService = signedAccessToken.getService();
+                    principal = signedAccessToken.getPrincipal();
+                } else {
+                    final Pair<String, Service> pair = this.accessTokenGenerator.degenerate(accessToken);
+                    final TicketGrantingTicket ticketGrantingTicket = verifyAccessToken(pair.getFirst(), jsonGenerator);
+                    if (ticketGrantingTicket == null) {
+                        return null;
+                    }
+                    ticketGrantingTicketId = ticketGrantingTicket.getId();
+                    requestingService = pair.getSecond();
+                    principal = ticketGrantingTicket.getAuthentication().getPrincipal();
                 }
 
-                final RegisteredService service = verifyRegisteredService(jsonGenerator, pair);
+                final RegisteredService service = verifyRegisteredService(jsonGenerator, requestingService);
                 if (service == null) {
                     return null;
                 }
 
-                final Principal principal = ticketGrantingTicket.getAuthentication().getPrincipal();
                 if (!verifyPrincipalServiceAccess(jsonGenerator, service, principal)) {
                     return null;
                 }
 
-                writeOutProfileResponse(jsonGenerator, service, principal, ticketGrantingTicket.getId());
+                writeOutProfileResponse(jsonGenerator, service, principal, ticketGrantingTicketId);
             } catch (final Exception e) {
                 jsonGenerator.writeStartObject();
                 jsonGenerator.writeStringField("error", OAuthConstants.INVALID_REQUEST + ". " + e.getMessage());
@@ -139,9 +153,9 @@ public final class OAuth20ProfileController extends BaseOAuthWrapperController {
         return true;
     }
     
-    private RegisteredService verifyRegisteredService(final JsonGenerator jsonGenerator, final Pair<String, Service> pair)
+    private RegisteredService verifyRegisteredService(final JsonGenerator jsonGenerator, final Service requestingService)
             throws IOException {
-        final RegisteredService service = this.servicesManager.findServiceBy(Long.parseLong(pair.getSecond().getId()));
+        final RegisteredService service = this.servicesManager.findServiceBy(Long.parseLong(requestingService.getId()));
         if (service == null || !service.getAccessStrategy().isServiceAccessAllowed()) {
             logger.warn("Service {}] is not found in the registry or it is disabled.", service);
             jsonGenerator.writeStartObject();
@@ -152,6 +166,28 @@ public final class OAuth20ProfileController extends BaseOAuthWrapperController {
         return service;
     }
 
+    /**
+     * Validate a self-contained access token without loading the ticket granting ticket,
+     * unless the token may have been revoked.
+     */
+    private SignedAccessToken verifySignedAccessToken(final SignedAccessTokenGenerator generator,
+                                                      final String accessToken,
+                                                      final JsonGenerator jsonGenerator) throws IOException {
+        final SignedAccessToken token = generator.decode(accessToken);
+        if (token.isExpired()) {
+            LOGGER.error("expired accessToken for : {}", token.getPrincipal().getId());
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeStringField("error", OAuthConstants.INVALID_REQUEST);
+            jsonGenerator.writeEndObject();
+            return null;
+        }
+        if (generator.mightBeRevoked(token.getTicketGrantingTicketId())
+                && verifyAccessToken(token.getTicketGrantingTicketId(), jsonGenerator) == null) {
+            return null;
+        }
+        return token;
+    }
+
     private TicketGrantingTicket verifyAccessToken(final String accessToken, final JsonGenerator jsonGenerator) throws IOException {
         final TicketGrantingTicket ticketGrantingTicket = (TicketGrantingTicket) this.ticketRegistry.getTicket(accessToken);
         if (ticketGrantingTicket == null || ticketGrantingTicket.isExpired()) {
@@ -0,0 +1,64 @@
+package org.jasig.cas.support.oauth.web;
+
+import org.jasig.cas.authentication.principal.Principal;
+import org.jasig.cas.authentication.principal.Service;
+
+/**
+ * This is {@link SignedAccessToken}, the content of an access token issued by
+ * {@link SignedAccessTokenGenerator}. It carries everything the profile endpoint needs,
+ * so that the token can be validated without fetching the ticket granting ticket.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class SignedAccessToken {
+
+    private final String ticketGrantingTicketId;
+
+    private final Service service;
+
+    private final Principal principal;
+
+    private final long expirationTime;
+
+    /**
+     * Instantiates a new signed access token.
+     *
+     * @param ticketGrantingTicketId the ticket granting ticket id
+     * @param service the service the token was issued to
+     * @param principal the authenticated principal
+     * @param expirationTime the time, in milliseconds, at which the token expires
+     */
+    public SignedAccessToken(final String ticketGrantingTicketId, final Service service, final Principal principal,
+                             final long expirationTime) {
+        this.ticketGrantingTicketId = ticketGrantingTicketId;
+        this.service = service;
+        this.principal = principal;
+        this.expirationTime = expirationTime;
+    }
+
+    public String getTicketGrantingTicketId() {
+        return this.ticketGrantingTicketId;
+    }
+
+    public Service getService() {
+        return this.service;
+    }
+
+    public Principal getPrincipal() {
+        return this.principal;
+    }
+
+    public long getExpirationTime() {
+        return this.expirationTime;
+    }
+
+    /**
+     * Whether the token has expired.
+     *
+     * @return true if expired
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= this.expirationTime;
+    }
+}
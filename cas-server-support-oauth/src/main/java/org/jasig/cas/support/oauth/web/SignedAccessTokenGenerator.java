@@ -0,0 +1,277 @@
+package org.jasig.cas.support.oauth.web;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.apache.commons.lang3.StringUtils;
+import org.jasig.cas.CipherExecutor;
+import org.jasig.cas.authentication.principal.Principal;
+import org.jasig.cas.authentication.principal.PrincipalFactory;
+import org.jasig.cas.authentication.principal.Service;
+import org.jasig.cas.authentication.principal.ServiceFactory;
+import org.jasig.cas.authentication.principal.WebApplicationService;
+import org.jasig.cas.support.events.CasTicketGrantingTicketDestroyedEvent;
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.util.DefaultCipherExecutor;
+import org.jasig.cas.util.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+
+import javax.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This is {@link SignedAccessTokenGenerator}. Creates self-contained access tokens that
+ * carry the ticket granting ticket id, the requesting service, the principal and the token expiration,
+ * encrypted and signed by a {@link CipherExecutor}. The profile endpoint validates such tokens locally
+ * instead of loading the ticket granting ticket from the registry.
+ *
+ * <p>Tokens expire once the time-to-kill of the ticket granting ticket has elapsed since they were issued,
+ * which is when the ticket granting ticket expires if it is not used in the meantime, and never after the
+ * maximum lifetime of the ticket granting ticket, counted from its creation. Tokens of
+ * ticket granting tickets destroyed on this node are revoked through a bloom filter that is fed by
+ * {@link CasTicketGrantingTicketDestroyedEvent}s. Since a bloom filter may report false positives, tokens
+ * it flags are checked against the ticket registry before they are rejected. Entries older than the
+ * token lifetime are discarded, as the tokens they revoke have expired already.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class SignedAccessTokenGenerator implements AccessTokenGenerator,
+        ApplicationListener<CasTicketGrantingTicketDestroyedEvent> {
+
+    private static final String TICKET_GRANTING_TICKET = "tgt";
+    private static final String SERVICE = "svc";
+    private static final String PRINCIPAL = "sub";
+    private static final String ATTRIBUTES = "attrs";
+    private static final String EXPIRATION = "exp";
+
+    private static final String CONTENT_ENCRYPTION_ALGORITHM = "A128CBC-HS256";
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignedAccessTokenGenerator.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @NotNull
+    private final CipherExecutor<String, String> cipherExecutor;
+
+    @NotNull
+    private final ServiceFactory<WebApplicationService> webApplicationServiceFactory;
+
+    @NotNull
+    private final PrincipalFactory principalFactory;
+
+    private final long timeToLive;
+
+    private final long maxTimeToLive;
+
+    private int expectedRevocations = 10000;
+
+    private BloomFilter<CharSequence> currentRevocations;
+
+    private BloomFilter<CharSequence> previousRevocations;
+
+    private long currentRevocationsStart;
+
+    /**
+     * Instantiates a new signed access token generator.
+     *
+     * @param cipherExecutor the cipher executor used to encrypt and sign tokens
+     * @param webApplicationServiceFactory the service factory
+     * @param principalFactory the principal factory
+     * @param timeToKillInSeconds the time-to-kill of the ticket granting ticket, used as the token lifetime
+     */
+    public SignedAccessTokenGenerator(final CipherExecutor<String, String> cipherExecutor,
+                                      final ServiceFactory<WebApplicationService> webApplicationServiceFactory,
+                                      final PrincipalFactory principalFactory,
+                                      final long timeToKillInSeconds) {
+        this(cipherExecutor, webApplicationServiceFactory, principalFactory, timeToKillInSeconds, 0);
+    }
+
+    /**
+     * Instantiates a new signed access token generator that encrypts and signs tokens with the given keys.
+     *
+     * @param encryptionKey the encryption key, as an octet sequence JSON web key
+     * @param signingKey the signing key, as an octet sequence JSON web key
+     * @param webApplicationServiceFactory the service factory
+     * @param principalFactory the principal factory
+     * @param timeToKillInSeconds the time-to-kill of the ticket granting ticket, used as the token lifetime
+     * @param maxTimeToLiveInSeconds the maximum lifetime of the ticket granting ticket, which tokens never outlive
+     * @throws IllegalArgumentException if either key is blank
+     */
+    public SignedAccessTokenGenerator(final String encryptionKey, final String signingKey,
+                                      final ServiceFactory<WebApplicationService> webApplicationServiceFactory,
+                                      final PrincipalFactory principalFactory,
+                                      final long timeToKillInSeconds,
+                                      final long maxTimeToLiveInSeconds) {
+        this(newCipherExecutor(encryptionKey, signingKey), webApplicationServiceFactory, principalFactory,
+                timeToKillInSeconds, maxTimeToLiveInSeconds);
+    }
+
+    /**
+     * Instantiates a new signed access token generator.
+     *
+     * @param cipherExecutor the cipher executor used to encrypt and sign tokens
+     * @param webApplicationServiceFactory the service factory
+     * @param principalFactory the principal factory
+     * @param timeToKillInSeconds the time-to-kill of the ticket granting ticket, used as the token lifetime
+     * @param maxTimeToLiveInSeconds the maximum lifetime of the ticket granting ticket, which tokens never
+     *                               outlive; zero or less for no limit
+     */
+    public SignedAccessTokenGenerator(final CipherExecutor<String, String> cipherExecutor,
+                                      final ServiceFactory<WebApplicationService> webApplicationServiceFactory,
+                                      final PrincipalFactory principalFactory,
+                                      final long timeToKillInSeconds,
+                                      final long maxTimeToLiveInSeconds) {
+        this.cipherExecutor = cipherExecutor;
+        this.webApplicationServiceFactory = webApplicationServiceFactory;
+        this.principalFactory = principalFactory;
+        this.timeToLive = TimeUnit.SECONDS.toMillis(timeToKillInSeconds);
+        this.maxTimeToLive = TimeUnit.SECONDS.toMillis(maxTimeToLiveInSeconds);
+        this.currentRevocations = newRevocationFilter();
+        this.previousRevocations = newRevocationFilter();
+        this.currentRevocationsStart = System.currentTimeMillis();
+    }
+
+    @Override
+    public String generate(final Service service, final TicketGrantingTicket ticketGrantingTicket) {
+        final Principal principal = ticketGrantingTicket.getAuthentication().getPrincipal();
+        final Map<String, Object> token = new LinkedHashMap<>();
+        token.put(TICKET_GRANTING_TICKET, ticketGrantingTicket.getId());
+        token.put(SERVICE, service.getId());
+        token.put(PRINCIPAL, principal.getId());
+        token.put(ATTRIBUTES, principal.getAttributes());
+        token.put(EXPIRATION, getExpirationTime(ticketGrantingTicket));
+        try {
+            final String json = this.mapper.writeValueAsString(token);
+            LOGGER.debug("Created access token for {} and service {}", principal.getId(), service.getId());
+            return this.cipherExecutor.encode(json);
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to create access token: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Pair<String, Service> degenerate(final String accessTokenInput) {
+        final SignedAccessToken token = decode(accessTokenInput);
+        return new Pair<>(token.getTicketGrantingTicketId(), token.getService());
+    }
+
+    /**
+     * Decrypt and verify the access token.
+     *
+     * @param accessTokenInput the access token input
+     * @return the token
+     * @throws IllegalArgumentException if the token cannot be decoded or is not signed by this server
+     */
+    public SignedAccessToken decode(final String accessTokenInput) {
+        final String json;
+        try {
+            json = this.cipherExecutor.decode(accessTokenInput);
+        } catch (final Exception e) {
+            throw new IllegalArgumentException("Access token cannot be decoded", e);
+        }
+        if (StringUtils.isBlank(json)) {
+            throw new IllegalArgumentException("Access token signature is invalid");
+        }
+        try {
+            final Map<String, Object> token = this.mapper.readValue(json, new TypeReference<Map<String, Object>>() { });
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> attributes = (Map<String, Object>) token.get(ATTRIBUTES);
+            return new SignedAccessToken((String) token.get(TICKET_GRANTING_TICKET),
+                    this.webApplicationServiceFactory.createService((String) token.get(SERVICE)),
+                    this.principalFactory.createPrincipal((String) token.get(PRINCIPAL), attributes),
+                    ((Number) token.get(EXPIRATION)).longValue());
+        } catch (final Exception e) {
+            throw new IllegalArgumentException("Access token is malformed", e);
+        }
+    }
+
+    /**
+     * Whether the ticket granting ticket may have been destroyed on this node.
+     * A false result is definite; a true result may be a false positive.
+     *
+     * @param ticketGrantingTicketId the ticket granting ticket id
+     * @return true if the ticket granting ticket may have been destroyed
+     */
+    public synchronized boolean mightBeRevoked(final String ticketGrantingTicketId) {
+        rotateRevocations();
+        return this.currentRevocations.mightContain(ticketGrantingTicketId)
+                || this.previousRevocations.mightContain(ticketGrantingTicketId);
+    }
+
+    /**
+     * Revoke the tokens issued for the ticket granting ticket.
+     *
+     * @param ticketGrantingTicketId the ticket granting ticket id
+     */
+    public synchronized void revoke(final String ticketGrantingTicketId) {
+        rotateRevocations();
+        this.currentRevocations.put(ticketGrantingTicketId);
+    }
+
+    @Override
+    public void onApplicationEvent(final CasTicketGrantingTicketDestroyedEvent event) {
+        revoke(event.getTicketGrantingTicket().getId());
+    }
+
+    /**
+     * Sets the number of revocations expected within a token lifetime,
+     * which sizes the bloom filter.
+     *
+     * @param expectedRevocations the expected revocations
+     */
+    public synchronized void setExpectedRevocations(final int expectedRevocations) {
+        this.expectedRevocations = expectedRevocations;
+        this.currentRevocations = newRevocationFilter();
+        this.previousRevocations = newRevocationFilter();
+    }
+
+    /**
+     * The time at which a token issued now expires: a time-to-kill from now, but no later than
+     * the maximum lifetime of the ticket granting ticket.
+     *
+     * @param ticketGrantingTicket the ticket granting ticket
+     * @return the expiration time in milliseconds
+     */
+    private long getExpirationTime(final TicketGrantingTicket ticketGrantingTicket) {
+        final long expirationTime = System.currentTimeMillis() + this.timeToLive;
+        if (this.maxTimeToLive > 0) {
+            return Math.min(expirationTime, ticketGrantingTicket.getCreationTime() + this.maxTimeToLive);
+        }
+        return expirationTime;
+    }
+
+    /**
+     * Discard revocations older than the token lifetime.
+     * Must be called while holding the lock.
+     */
+    private void rotateRevocations() {
+        final long now = System.currentTimeMillis();
+        if (now - this.currentRevocationsStart >= this.timeToLive) {
+            this.previousRevocations = this.currentRevocations;
+            this.currentRevocations = newRevocationFilter();
+            this.currentRevocationsStart = now;
+        }
+    }
+
+    private static CipherExecutor<String, String> newCipherExecutor(final String encryptionKey, final String signingKey) {
+        if (StringUtils.isBlank(encryptionKey) || StringUtils.isBlank(signingKey)) {
+            throw new IllegalArgumentException("Signed access tokens require both "
+                    + "cas.oauth.accesstoken.encryption.key and cas.oauth.accesstoken.signing.key to be defined");
+        }
+        return new DefaultCipherExecutor(encryptionKey, signingKey, CONTENT_ENCRYPTION_ALGORITHM);
+    }
+
+    private BloomFilter<CharSequence> newRevocationFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                this.expectedRevocations, FALSE_POSITIVE_PROBABILITY);
+    }
+}
@@ -0,0 +1,82 @@
+package org.jasig.cas.support.oauth.services;
+
+import org.jasig.cas.services.RegexRegisteredService;
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.services.ServicesManager;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link OAuthRegisteredServiceIndex}.
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class OAuthRegisteredServiceIndexTests {
+
+    private final List<RegisteredService> services = new ArrayList<>();
+
+    private ServicesManager servicesManager;
+
+    private OAuthRegisteredServiceIndex index;
+
+    @Before
+    public void setUp() {
+        this.services.clear();
+        for (int i = 0; i < 100; i++) {
+            final RegexRegisteredService service = new RegexRegisteredService();
+            service.setId(i);
+            service.setServiceId("https://app" + i + ".example.org/.*");
+            this.services.add(service);
+        }
+        this.services.add(newOAuthService(1000, "client", "secret", "https://oauth\\.example\\.org/.*"));
+
+        this.servicesManager = mock(ServicesManager.class);
+        when(this.servicesManager.getAllServices()).thenReturn(this.services);
+        this.index = new OAuthRegisteredServiceIndex(this.servicesManager);
+    }
+
+    @Test
+    public void verifyLookupsUseIndex() {
+        final OAuthRegisteredService service = this.index.getService("client");
+        assertNotNull(service);
+        assertNull(this.index.getService("unknown"));
+        assertTrue(this.index.isRedirectUriAllowed(service, "https://oauth.example.org/callback"));
+        assertFalse(this.index.isRedirectUriAllowed(service, "https://other.example.org/callback"));
+        verify(this.servicesManager, times(1)).getAllServices();
+    }
+
+    @Test
+    public void verifyClientSecret() {
+        final OAuthRegisteredService service = this.index.getService("client");
+        assertTrue(this.index.isClientSecretValid(service, "secret"));
+        assertFalse(this.index.isClientSecretValid(service, "secreT"));
+        assertFalse(this.index.isClientSecretValid(service, null));
+    }
+
+    @Test
+    public void verifyIndexRebuiltOnServiceSaved() {
+        assertNull(this.index.getService("other"));
+        final OAuthRegisteredService other = newOAuthService(1001, "other", "secret", "https://other\\.example\\.org/.*");
+        this.services.add(other);
+        this.index.onApplicationEvent(new CasRegisteredServiceSavedEvent(this, other));
+        assertSame(other, this.index.getService("other"));
+        verify(this.servicesManager, times(2)).getAllServices();
+    }
+
+    private static OAuthRegisteredService newOAuthService(final long id, final String clientId,
+                                                          final String secret, final String serviceId) {
+        final OAuthRegisteredService service = new OAuthRegisteredService();
+        service.setId(id);
+        service.setClientId(clientId);
+        service.setClientSecret(secret);
+        service.setServiceId(serviceId);
+        return service;
+    }
+}
@@ -0,0 +1,117 @@
+package org.jasig.cas.support.oauth.web;
+
+import org.jasig.cas.authentication.TestUtils;
+import org.jasig.cas.authentication.principal.DefaultPrincipalFactory;
+import org.jasig.cas.authentication.principal.Principal;
+import org.jasig.cas.authentication.principal.WebApplicationServiceFactory;
+import org.jasig.cas.support.events.CasTicketGrantingTicketDestroyedEvent;
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.ticket.TicketGrantingTicketImpl;
+import org.jasig.cas.ticket.support.NeverExpiresExpirationPolicy;
+import org.jasig.cas.util.DefaultCipherExecutor;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link SignedAccessTokenGenerator}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class SignedAccessTokenGeneratorTests {
+
+    private static final String ENCRYPTION_KEY = "1PbwSbnHeinpkZOSZjuSJ8yYpUrInm5aaV18J2Ar4rM";
+
+    private static final String SIGNING_KEY =
+            "szxK-5_eJjs-aUj-64MpUZ-GPPzGLhYPLGl0wrYjYNVAGva2P0lLe6UGKGM7k8dWxsOVGutZWgvmY3l5oVPO3w";
+
+    private static final long TIME_TO_KILL = 3600;
+
+    private static final long MAX_TIME_TO_LIVE = 86400;
+
+    private final SignedAccessTokenGenerator generator = new SignedAccessTokenGenerator(
+            new DefaultCipherExecutor(ENCRYPTION_KEY, SIGNING_KEY),
+            new WebApplicationServiceFactory(), new DefaultPrincipalFactory(), 7200);
+
+    @Test
+    public void verifyTokenRoundTrip() {
+        final Principal principal = TestUtils.getPrincipal("casuser",
+                Collections.<String, Object>singletonMap("email", "casuser@example.org"));
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-1", null, null,
+                TestUtils.getAuthentication(principal), new NeverExpiresExpirationPolicy());
+
+        final String accessToken = this.generator.generate(new WebApplicationServiceFactory().createService("10"), tgt);
+        final SignedAccessToken token = this.generator.decode(accessToken);
+
+        assertEquals("TGT-1", token.getTicketGrantingTicketId());
+        assertEquals("10", token.getService().getId());
+        assertEquals("casuser", token.getPrincipal().getId());
+        assertEquals("casuser@example.org", token.getPrincipal().getAttributes().get("email"));
+        assertFalse(token.isExpired());
+        assertEquals("TGT-1", this.generator.degenerate(accessToken).getFirst());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyTamperedToken() {
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-2", null, null,
+                TestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+        final String accessToken = this.generator.generate(new WebApplicationServiceFactory().createService("10"), tgt);
+        this.generator.decode(accessToken.substring(0, accessToken.length() - 2) + "AA");
+    }
+
+    @Test
+    public void verifyRevocationOnDestroyedTicket() {
+        final TicketGrantingTicket tgt = new TicketGrantingTicketImpl("TGT-3", null, null,
+                TestUtils.getAuthentication(), new NeverExpiresExpirationPolicy());
+        assertFalse(this.generator.mightBeRevoked(tgt.getId()));
+        this.generator.onApplicationEvent(new CasTicketGrantingTicketDestroyedEvent(this, tgt));
+        assertTrue(this.generator.mightBeRevoked(tgt.getId()));
+    }
+
+    @Test
+    public void verifyTokenForTicketOlderThanTimeToKillIsValid() {
+        final SignedAccessTokenGenerator capped = newCappedGenerator();
+        final long now = System.currentTimeMillis();
+        final TicketGrantingTicket tgt = mockTicketGrantingTicket("TGT-4", now - TimeUnit.SECONDS.toMillis(2 * TIME_TO_KILL));
+
+        final SignedAccessToken token = capped.decode(
+                capped.generate(new WebApplicationServiceFactory().createService("10"), tgt));
+        assertFalse(token.isExpired());
+        assertTrue(token.getExpirationTime() >= now + TimeUnit.SECONDS.toMillis(TIME_TO_KILL));
+    }
+
+    @Test
+    public void verifyTokenDoesNotOutliveTicket() {
+        final SignedAccessTokenGenerator capped = newCappedGenerator();
+        final long creationTime = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(MAX_TIME_TO_LIVE - 60);
+        final TicketGrantingTicket tgt = mockTicketGrantingTicket("TGT-5", creationTime);
+
+        final SignedAccessToken token = capped.decode(
+                capped.generate(new WebApplicationServiceFactory().createService("10"), tgt));
+        assertEquals(creationTime + TimeUnit.SECONDS.toMillis(MAX_TIME_TO_LIVE), token.getExpirationTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyBlankKeysAreRejected() {
+        new SignedAccessTokenGenerator(ENCRYPTION_KEY, "", new WebApplicationServiceFactory(),
+                new DefaultPrincipalFactory(), TIME_TO_KILL, MAX_TIME_TO_LIVE);
+    }
+
+    private static SignedAccessTokenGenerator newCappedGenerator() {
+        return new SignedAccessTokenGenerator(ENCRYPTION_KEY, SIGNING_KEY, new WebApplicationServiceFactory(),
+                new DefaultPrincipalFactory(), TIME_TO_KILL, MAX_TIME_TO_LIVE);
+    }
+
+    private static TicketGrantingTicket mockTicketGrantingTicket(final String id, final long creationTime) {
+        final TicketGrantingTicket tgt = mock(TicketGrantingTicket.class);
+        when(tgt.getId()).thenReturn(id);
+        when(tgt.getCreationTime()).thenReturn(creationTime);
+        when(tgt.getAuthentication()).thenReturn(TestUtils.getAuthentication());
+        return tgt;
+    }
+}
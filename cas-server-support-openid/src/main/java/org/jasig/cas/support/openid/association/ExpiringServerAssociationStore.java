@@ -0,0 +1,174 @@
+package org.jasig.cas.support.openid.association;
+
+import org.jasig.cas.ticket.Ticket;
+import org.jasig.cas.ticket.registry.TicketRegistry;
+import org.openid4java.association.Association;
+import org.openid4java.association.AssociationException;
+import org.openid4java.server.ServerAssociationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory {@link ServerAssociationStore} that keeps associations in a concurrent map
+ * and evicts them in expiry order. Unlike {@code InMemoryServerAssociationStore}, lookups are
+ * not synchronized and do not scan every association; only the associations at the head of the
+ * expiry queue are examined.
+ *
+ * <p>Associations are local to the node by default. If a {@link TicketRegistry} is defined,
+ * associations are also stored in the registry as {@link OpenIdAssociationTicket}s so that they are
+ * shared with other nodes that use the same registry backend. Associations not found locally are then
+ * loaded from the registry. The registry must accept ticket types other than ticket-granting and service
+ * tickets; the Ehcache, Ignite, Hazelcast, Memcached and JPA registries do not. Stores that must observe
+ * removals made by other nodes, such as the private association store used to verify signatures,
+ * should turn off {@link #setCacheRegistryLookups(boolean)}.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class ExpiringServerAssociationStore implements ServerAssociationStore {
+
+    private static final int HANDLE_PREFIX_BITS = 64;
+
+    private static final int HEX_RADIX = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<String, Association> associations = new ConcurrentHashMap<>();
+
+    private final PriorityBlockingQueue<ExpiringHandle> expirations = new PriorityBlockingQueue<>();
+
+    private final String handlePrefix = new BigInteger(HANDLE_PREFIX_BITS, new SecureRandom()).toString(HEX_RADIX);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private TicketRegistry ticketRegistry;
+
+    private boolean cacheRegistryLookups = true;
+
+    @Override
+    public Association generate(final String type, final int expiryIn) throws AssociationException {
+        removeExpired();
+
+        final String handle = this.handlePrefix + '-' + Long.toHexString(System.currentTimeMillis())
+                + '-' + this.counter.incrementAndGet();
+        final Association association = Association.generate(type, handle, expiryIn);
+
+        if (this.ticketRegistry != null) {
+            this.ticketRegistry.addTicket(new OpenIdAssociationTicket(association));
+        }
+        if (this.ticketRegistry == null || this.cacheRegistryLookups) {
+            cache(association);
+        }
+        logger.debug("Generated association [{}] of type {} expiring in {} seconds", handle, type, expiryIn);
+        return association;
+    }
+
+    @Override
+    public Association load(final String handle) {
+        removeExpired();
+
+        Association association = this.associations.get(handle);
+        if (association == null && this.ticketRegistry != null) {
+            final Ticket ticket = this.ticketRegistry.getTicket(OpenIdAssociationTicket.getTicketId(handle));
+            if (ticket instanceof OpenIdAssociationTicket && !ticket.isExpired()) {
+                association = ((OpenIdAssociationTicket) ticket).getAssociation();
+                if (this.cacheRegistryLookups) {
+                    cache(association);
+                }
+            }
+        }
+
+        if (association != null && association.hasExpired()) {
+            return null;
+        }
+        return association;
+    }
+
+    @Override
+    public void remove(final String handle) {
+        this.associations.remove(handle);
+        if (this.ticketRegistry != null) {
+            this.ticketRegistry.deleteTicket(OpenIdAssociationTicket.getTicketId(handle));
+        }
+    }
+
+    /**
+     * Sets the ticket registry used to share associations across nodes.
+     *
+     * @param ticketRegistry the ticket registry
+     */
+    public void setTicketRegistry(final TicketRegistry ticketRegistry) {
+        this.ticketRegistry = ticketRegistry;
+    }
+
+    /**
+     * Sets whether associations stored in the ticket registry are also kept locally.
+     * Defaults to true.
+     *
+     * @param cacheRegistryLookups true to keep a local copy of registry associations
+     */
+    public void setCacheRegistryLookups(final boolean cacheRegistryLookups) {
+        this.cacheRegistryLookups = cacheRegistryLookups;
+    }
+
+    /**
+     * Gets the number of associations held locally.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.associations.size();
+    }
+
+    private void cache(final Association association) {
+        this.associations.put(association.getHandle(), association);
+        this.expirations.offer(new ExpiringHandle(association));
+    }
+
+    /**
+     * Evict associations whose expiry has passed, starting with the earliest.
+     */
+    private void removeExpired() {
+        final long now = System.currentTimeMillis();
+        ExpiringHandle head = this.expirations.peek();
+        while (head != null && head.expiry <= now) {
+            final ExpiringHandle expired = this.expirations.poll();
+            if (expired == null) {
+                break;
+            }
+            if (expired.expiry > now) {
+                // another thread evicted the head concurrently; put back what is still valid
+                this.expirations.offer(expired);
+                break;
+            }
+            this.associations.remove(expired.association.getHandle(), expired.association);
+            logger.trace("Removed expired association [{}]", expired.association.getHandle());
+            head = this.expirations.peek();
+        }
+    }
+
+    /**
+     * Queue entry ordering associations by expiry.
+     */
+    private static final class ExpiringHandle implements Comparable<ExpiringHandle> {
+        private final Association association;
+        private final long expiry;
+
+        ExpiringHandle(final Association association) {
+            this.association = association;
+            this.expiry = association.getExpiry().getTime();
+        }
+
+        @Override
+        public int compareTo(final ExpiringHandle other) {
+            return Long.compare(this.expiry, other.expiry);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.jasig.cas.support.openid.association;
+
+import org.jasig.cas.ticket.Ticket;
+import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.openid4java.association.Association;
+
+/**
+ * Wraps an OpenID {@link Association} so that it can be stored in,
+ * and shared across nodes through, the configured ticket registry.
+ * The ticket expires along with the association.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class OpenIdAssociationTicket implements Ticket {
+
+    /** Prefix of association ticket ids. */
+    public static final String PREFIX = "OIDA";
+
+    private static final long serialVersionUID = -1781935211264498441L;
+
+    private final String id;
+
+    private final Association association;
+
+    private final long creationTime;
+
+    /**
+     * Instantiates a new association ticket.
+     *
+     * @param association the association
+     */
+    public OpenIdAssociationTicket(final Association association) {
+        this.id = getTicketId(association.getHandle());
+        this.association = association;
+        this.creationTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the ticket id that holds the association with the given handle.
+     *
+     * @param handle the association handle
+     * @return the ticket id
+     */
+    public static String getTicketId(final String handle) {
+        return PREFIX + '-' + handle;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public boolean isExpired() {
+        return this.association.hasExpired();
+    }
+
+    @Override
+    public TicketGrantingTicket getGrantingTicket() {
+        return null;
+    }
+
+    @Override
+    public long getCreationTime() {
+        return this.creationTime;
+    }
+
+    @Override
+    public int getCountOfUses() {
+        return 0;
+    }
+
+    public Association getAssociation() {
+        return this.association;
+    }
+}
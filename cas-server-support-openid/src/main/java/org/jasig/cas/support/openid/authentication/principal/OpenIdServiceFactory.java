@@ -1,9 +1,12 @@
 package org.jasig.cas.support.openid.authentication.principal;
 
+import org.jasig.cas.CentralAuthenticationService;
 import org.jasig.cas.authentication.principal.AbstractServiceFactory;
 import org.jasig.cas.support.openid.OpenIdProtocolConstants;
 import org.openid4java.message.ParameterList;
+import org.openid4java.server.ServerManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -31,6 +34,14 @@ public class OpenIdServiceFactory extends AbstractServiceFactory<OpenIdService>
     @Autowired
     private ApplicationContext applicationContext;
 
+    @Autowired(required = false)
+    @Qualifier("serverManager")
+    private ServerManager serverManager;
+
+    @Autowired(required = false)
+    @Qualifier("centralAuthenticationService")
+    private CentralAuthenticationService centralAuthenticationService;
+
     public String getOpenIdPrefixUrl() {
         return openIdPrefixUrl;
     }
@@ -54,7 +65,7 @@ public class OpenIdServiceFactory extends AbstractServiceFactory<OpenIdService>
 
 
         final OpenIdServiceResponseBuilder builder = new OpenIdServiceResponseBuilder(
-                paramList, this.openIdPrefixUrl);
+                paramList, this.openIdPrefixUrl, this.serverManager, this.centralAuthenticationService);
 
         return new OpenIdService(id, service, artifactId, openIdIdentity, builder);
     }
@@ -63,7 +74,7 @@ public class OpenIdServiceFactory extends AbstractServiceFactory<OpenIdService>
     public OpenIdService createService(final String id) {
         final ParameterList paramList = new ParameterList();
         final OpenIdServiceResponseBuilder builder = new OpenIdServiceResponseBuilder(
-                paramList, this.openIdPrefixUrl);
+                paramList, this.openIdPrefixUrl, this.serverManager, this.centralAuthenticationService);
         return new OpenIdService(id, id, null, this.openIdPrefixUrl, builder);
     }
 }
@@ -32,6 +32,13 @@ public class OpenIdServiceResponseBuilder extends AbstractWebApplicationServiceR
     private final ParameterList parameterList;
     private final String openIdPrefixUrl;
 
+    /*
+     * Neither is serializable. They are injected by the service factory and only
+     * looked up from the application context once if this builder was deserialized.
+     */
+    private transient ServerManager serverManager;
+    private transient CentralAuthenticationService centralAuthenticationService;
+
     /**
      * Instantiates a new Open id service response builder.
      * @param parameterList the parameter list
@@ -39,8 +46,24 @@ public class OpenIdServiceResponseBuilder extends AbstractWebApplicationServiceR
      */
     public OpenIdServiceResponseBuilder(final ParameterList parameterList,
                                         final String openIdPrefixUrl) {
+        this(parameterList, openIdPrefixUrl, null, null);
+    }
+
+    /**
+     * Instantiates a new Open id service response builder.
+     * @param parameterList the parameter list
+     * @param openIdPrefixUrl the open id prefix url
+     * @param serverManager the server manager
+     * @param centralAuthenticationService the central authentication service
+     */
+    public OpenIdServiceResponseBuilder(final ParameterList parameterList,
+                                        final String openIdPrefixUrl,
+                                        final ServerManager serverManager,
+                                        final CentralAuthenticationService centralAuthenticationService) {
         this.parameterList = parameterList;
         this.openIdPrefixUrl = openIdPrefixUrl;
+        this.serverManager = serverManager;
+        this.centralAuthenticationService = centralAuthenticationService;
     }
 
     /**
@@ -56,11 +79,8 @@ public class OpenIdServiceResponseBuilder extends AbstractWebApplicationServiceR
      */
     @Override
     public Response build(final WebApplicationService webApplicationService, final String ticketId) {
-        final ServerManager serverManager = ApplicationContextProvider.getApplicationContext()
-                .getBean("serverManager", ServerManager.class);
-        final CentralAuthenticationService centralAuthenticationService = ApplicationContextProvider
-                .getApplicationContext().getBean("centralAuthenticationService",
-                CentralAuthenticationService.class);
+        final ServerManager serverManager = getServerManager();
+        final CentralAuthenticationService centralAuthenticationService = getCentralAuthenticationService();
 
         final OpenIdService service = (OpenIdService) webApplicationService;
 
@@ -73,7 +93,7 @@ public class OpenIdServiceResponseBuilder extends AbstractWebApplicationServiceR
 
         final Association association = getAssociation(serverManager);
         final boolean associated = association != null;
-        final boolean associationValid = isAssociationValid(association);
+        final boolean associationValid = associated && isAssociationValid(association);
         boolean successFullAuthentication = true;
 
         Assertion assertion = null;
@@ -164,6 +184,22 @@ public class OpenIdServiceResponseBuilder extends AbstractWebApplicationServiceR
         return null;
     }
 
+    private ServerManager getServerManager() {
+        if (this.serverManager == null) {
+            this.serverManager = ApplicationContextProvider.getApplicationContext()
+                    .getBean("serverManager", ServerManager.class);
+        }
+        return this.serverManager;
+    }
+
+    private CentralAuthenticationService getCentralAuthenticationService() {
+        if (this.centralAuthenticationService == null) {
+            this.centralAuthenticationService = ApplicationContextProvider.getApplicationContext()
+                    .getBean("centralAuthenticationService", CentralAuthenticationService.class);
+        }
+        return this.centralAuthenticationService;
+    }
+
     /**
      * Is association valid.
      *
@@ -1,5 +1,6 @@
 package org.jasig.cas.support.openid;
 
+import org.jasig.cas.support.openid.association.ExpiringServerAssociationStoreTests;
 import org.jasig.cas.support.openid.authentication.handler.support.OpenIdCredentialsAuthenticationHandlerTests;
 import org.jasig.cas.support.openid.authentication.principal.OpenIdServiceFactoryTests;
 import org.jasig.cas.support.openid.authentication.principal.OpenIdServiceTests;
@@ -22,6 +23,6 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({OpenIdPostUrlHandlerMappingTests.class, DefaultOpenIdUserNameExtractorTests.class,
         SmartOpenIdControllerTest.class, OpenIdSingleSignOnActionTests.class,
         OpenIdCredentialsAuthenticationHandlerTests.class, OpenIdServiceFactoryTests.class,
-        OpenIdServiceTests.class})
+        OpenIdServiceTests.class, ExpiringServerAssociationStoreTests.class})
 public class AllTestsSuite {
 }
@@ -0,0 +1,55 @@
+package org.jasig.cas.support.openid.association;
+
+import org.jasig.cas.ticket.registry.DefaultTicketRegistry;
+import org.jasig.cas.ticket.registry.TicketRegistry;
+import org.junit.Test;
+import org.openid4java.association.Association;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ExpiringServerAssociationStore}.
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class ExpiringServerAssociationStoreTests {
+
+    @Test
+    public void verifyGenerateAndLoad() throws Exception {
+        final ExpiringServerAssociationStore store = new ExpiringServerAssociationStore();
+        final Association association = store.generate(Association.TYPE_HMAC_SHA1, 60);
+        assertSame(association, store.load(association.getHandle()));
+
+        store.remove(association.getHandle());
+        assertNull(store.load(association.getHandle()));
+    }
+
+    @Test
+    public void verifyExpiredAssociationsEvicted() throws Exception {
+        final ExpiringServerAssociationStore store = new ExpiringServerAssociationStore();
+        final Association expiring = store.generate(Association.TYPE_HMAC_SHA1, 1);
+        final Association lasting = store.generate(Association.TYPE_HMAC_SHA1, 60);
+        Thread.sleep(1500);
+
+        assertNull(store.load(expiring.getHandle()));
+        assertNotNull(store.load(lasting.getHandle()));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void verifyAssociationsSharedThroughRegistry() throws Exception {
+        final TicketRegistry registry = new DefaultTicketRegistry();
+        final ExpiringServerAssociationStore node1 = new ExpiringServerAssociationStore();
+        node1.setTicketRegistry(registry);
+        final ExpiringServerAssociationStore node2 = new ExpiringServerAssociationStore();
+        node2.setTicketRegistry(registry);
+        node2.setCacheRegistryLookups(false);
+
+        final Association association = node1.generate(Association.TYPE_HMAC_SHA256, 60);
+        assertEquals(association.getHandle(), node2.load(association.getHandle()).getHandle());
+        assertEquals(0, node2.size());
+
+        node1.remove(association.getHandle());
+        assertNull(node2.load(association.getHandle()));
+    }
+}
@@ -1,8 +1,12 @@
 package org.jasig.cas.support.pac4j.web.flow;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang3.StringUtils;
 import org.jasig.cas.CasProtocolConstants;
@@ -22,7 +26,6 @@ import org.pac4j.core.client.BaseClient;
 import org.pac4j.core.client.Client;
 import org.pac4j.core.client.Clients;
 import org.pac4j.core.client.ClientType;
-import org.pac4j.core.client.IndirectClient;
 import org.pac4j.core.context.J2EContext;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.Credentials;
@@ -30,6 +33,7 @@ import org.pac4j.core.exception.RequiresHttpAction;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.ProfileHelper;
+import org.pac4j.core.util.CommonHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,8 +55,10 @@ import javax.validation.constraints.NotNull;
 /**
  * This class represents an action to put at the beginning of the webflow.
  * <p>
- * Before any authentication, redirection urls are computed for the different clients defined as well as the theme,
- * locale, method and service are saved into the web session.</p>
+ * Before any authentication, entry urls are listed for the different clients defined as well as the theme,
+ * locale, method and service are saved into the web session. An entry url leads back to this action, which only then
+ * asks the selected client for its redirection url, so that authorization requests are never built for the clients
+ * the user does not pick.</p>
  * After authentication, appropriate information are expected on this callback url to finish the authentication
  * process with the provider.
  * @author Jerome Leleu
@@ -66,6 +72,20 @@ public final class ClientAction extends AbstractAction {
      */
     public static final String PAC4J_URLS = "pac4jUrls";
 
+    /**
+     * The pac4j parameter asking an indirect client to redirect to its identity provider.
+     */
+    public static final String NEEDS_CLIENT_REDIRECTION_PARAMETER = "needs_client_redirection";
+
+    private static final int DEFAULT_HTTP_PORT = 80;
+
+    private static final int DEFAULT_HTTPS_PORT = 443;
+
+    /**
+     * Maximum number of distinct callback urls whose client entry urls are cached.
+     */
+    private static final int MAX_CACHED_CALLBACK_URLS = 100;
+
     /**
      * Supported protocols.
      */
@@ -97,6 +117,13 @@ public final class ClientAction extends AbstractAction {
     @Autowired
     private CentralAuthenticationService centralAuthenticationService;
 
+    /**
+     * Client entry urls, by the callback url they are built on. The callback url may be derived
+     * from the request host, so the number of cached entries is bounded.
+     */
+    private final Cache<String, Map<String, String>> clientUrls =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_CALLBACK_URLS).build();
+
     static {
         ProfileHelper.setKeepRawData(true);
     }
@@ -183,12 +210,8 @@ public final class ClientAction extends AbstractAction {
      */
     protected void prepareForLoginPage(final RequestContext context) {
         final HttpServletRequest request = WebUtils.getHttpServletRequest(context);
-        final HttpServletResponse response = WebUtils.getHttpServletResponse(context);
         final HttpSession session = request.getSession();
 
-        // web context
-        final WebContext webContext = new J2EContext(request, response);
-
         // save parameters in web session
         final WebApplicationService service = WebUtils.getService(context);
         logger.debug("save service: {}", service);
@@ -197,17 +220,56 @@ public final class ClientAction extends AbstractAction {
         saveRequestParameter(request, session, LocaleChangeInterceptor.DEFAULT_PARAM_NAME);
         saveRequestParameter(request, session, CasProtocolConstants.PARAMETER_METHOD);
 
+        final String callbackUrl = getCallbackUrl(request);
+        Map<String, String> urls = this.clientUrls.getIfPresent(callbackUrl);
+        if (urls == null) {
+            urls = buildClientUrls(callbackUrl);
+            this.clientUrls.put(callbackUrl, urls);
+        }
+        context.getFlowScope().put(PAC4J_URLS, urls);
+    }
+
+    /**
+     * Build the entry urls of all clients. Each url leads back to the callback url, where the client
+     * builds its actual redirection to the identity provider when it is selected.
+     *
+     * @param callbackUrl the absolute callback url
+     * @return the entry urls by client display name
+     */
+    private Map<String, String> buildClientUrls(final String callbackUrl) {
         final LinkedHashMap<String, String> urls = new LinkedHashMap<>();
-        // for all clients, generate redirection urls
         for (final Client client : this.clients.findAllClients()) {
-            final IndirectClient indirectClient = (IndirectClient) client;
             // clean Client suffix for default names
             final String name = client.getName().replace("Client", "");
-            final String redirectionUrl = indirectClient.getRedirectionUrl(webContext);
-            logger.debug("{} -> {}", name, redirectionUrl);
-            urls.put(name, redirectionUrl);
+            String url = CommonHelper.addParameter(callbackUrl, this.clients.getClientNameParameter(), client.getName());
+            url = CommonHelper.addParameter(url, NEEDS_CLIENT_REDIRECTION_PARAMETER, "true");
+            logger.debug("{} -> {}", name, url);
+            urls.put(name, url);
         }
-        context.getFlowScope().put(PAC4J_URLS, urls);
+        return Collections.unmodifiableMap(urls);
+    }
+
+    /**
+     * Resolve the callback url of the clients against the current request if it is relative.
+     *
+     * @param request the HTTP request
+     * @return the absolute callback url
+     */
+    private String getCallbackUrl(final HttpServletRequest request) {
+        final String callbackUrl = this.clients.getCallbackUrl();
+        if (callbackUrl.startsWith("http://") || callbackUrl.startsWith("https://")) {
+            return callbackUrl;
+        }
+        final StringBuilder builder = new StringBuilder(request.getScheme()).append("://").append(request.getServerName());
+        final int port = request.getServerPort();
+        if (!("http".equals(request.getScheme()) && port == DEFAULT_HTTP_PORT)
+                && !("https".equals(request.getScheme()) && port == DEFAULT_HTTPS_PORT)) {
+            builder.append(':').append(port);
+        }
+        if (!callbackUrl.startsWith("/")) {
+            builder.append('/');
+        }
+        return builder.append(callbackUrl).toString();
     }
 
     /**
@@ -244,6 +306,7 @@ public final class ClientAction extends AbstractAction {
 
     public void setClients(final Clients clients) {
         this.clients = clients;
+        this.clientUrls.invalidateAll();
     }
 
     public CentralAuthenticationService getCentralAuthenticationService() {
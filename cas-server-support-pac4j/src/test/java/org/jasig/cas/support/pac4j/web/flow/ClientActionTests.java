@@ -19,9 +19,11 @@ import org.pac4j.http.client.indirect.IndirectBasicAuthClient;
 import org.pac4j.oauth.client.FacebookClient;
 import org.pac4j.oauth.client.TwitterClient;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.theme.ThemeChangeInterceptor;
+import org.springframework.webflow.context.ExternalContextHolder;
 import org.springframework.webflow.context.servlet.ServletExternalContext;
 import org.springframework.webflow.core.collection.MutableAttributeMap;
 import org.springframework.webflow.execution.Event;
@@ -90,13 +92,43 @@ public final class ClientActionTests {
         assertEquals(MY_METHOD, mockSession.getAttribute(CasProtocolConstants.PARAMETER_METHOD));
         final MutableAttributeMap flowScope = mockRequestContext.getFlowScope();
         final Map<String, String> urls = (Map<String, String>) flowScope.get(ClientAction.PAC4J_URLS);
-        assertTrue((urls.get("Facebook"))
-                .startsWith("https://www.facebook.com/v2.2/dialog/oauth?client_id=my_key&redirect_uri=http%3A%2F%2Fcasserver%2Flogin%3F"
-                        + Clients.DEFAULT_CLIENT_NAME_PARAMETER + "%3DFacebookClient&state="));
+        assertEquals(MY_LOGIN_URL + '?' + Clients.DEFAULT_CLIENT_NAME_PARAMETER
+                + "=FacebookClient&needs_client_redirection=true", urls.get("Facebook"));
         assertEquals(MY_LOGIN_URL + '?' + Clients.DEFAULT_CLIENT_NAME_PARAMETER
                 + "=TwitterClient&needs_client_redirection=true", urls.get("Twitter"));
     }
 
+    @Test
+    public void verifyRedirectionToSelectedClient() throws Exception {
+        final MockHttpServletRequest mockRequest = new MockHttpServletRequest();
+        mockRequest.setParameter(Clients.DEFAULT_CLIENT_NAME_PARAMETER, "FacebookClient");
+        mockRequest.setParameter(ClientAction.NEEDS_CLIENT_REDIRECTION_PARAMETER, "true");
+        final MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+
+        final ServletExternalContext servletExternalContext = mock(ServletExternalContext.class);
+        when(servletExternalContext.getNativeRequest()).thenReturn(mockRequest);
+        when(servletExternalContext.getNativeResponse()).thenReturn(mockResponse);
+        ExternalContextHolder.setExternalContext(servletExternalContext);
+
+        final MockRequestContext mockRequestContext = new MockRequestContext();
+        mockRequestContext.setExternalContext(servletExternalContext);
+
+        final Clients clients = new Clients(MY_LOGIN_URL, new FacebookClient(MY_KEY, MY_SECRET));
+        final ClientAction action = new ClientAction();
+        action.setCentralAuthenticationService(mock(CentralAuthenticationService.class));
+        action.setClients(clients);
+
+        try {
+            final Event event = action.execute(mockRequestContext);
+            assertEquals("stop", event.getId());
+            assertTrue(mockResponse.getHeader("Location")
+                    .startsWith("https://www.facebook.com/v2.2/dialog/oauth?client_id=my_key&redirect_uri=http%3A%2F%2Fcasserver%2Flogin%3F"
+                            + Clients.DEFAULT_CLIENT_NAME_PARAMETER + "%3DFacebookClient&state="));
+        } finally {
+            ExternalContextHolder.setExternalContext(null);
+        }
+    }
+
     @Test
     public void verifyFinishAuthentication() throws Exception {
         final MockHttpServletRequest mockRequest = new MockHttpServletRequest();
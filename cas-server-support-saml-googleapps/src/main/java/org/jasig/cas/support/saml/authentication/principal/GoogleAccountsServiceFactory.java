@@ -5,10 +5,10 @@ import org.jasig.cas.authentication.principal.AbstractServiceFactory;
 import org.jasig.cas.services.ServicesManager;
 import org.jasig.cas.support.saml.SamlProtocolConstants;
 import org.jasig.cas.support.saml.util.GoogleSaml20ObjectBuilder;
+import org.jasig.cas.support.saml.util.GoogleSamlAuthnRequestParser;
+import org.jasig.cas.support.saml.util.GoogleSamlAuthnRequestParser.ParsedAuthnRequest;
 import org.jasig.cas.util.PrivateKeyFactoryBean;
 import org.jasig.cas.util.PublicKeyFactoryBean;
-import org.jdom.Document;
-import org.jdom.Element;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,9 +16,9 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ResourceUtils;
-import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
 import java.security.PrivateKey;
@@ -38,6 +38,8 @@ public class GoogleAccountsServiceFactory extends AbstractServiceFactory<GoogleA
 
     private PrivateKey privateKey;
 
+    /** Shared by all services created by this factory, since it holds no per-request state. */
+    private GoogleAccountsServiceResponseBuilder responseBuilder;
 
     @NotNull
     @Autowired
@@ -70,11 +72,20 @@ public class GoogleAccountsServiceFactory extends AbstractServiceFactory<GoogleA
         try {
             createGoogleAppsPrivateKey();
             createGoogleAppsPublicKey();
+            createResponseBuilder();
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Release the native memory held by the pooled request inflaters.
+     */
+    @PreDestroy
+    public void destroy() {
+        GoogleSamlAuthnRequestParser.clearPool();
+    }
+
     @Override
     public GoogleAccountsService createService(final HttpServletRequest request) {
 
@@ -86,28 +97,16 @@ public class GoogleAccountsServiceFactory extends AbstractServiceFactory<GoogleA
 
         final String relayState = request.getParameter(SamlProtocolConstants.PARAMETER_SAML_RELAY_STATE);
 
-        final String xmlRequest = BUILDER.decodeSamlAuthnRequest(
+        final ParsedAuthnRequest authnRequest = GoogleSamlAuthnRequestParser.parse(
                 request.getParameter(SamlProtocolConstants.PARAMETER_SAML_REQUEST));
 
-        if (!StringUtils.hasText(xmlRequest)) {
+        if (authnRequest == null) {
             logger.trace("SAML AuthN request not found in the request");
             return null;
         }
 
-        final Document document = BUILDER.constructDocumentFromXml(xmlRequest);
-
-        if (document == null) {
-            return null;
-        }
-
-        final Element root = document.getRootElement();
-        final String assertionConsumerServiceUrl = root.getAttributeValue("AssertionConsumerServiceURL");
-        final String requestId = root.getAttributeValue("ID");
-
-        final GoogleAccountsServiceResponseBuilder builder =
-            new GoogleAccountsServiceResponseBuilder(this.privateKey, this.publicKey, BUILDER);
-        builder.setSkewAllowance(this.skewAllowance);
-        return new GoogleAccountsService(assertionConsumerServiceUrl, relayState, requestId, builder);
+        return new GoogleAccountsService(authnRequest.getAssertionConsumerServiceUrl(), relayState,
+                authnRequest.getRequestId(), this.responseBuilder);
     }
 
     @Override
@@ -180,6 +179,18 @@ public class GoogleAccountsServiceFactory extends AbstractServiceFactory<GoogleA
         this.publicKey = bean.getObject();
     }
 
+    /**
+     * Create the response builder shared by all services.
+     */
+    private void createResponseBuilder() {
+        if (this.publicKey != null && this.privateKey != null) {
+            final GoogleAccountsServiceResponseBuilder builder =
+                    new GoogleAccountsServiceResponseBuilder(this.privateKey, this.publicKey, BUILDER);
+            builder.setSkewAllowance(this.skewAllowance);
+            this.responseBuilder = builder;
+        }
+    }
+
     private boolean isValidConfiguration() {
         return org.apache.commons.lang3.StringUtils.isNotBlank(this.privateKeyLocation)
                 || org.apache.commons.lang3.StringUtils.isNotBlank(this.publicKeyLocation)
@@ -188,5 +199,6 @@ public class GoogleAccountsServiceFactory extends AbstractServiceFactory<GoogleA
 
     public void setSkewAllowance(final int skewAllowance) {
         this.skewAllowance = skewAllowance;
+        createResponseBuilder();
     }
 }
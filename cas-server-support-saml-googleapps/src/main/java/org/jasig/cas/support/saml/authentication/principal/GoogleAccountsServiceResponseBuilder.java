@@ -59,8 +59,7 @@ public class GoogleAccountsServiceResponseBuilder extends AbstractWebApplication
         final GoogleAccountsService service = (GoogleAccountsService) webApplicationService;
 
         final Map<String, String> parameters = new HashMap<>();
-        final String samlResponse = constructSamlResponse(service);
-        final String signedResponse = samlObjectBuilder.signSamlResponse(samlResponse,
+        final String signedResponse = samlObjectBuilder.signSamlResponse(buildSamlResponse(service),
             this.privateKey, this.publicKey);
         parameters.put(SamlProtocolConstants.PARAMETER_SAML_RESPONSE, signedResponse);
         parameters.put(SamlProtocolConstants.PARAMETER_SAML_RELAY_STATE, service.getRelayState());
@@ -75,6 +74,21 @@ public class GoogleAccountsServiceResponseBuilder extends AbstractWebApplication
      * @return the SAML response
      */
     protected String constructSamlResponse(final GoogleAccountsService service) {
+        final StringWriter writer = new StringWriter();
+        samlObjectBuilder.marshalSamlXmlObject(buildSamlResponse(service), writer);
+
+        final String result = writer.toString();
+        logger.debug("Generated Google SAML response: {}", result);
+        return result;
+    }
+
+    /**
+     * Build the unsigned SAML response object.
+     *
+     * @param service the service
+     * @return the SAML response
+     */
+    protected org.opensaml.saml.saml2.core.Response buildSamlResponse(final GoogleAccountsService service) {
         final DateTime currentDateTime = new DateTime();
         final DateTime notBeforeIssueInstant = DateTime.parse("2003-04-17T00:46:02Z");
 
@@ -111,13 +125,7 @@ public class GoogleAccountsServiceResponseBuilder extends AbstractWebApplication
         assertion.setSubject(subject);
 
         response.getAssertions().add(assertion);
-
-        final StringWriter writer = new StringWriter();
-        samlObjectBuilder.marshalSamlXmlObject(response, writer);
-
-        final String result = writer.toString();
-        logger.debug("Generated Google SAML response: {}", result);
-        return result;
+        return response;
     }
 
     /**
@@ -1,24 +1,73 @@
 package org.jasig.cas.support.saml.util;
 
+import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
+import org.opensaml.core.xml.io.Marshaller;
 import org.opensaml.saml.common.xml.SAMLConstants;
 import org.opensaml.saml.saml2.core.Response;
 import org.opensaml.saml.saml2.core.Status;
 import org.opensaml.saml.saml2.core.StatusCode;
+import org.w3c.dom.Element;
 
 import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
 import javax.xml.namespace.QName;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This is {@link org.jasig.cas.support.saml.util.GoogleSaml20ObjectBuilder} that
  * attempts to build the saml response. QName based on the spec described here:
  * https://developers.google.com/google-apps/sso/saml_reference_implementation_web#samlReferenceImplementationWebSetupChangeDomain
+ *
+ * <p>Responses are signed directly on the DOM produced by the OpenSAML marshaller.
+ * The signature algorithms, transforms and key info for each key pair are prepared once
+ * and shared across all responses signed with that key.</p>
+ *
  * @author Misagh Moayyed mmoayyed@unicon.net
  * @since 4.1.0
  */
 public class GoogleSaml20ObjectBuilder extends AbstractSaml20ObjectBuilder {
     private static final long serialVersionUID = 2979638064754730668L;
 
+    private static final String XMLNS_NAMESPACE = "http://www.w3.org/2000/xmlns/";
+
+    private static final ConcurrentMap<PublicKey, SigningContext> SIGNING_CONTEXTS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<Transformer>() {
+        @Override
+        protected Transformer initialValue() {
+            try {
+                return TransformerFactory.newInstance().newTransformer();
+            } catch (final TransformerConfigurationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
     @Override
     public final QName getSamlObjectQName(final Class objectType) throws RuntimeException {
         try {
@@ -34,4 +83,100 @@ public class GoogleSaml20ObjectBuilder extends AbstractSaml20ObjectBuilder {
             throw new IllegalStateException("Cannot access field " + objectType.getName() + '.' + DEFAULT_ELEMENT_LOCAL_NAME_FIELD);
         }
     }
+
+    /**
+     * Marshal and sign the SAML response in one pass over the DOM,
+     * avoiding the string/JDOM round trips of {@link #signSamlResponse(String, PrivateKey, PublicKey)}.
+     *
+     * @param response the SAML response
+     * @param privateKey the private key
+     * @param publicKey the public key
+     * @return the signed response as xml
+     */
+    public String signSamlResponse(final Response response, final PrivateKey privateKey, final PublicKey publicKey) {
+        try {
+            final Marshaller marshaller = XMLObjectProviderRegistrySupport.getMarshallerFactory().getMarshaller(response);
+            if (marshaller == null) {
+                throw new IllegalArgumentException("Cannot obtain marshaller for object " + response.getElementQName());
+            }
+            final Element element = marshaller.marshall(response);
+            element.setAttributeNS(XMLNS_NAMESPACE, "xmlns", SAMLConstants.SAML20_NS);
+            element.setAttributeNS(XMLNS_NAMESPACE, "xmlns:xenc", "http://www.w3.org/2001/04/xmlenc#");
+
+            getSigningContext(publicKey).sign(element, privateKey);
+
+            final Transformer transformer = TRANSFORMER.get();
+            transformer.reset();
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            final StringWriter writer = new StringWriter();
+            transformer.transform(new DOMSource(element.getOwnerDocument()), new StreamResult(writer));
+
+            final String result = writer.toString();
+            logger.debug("Generated Google SAML response: {}", result);
+            return result;
+        } catch (final Exception e) {
+            throw new RuntimeException("Error signing SAML response: " + e.getMessage(), e);
+        }
+    }
+
+    private static SigningContext getSigningContext(final PublicKey publicKey) throws Exception {
+        SigningContext context = SIGNING_CONTEXTS.get(publicKey);
+        if (context == null) {
+            context = new SigningContext(publicKey);
+            final SigningContext existing = SIGNING_CONTEXTS.putIfAbsent(publicKey, context);
+            if (existing != null) {
+                context = existing;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Immutable signature structures prepared for a single key pair.
+     * Only the reference and signed info, which carry per-document digest state,
+     * are created for each signature.
+     */
+    private static final class SigningContext {
+        private final XMLSignatureFactory factory;
+        private final DigestMethod digestMethod;
+        private final List<Transform> transforms;
+        private final CanonicalizationMethod canonicalizationMethod;
+        private final SignatureMethod signatureMethod;
+        private final KeyInfo keyInfo;
+
+        SigningContext(final PublicKey publicKey) throws Exception {
+            final String providerName = System.getProperty("jsr105Provider", SIGNATURE_FACTORY_PROVIDER_CLASS);
+            this.factory = XMLSignatureFactory.getInstance("DOM", (Provider) Class.forName(providerName).newInstance());
+
+            this.digestMethod = this.factory.newDigestMethod(DigestMethod.SHA1, null);
+            this.transforms = Collections.singletonList(
+                    this.factory.newTransform(Transform.ENVELOPED, (TransformParameterSpec) null));
+            this.canonicalizationMethod = this.factory.newCanonicalizationMethod(
+                    CanonicalizationMethod.INCLUSIVE_WITH_COMMENTS, (C14NMethodParameterSpec) null);
+
+            switch (publicKey.getAlgorithm()) {
+                case "DSA":
+                    this.signatureMethod = this.factory.newSignatureMethod(SignatureMethod.DSA_SHA1, null);
+                    break;
+                case "RSA":
+                    this.signatureMethod = this.factory.newSignatureMethod(SignatureMethod.RSA_SHA1, null);
+                    break;
+                default:
+                    throw new RuntimeException("Error signing SAML element: Unsupported type of key");
+            }
+
+            final KeyInfoFactory keyInfoFactory = this.factory.getKeyInfoFactory();
+            this.keyInfo = keyInfoFactory.newKeyInfo(Collections.singletonList(keyInfoFactory.newKeyValue(publicKey)));
+        }
+
+        void sign(final Element element, final PrivateKey privateKey) throws Exception {
+            final Reference reference = this.factory.newReference("", this.digestMethod, this.transforms, null, null);
+            final SignedInfo signedInfo = this.factory.newSignedInfo(this.canonicalizationMethod,
+                    this.signatureMethod, Collections.singletonList(reference));
+
+            final DOMSignContext context = new DOMSignContext(privateKey, element);
+            context.setNextSibling(getXmlSignatureInsertLocation(element));
+            this.factory.newXMLSignature(signedInfo, this.keyInfo).sign(context);
+        }
+    }
 }
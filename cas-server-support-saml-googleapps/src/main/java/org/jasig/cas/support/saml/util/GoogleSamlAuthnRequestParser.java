@@ -0,0 +1,217 @@
+package org.jasig.cas.support.saml.util;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Extracts the few attributes CAS needs from a Google Apps SAML {@code AuthnRequest}
+ * without building a document. The request is base64-decoded, inflated with inflaters and a buffer
+ * borrowed from a small pool, and only the root element is read by a StAX reader. Inflaters
+ * that do not fit back into the pool are ended, so that their native memory is released.
+ *
+ * <p>Both raw deflate (as mandated by the HTTP-Redirect binding) and zlib-wrapped
+ * payloads are accepted, which matches {@link AbstractSaml20ObjectBuilder#decodeSamlAuthnRequest(String)}.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class GoogleSamlAuthnRequestParser {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private static final int MAX_INFLATED_SIZE = 1024 * 1024;
+
+    private static final byte[] PADDING = new byte[1];
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GoogleSamlAuthnRequestParser.class);
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    private static final int POOL_SIZE = 16;
+
+    private static final BlockingQueue<InflateContext> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * Private ctor for a utility class.
+     */
+    private GoogleSamlAuthnRequestParser() {
+    }
+
+    /**
+     * Parse the encoded {@code SAMLRequest} parameter.
+     *
+     * @param encodedRequest the base64-encoded and deflated request
+     * @return the parsed request, or null if the request is missing or malformed.
+     */
+    public static ParsedAuthnRequest parse(final String encodedRequest) {
+        if (StringUtils.isEmpty(encodedRequest)) {
+            return null;
+        }
+
+        final byte[] decoded = Base64.decodeBase64(encodedRequest);
+        if (decoded == null || decoded.length == 0) {
+            return null;
+        }
+
+        InflateContext context = POOL.poll();
+        if (context == null) {
+            context = new InflateContext();
+        }
+        try {
+            int length = context.inflate(context.rawInflater, decoded);
+            if (length < 0) {
+                length = context.inflate(context.zlibInflater, decoded);
+            }
+            if (length < 0) {
+                LOGGER.trace("SAML AuthN request could not be inflated");
+                return null;
+            }
+            return readRootElement(context.buffer, length);
+        } finally {
+            release(context);
+        }
+    }
+
+    /**
+     * End the inflaters that are idle in the pool, releasing their native memory.
+     * Parsing remains possible afterwards; new inflaters are created as needed.
+     */
+    public static void clearPool() {
+        InflateContext context = POOL.poll();
+        while (context != null) {
+            context.end();
+            context = POOL.poll();
+        }
+    }
+
+    private static void release(final InflateContext context) {
+        if (context.buffer.length > MAX_POOLED_BUFFER_SIZE) {
+            context.buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+        if (!POOL.offer(context)) {
+            context.end();
+        }
+    }
+
+    private static ParsedAuthnRequest readRootElement(final byte[] xml, final int length) {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml, 0, length));
+            reader.nextTag();
+            return new ParsedAuthnRequest(
+                    reader.getAttributeValue(null, "AssertionConsumerServiceURL"),
+                    reader.getAttributeValue(null, "ID"));
+        } catch (final XMLStreamException e) {
+            LOGGER.trace("SAML AuthN request is not well-formed: {}", e.getMessage());
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (final XMLStreamException e) {
+                    LOGGER.trace(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Inflaters and output buffer used by one parse at a time.
+     */
+    private static final class InflateContext {
+        private final Inflater rawInflater = new Inflater(true);
+        private final Inflater zlibInflater = new Inflater(false);
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        /**
+         * Inflate the input into {@link #buffer}, growing it as needed.
+         *
+         * @return the inflated length, or -1 if the input is not in the inflater's format.
+         */
+        int inflate(final Inflater inflater, final byte[] input) {
+            inflater.reset();
+            inflater.setInput(input);
+            int length = 0;
+            boolean paddingSupplied = false;
+            try {
+                while (!inflater.finished()) {
+                    if (length == this.buffer.length) {
+                        if (this.buffer.length >= MAX_INFLATED_SIZE) {
+                            return -1;
+                        }
+                        this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                    }
+                    final int count = inflater.inflate(this.buffer, length, this.buffer.length - length);
+                    if (count == 0 && inflater.needsInput() && !paddingSupplied) {
+                        // raw inflation may require an extra dummy byte at the end of the input
+                        inflater.setInput(PADDING);
+                        paddingSupplied = true;
+                    } else if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += count;
+                }
+                return length > 0 ? length : -1;
+            } catch (final DataFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * Release the native memory of both inflaters.
+         */
+        void end() {
+            this.rawInflater.end();
+            this.zlibInflater.end();
+        }
+    }
+
+    /**
+     * The attributes of the authentication request CAS acts upon.
+     */
+    public static final class ParsedAuthnRequest {
+        private final String assertionConsumerServiceUrl;
+        private final String requestId;
+
+        /**
+         * Instantiates a new parsed request.
+         *
+         * @param assertionConsumerServiceUrl the assertion consumer service url
+         * @param requestId the request id
+         */
+        public ParsedAuthnRequest(final String assertionConsumerServiceUrl, final String requestId) {
+            this.assertionConsumerServiceUrl = assertionConsumerServiceUrl;
+            this.requestId = requestId;
+        }
+
+        public String getAssertionConsumerServiceUrl() {
+            return this.assertionConsumerServiceUrl;
+        }
+
+        public String getRequestId() {
+            return this.requestId;
+        }
+    }
+}
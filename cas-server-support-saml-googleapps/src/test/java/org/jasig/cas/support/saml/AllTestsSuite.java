@@ -3,6 +3,7 @@ package org.jasig.cas.support.saml;
 import org.jasig.cas.support.saml.authentication.GoogleAppsSamlAuthenticationRequestTests;
 import org.jasig.cas.support.saml.authentication.principal.GoogleAccountsServiceFactoryTests;
 import org.jasig.cas.support.saml.authentication.principal.GoogleAccountsServiceTests;
+import org.jasig.cas.support.saml.util.GoogleSamlAuthnRequestParserTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -16,6 +17,7 @@ import org.junit.runners.Suite;
         GoogleAppsSamlAuthenticationRequestTests.class,
         GoogleAccountsServiceTests.class,
         GoogleAccountsServiceFactoryTests.class,
+        GoogleSamlAuthnRequestParserTests.class,
 })
 public final class AllTestsSuite {
 }
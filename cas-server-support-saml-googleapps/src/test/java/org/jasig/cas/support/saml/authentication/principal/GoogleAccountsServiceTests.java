@@ -15,8 +15,27 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.crypto.AlgorithmMethod;
+import javax.xml.crypto.KeySelector;
+import javax.xml.crypto.KeySelectorException;
+import javax.xml.crypto.KeySelectorResult;
+import javax.xml.crypto.XMLCryptoContext;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyValue;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyException;
+import java.security.PublicKey;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -81,6 +100,42 @@ public class GoogleAccountsServiceTests extends AbstractOpenSamlTests {
         assertTrue(resp.getAttributes().containsKey(SamlProtocolConstants.PARAMETER_SAML_RELAY_STATE));
     }
 
+    @Test
+    public void verifyResponseSignature() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            final Response resp = this.googleAccountsService.getResponse("ticketId");
+            final String response = resp.getAttributes().get(SamlProtocolConstants.PARAMETER_SAML_RESPONSE);
+
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final Document document = factory.newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+            final NodeList signatures = document.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
+            assertEquals(1, signatures.getLength());
+
+            final DOMValidateContext context = new DOMValidateContext(new KeySelector() {
+                @Override
+                public KeySelectorResult select(final KeyInfo keyInfo, final Purpose purpose,
+                                                final AlgorithmMethod method, final XMLCryptoContext ctx)
+                        throws KeySelectorException {
+                    try {
+                        final PublicKey key = ((KeyValue) keyInfo.getContent().get(0)).getPublicKey();
+                        return new KeySelectorResult() {
+                            @Override
+                            public Key getKey() {
+                                return key;
+                            }
+                        };
+                    } catch (final KeyException e) {
+                        throw new KeySelectorException(e);
+                    }
+                }
+            }, signatures.item(0));
+            final XMLSignature signature = XMLSignatureFactory.getInstance("DOM").unmarshalXMLSignature(context);
+            assertTrue(signature.validate(context));
+        }
+    }
+
     private static String encodeMessage(final String xmlString) throws IOException {
         return CompressionUtils.deflate(xmlString);
     }
@@ -0,0 +1,69 @@
+package org.jasig.cas.support.saml.util;
+
+import org.jasig.cas.util.CompressionUtils;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link GoogleSamlAuthnRequestParser}.
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class GoogleSamlAuthnRequestParserTests {
+
+    private static final String SAML_REQUEST = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<samlp:AuthnRequest xmlns:samlp=\"urn:oasis:names:tc:SAML:2.0:protocol\" "
+            + "ID=\"5545454455\" Version=\"2.0\" IssueInstant=\"Value\" "
+            + "ProtocolBinding=\"urn:oasis:names.tc:SAML:2.0:bindings:HTTP-Redirect\" "
+            + "ProviderName=\"https://localhost:8443/myRutgers\" AssertionConsumerServiceURL=\"https://localhost:8443/myRutgers\"/>";
+
+    @Test
+    public void verifyZlibEncodedRequest() {
+        final GoogleSamlAuthnRequestParser.ParsedAuthnRequest request =
+                GoogleSamlAuthnRequestParser.parse(CompressionUtils.deflate(SAML_REQUEST));
+        assertNotNull(request);
+        assertEquals("5545454455", request.getRequestId());
+        assertEquals("https://localhost:8443/myRutgers", request.getAssertionConsumerServiceUrl());
+    }
+
+    @Test
+    public void verifyRawDeflatedRequest() {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(SAML_REQUEST.getBytes(StandardCharsets.UTF_8));
+        deflater.finish();
+        final byte[] buffer = new byte[SAML_REQUEST.length()];
+        final int length = deflater.deflate(buffer);
+        deflater.end();
+
+        final byte[] deflated = new byte[length];
+        System.arraycopy(buffer, 0, deflated, 0, length);
+
+        for (int i = 0; i < 2; i++) {
+            final GoogleSamlAuthnRequestParser.ParsedAuthnRequest request =
+                    GoogleSamlAuthnRequestParser.parse(CompressionUtils.encodeBase64(deflated));
+            assertNotNull(request);
+            assertEquals("5545454455", request.getRequestId());
+        }
+    }
+
+    @Test
+    public void verifyMalformedRequest() {
+        assertNull(GoogleSamlAuthnRequestParser.parse(null));
+        assertNull(GoogleSamlAuthnRequestParser.parse(CompressionUtils.deflate("not-xml")));
+        assertNull(GoogleSamlAuthnRequestParser.parse(CompressionUtils.encodeBase64("garbage".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void verifyParsingAfterPoolIsCleared() {
+        final String encoded = CompressionUtils.deflate(SAML_REQUEST);
+        assertNotNull(GoogleSamlAuthnRequestParser.parse(encoded));
+        GoogleSamlAuthnRequestParser.clearPool();
+        final GoogleSamlAuthnRequestParser.ParsedAuthnRequest request = GoogleSamlAuthnRequestParser.parse(encoded);
+        assertNotNull(request);
+        assertEquals("5545454455", request.getRequestId());
+    }
+}
@@ -35,6 +35,9 @@ import java.security.SecureRandom;
 public abstract class AbstractSaml20ObjectBuilder extends AbstractSamlObjectBuilder {
     private static final int HEX_HIGH_BITS_BITWISE_FLAG = 0x0f;
 
+    /** Shared generator for message ids; {@link SecureRandom} is thread-safe. */
+    private static final SecureRandom ID_GENERATOR = new SecureRandom();
+
     /**
      * Gets name id.
      *
@@ -200,7 +203,6 @@ public abstract class AbstractSaml20ObjectBuilder extends AbstractSamlObjectBuil
 
     @Override
     public String generateSecureRandomId() {
-        final SecureRandom generator = new SecureRandom();
         final char[] charMappings = {
                 'a', 'b', 'c', 'd', 'e', 'f', 'g',
                 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o',
@@ -212,7 +214,7 @@ public abstract class AbstractSaml20ObjectBuilder extends AbstractSamlObjectBuil
 
         // 160 bits
         final byte[] bytes = new byte[generatorBytesLength];
-        generator.nextBytes(bytes);
+        ID_GENERATOR.nextBytes(bytes);
 
         final char[] chars = new char[charsLength];
         for (int i = 0; i < bytes.length; i++) {
@@ -72,7 +72,10 @@ public abstract class AbstractSamlObjectBuilder implements Serializable {
 
     private static final int RANDOM_ID_SIZE = 16;
 
-    private  static final String SIGNATURE_FACTORY_PROVIDER_CLASS = "org.jcp.xml.dsig.internal.dom.XMLDSigRI";
+    /**
+     * The XML signature factory provider used when {@code jsr105Provider} is not defined.
+     */
+    protected static final String SIGNATURE_FACTORY_PROVIDER_CLASS = "org.jcp.xml.dsig.internal.dom.XMLDSigRI";
 
     /** Logger instance. **/
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -320,7 +323,7 @@ public abstract class AbstractSamlObjectBuilder implements Serializable {
      * @param elem the elem
      * @return the xml signature insert location
      */
-    private static Node getXmlSignatureInsertLocation(final org.w3c.dom.Element elem) {
+    protected static Node getXmlSignatureInsertLocation(final org.w3c.dom.Element elem) {
         org.w3c.dom.Node insertLocation = null;
         org.w3c.dom.NodeList nodeList = elem.getElementsByTagNameNS(
                 SAMLConstants.SAML20P_NS, "Extensions");
@@ -0,0 +1,190 @@
+package org.jasig.cas.authentication;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.stormpath.sdk.account.Account;
+import com.stormpath.sdk.api.ApiKey;
+import com.stormpath.sdk.api.ApiKeys;
+import com.stormpath.sdk.application.Application;
+import com.stormpath.sdk.authc.UsernamePasswordRequest;
+import com.stormpath.sdk.cache.Caches;
+import com.stormpath.sdk.client.Client;
+import com.stormpath.sdk.client.Clients;
+import com.stormpath.sdk.resource.ResourceException;
+import org.apache.commons.lang3.StringUtils;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.http.credentials.UsernamePasswordCredentials;
+import org.pac4j.http.credentials.authenticator.UsernamePasswordAuthenticator;
+import org.pac4j.http.credentials.password.NopPasswordEncoder;
+import org.pac4j.http.credentials.password.PasswordEncoder;
+import org.pac4j.stormpath.profile.StormpathProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates username/password credentials against a Stormpath application.
+ *
+ * <p>Unlike the pac4j authenticator, which is meant to be created per authentication,
+ * this one builds the Stormpath client once and is safe to share between threads, so that
+ * logins reuse the SDK's pooled HTTP connections and resource cache. Usernames that Stormpath
+ * reports as unknown are remembered for a short while and rejected without a round trip.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class StormpathAccountAuthenticator implements UsernamePasswordAuthenticator {
+
+    /** Default base url of the Stormpath API. */
+    public static final String DEFAULT_BASE_URL = "https://api.stormpath.com/v1";
+
+    /** Stormpath error code for a login attempt with an unknown username or email. */
+    public static final int ACCOUNT_NOT_FOUND = 7104;
+
+    private static final String MAX_CONNECTIONS_PROPERTY =
+            "com.stormpath.sdk.impl.http.httpclient.HttpClientRequestExecutor.connPoolControl.maxTotal";
+
+    private static final String MAX_CONNECTIONS_PER_ROUTE_PROPERTY =
+            "com.stormpath.sdk.impl.http.httpclient.HttpClientRequestExecutor.connPoolControl.maxPerRoute";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Application application;
+
+    private final Cache<String, Boolean> unknownAccounts;
+
+    private PasswordEncoder passwordEncoder = new NopPasswordEncoder();
+
+    /**
+     * Instantiates a new authenticator with its Stormpath client.
+     *
+     * @param settings the connection settings
+     */
+    public StormpathAccountAuthenticator(final Settings settings) {
+        if (StringUtils.isBlank(settings.apiKey) || StringUtils.isBlank(settings.secretKey)
+                || StringUtils.isBlank(settings.applicationId)) {
+            throw new IllegalArgumentException("Stormpath api key, secret key and application id must be defined");
+        }
+
+        // the SDK sizes its connection pool from these system properties only
+        setPoolProperty(MAX_CONNECTIONS_PROPERTY, settings.maxConnections);
+        setPoolProperty(MAX_CONNECTIONS_PER_ROUTE_PROPERTY, settings.maxConnections);
+
+        final ApiKey key = ApiKeys.builder().setId(settings.apiKey).setSecret(settings.secretKey).build();
+        final Client client = Clients.builder()
+                .setApiKey(key)
+                .setConnectionTimeout(settings.connectionTimeoutInSeconds)
+                .setCacheManager(Caches.newCacheManager()
+                        .withDefaultTimeToLive(settings.cacheTimeToLiveInSeconds, TimeUnit.SECONDS)
+                        .build())
+                .build();
+        final String href = StringUtils.removeEnd(settings.baseUrl, "/") + "/applications/" + settings.applicationId;
+        this.application = client.getResource(href, Application.class);
+        logger.debug("Created Stormpath client for application {}", href);
+
+        if (settings.unknownAccountTimeToLiveInSeconds > 0) {
+            this.unknownAccounts = CacheBuilder.newBuilder()
+                    .maximumSize(settings.unknownAccountCacheSize)
+                    .expireAfterWrite(settings.unknownAccountTimeToLiveInSeconds, TimeUnit.SECONDS)
+                    .build();
+        } else {
+            this.unknownAccounts = null;
+        }
+    }
+
+    @Override
+    public void validate(final UsernamePasswordCredentials credentials) {
+        final String username = credentials.getUsername();
+        if (this.unknownAccounts != null && this.unknownAccounts.getIfPresent(username) != null) {
+            logger.debug("Account {} was recently reported unknown by Stormpath", username);
+            throw new CredentialsException("Account " + username + " not found");
+        }
+
+        final Account account;
+        try {
+            final String password = this.passwordEncoder.encode(credentials.getPassword());
+            account = this.application.authenticateAccount(new UsernamePasswordRequest(username, password)).getAccount();
+        } catch (final ResourceException e) {
+            if (e.getCode() == ACCOUNT_NOT_FOUND && this.unknownAccounts != null) {
+                this.unknownAccounts.put(username, Boolean.TRUE);
+            }
+            throw new CredentialsException("Stormpath authentication failed: " + e.getMessage());
+        }
+
+        final StormpathProfile profile = new StormpathProfile();
+        profile.setId(account.getUsername());
+        profile.addAttribute("fullName", account.getFullName());
+        profile.addAttribute("email", account.getEmail());
+        profile.addAttribute("givenName", account.getGivenName());
+        profile.addAttribute("middleName", account.getMiddleName());
+        profile.addAttribute("surname", account.getSurname());
+        profile.addAttribute("status", account.getStatus());
+        profile.addAttribute("href", account.getHref());
+        credentials.setUserProfile(profile);
+        logger.debug("Authenticated Stormpath account {}", account.getHref());
+    }
+
+    public void setPasswordEncoder(final PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    private static void setPoolProperty(final String name, final int value) {
+        if (value > 0 && System.getProperty(name) == null) {
+            System.setProperty(name, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Connection settings of the Stormpath client.
+     */
+    public static final class Settings {
+        private final String apiKey;
+        private final String secretKey;
+        private final String applicationId;
+
+        private String baseUrl = DEFAULT_BASE_URL;
+        private int connectionTimeoutInSeconds = 10;
+        private int maxConnections = 20;
+        private long cacheTimeToLiveInSeconds = 300;
+        private long unknownAccountTimeToLiveInSeconds = 60;
+        private long unknownAccountCacheSize = 10000;
+
+        /**
+         * Instantiates new settings.
+         *
+         * @param apiKey the api key id
+         * @param secretKey the api key secret
+         * @param applicationId the application id
+         */
+        public Settings(final String apiKey, final String secretKey, final String applicationId) {
+            this.apiKey = apiKey;
+            this.secretKey = secretKey;
+            this.applicationId = applicationId;
+        }
+
+        public void setBaseUrl(final String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public void setConnectionTimeoutInSeconds(final int connectionTimeoutInSeconds) {
+            this.connectionTimeoutInSeconds = connectionTimeoutInSeconds;
+        }
+
+        public void setMaxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public void setCacheTimeToLiveInSeconds(final long cacheTimeToLiveInSeconds) {
+            this.cacheTimeToLiveInSeconds = cacheTimeToLiveInSeconds;
+        }
+
+        public void setUnknownAccountTimeToLiveInSeconds(final long unknownAccountTimeToLiveInSeconds) {
+            this.unknownAccountTimeToLiveInSeconds = unknownAccountTimeToLiveInSeconds;
+        }
+
+        public void setUnknownAccountCacheSize(final long unknownAccountCacheSize) {
+            this.unknownAccountCacheSize = unknownAccountCacheSize;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import org.jasig.cas.authentication.handler.PrincipalNameTransformer;
 import org.jasig.cas.integration.pac4j.authentication.handler.support.UsernamePasswordWrapperAuthenticationHandler;
 import org.pac4j.http.credentials.authenticator.Authenticator;
 import org.pac4j.http.credentials.password.NopPasswordEncoder;
-import org.pac4j.stormpath.credentials.authenticator.StormpathAuthenticator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +12,8 @@ import org.springframework.stereotype.Component;
 
 /**
  * This is {@link StormpathAuthenticationHandler} that verifies accounts
- * against Stormpath Cloud.
+ * against Stormpath Cloud. The Stormpath client is created on first use
+ * and shared by all subsequent authentications.
  *
  * @author Misagh Moayyed
  * @since 4.2.0
@@ -29,6 +29,23 @@ public class StormpathAuthenticationHandler extends UsernamePasswordWrapperAuthe
     @Value("${cas.authn.stormpath.secret.key:}")
     private String secretkey;
 
+    @Value("${cas.authn.stormpath.base.url:" + StormpathAccountAuthenticator.DEFAULT_BASE_URL + "}")
+    private String baseUrl;
+
+    @Value("${cas.authn.stormpath.connection.timeout:10}")
+    private int connectionTimeoutInSeconds;
+
+    @Value("${cas.authn.stormpath.connection.max:20}")
+    private int maxConnections;
+
+    @Value("${cas.authn.stormpath.cache.ttl:300}")
+    private long cacheTimeToLiveInSeconds;
+
+    @Value("${cas.authn.stormpath.unknown.account.ttl:60}")
+    private long unknownAccountTimeToLiveInSeconds;
+
+    private volatile StormpathAccountAuthenticator authenticator;
+
     @Autowired(required=false)
     @Qualifier("stormpathPac4jPasswordEncoder")
     private org.pac4j.http.credentials.password.PasswordEncoder stormpathPasswordEncoder = new NopPasswordEncoder();
@@ -53,8 +70,30 @@ public class StormpathAuthenticationHandler extends UsernamePasswordWrapperAuthe
 
     @Override
     protected Authenticator getAuthenticator(final Credential credential) {
-        final StormpathAuthenticator authenticator = new StormpathAuthenticator(this.apiKey, this.secretkey, this.applicationId);
-        authenticator.setPasswordEncoder(this.stormpathPasswordEncoder);
-        return authenticator;
+        StormpathAccountAuthenticator current = this.authenticator;
+        if (current == null) {
+            synchronized (this) {
+                current = this.authenticator;
+                if (current == null) {
+                    current = createAuthenticator();
+                    this.authenticator = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private StormpathAccountAuthenticator createAuthenticator() {
+        final StormpathAccountAuthenticator.Settings settings =
+                new StormpathAccountAuthenticator.Settings(this.apiKey, this.secretkey, this.applicationId);
+        settings.setBaseUrl(this.baseUrl);
+        settings.setConnectionTimeoutInSeconds(this.connectionTimeoutInSeconds);
+        settings.setMaxConnections(this.maxConnections);
+        settings.setCacheTimeToLiveInSeconds(this.cacheTimeToLiveInSeconds);
+        settings.setUnknownAccountTimeToLiveInSeconds(this.unknownAccountTimeToLiveInSeconds);
+
+        final StormpathAccountAuthenticator result = new StormpathAccountAuthenticator(settings);
+        result.setPasswordEncoder(this.stormpathPasswordEncoder);
+        return result;
     }
 }
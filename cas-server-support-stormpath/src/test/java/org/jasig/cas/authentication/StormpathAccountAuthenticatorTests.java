@@ -0,0 +1,126 @@
+package org.jasig.cas.authentication;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.http.credentials.UsernamePasswordCredentials;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link StormpathAccountAuthenticator} against a local stub of the Stormpath API.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class StormpathAccountAuthenticatorTests {
+
+    private static final String APPLICATION_ID = "app";
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private final AtomicInteger applicationRequests = new AtomicInteger();
+
+    private final AtomicInteger loginAttempts = new AtomicInteger();
+
+    private StormpathAccountAuthenticator authenticator;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.baseUrl = "http://localhost:" + this.server.getAddress().getPort() + "/v1";
+        this.server.createContext("/v1/applications/" + APPLICATION_ID, new StubHandler());
+        this.server.createContext("/v1/accounts/casuser", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                respond(exchange, 200, "{\"href\":\"" + baseUrl + "/accounts/casuser\",\"username\":\"casuser\","
+                        + "\"email\":\"casuser@example.org\",\"givenName\":\"CAS\",\"surname\":\"User\","
+                        + "\"fullName\":\"CAS User\",\"status\":\"ENABLED\"}");
+            }
+        });
+        this.server.start();
+
+        final StormpathAccountAuthenticator.Settings settings =
+                new StormpathAccountAuthenticator.Settings("apiKeyId", "apiKeySecret", APPLICATION_ID);
+        settings.setBaseUrl(this.baseUrl);
+        this.authenticator = new StormpathAccountAuthenticator(settings);
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void verifyClientIsReusedAcrossAuthentications() {
+        for (int i = 0; i < 3; i++) {
+            final UsernamePasswordCredentials credentials = new UsernamePasswordCredentials("casuser", "Mellon", "test");
+            this.authenticator.validate(credentials);
+            assertEquals("casuser", credentials.getUserProfile().getId());
+            assertEquals("CAS User", credentials.getUserProfile().getAttribute("fullName"));
+            assertEquals("casuser@example.org", credentials.getUserProfile().getAttribute("email"));
+        }
+        assertEquals(1, this.applicationRequests.get());
+        assertEquals(3, this.loginAttempts.get());
+    }
+
+    @Test
+    public void verifyUnknownAccountIsRejectedLocally() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                this.authenticator.validate(new UsernamePasswordCredentials("unknown", "Mellon", "test"));
+                fail("Unknown account should not authenticate");
+            } catch (final CredentialsException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+        assertEquals(1, this.loginAttempts.get());
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Serves the application and its login attempts.
+     */
+    private final class StubHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final String applicationHref = baseUrl + "/applications/" + APPLICATION_ID;
+            if (exchange.getRequestURI().getPath().endsWith("/loginAttempts")) {
+                loginAttempts.incrementAndGet();
+                final String body = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+                // the login attempt value is the base64 of "casuser:Mellon"
+                if (body.contains("Y2FzdXNlcjpNZWxsb24=")) {
+                    respond(exchange, 200, "{\"account\":{\"href\":\"" + baseUrl + "/accounts/casuser\"}}");
+                } else {
+                    respond(exchange, 400, "{\"status\":400,\"code\":" + StormpathAccountAuthenticator.ACCOUNT_NOT_FOUND
+                            + ",\"message\":\"Invalid username or password.\",\"developerMessage\":\"Account not found\"}");
+                }
+                return;
+            }
+            applicationRequests.incrementAndGet();
+            respond(exchange, 200, "{\"href\":\"" + applicationHref + "\",\"name\":\"CAS\",\"status\":\"ENABLED\","
+                    + "\"loginAttempts\":{\"href\":\"" + applicationHref + "/loginAttempts\"}}");
+        }
+    }
+}
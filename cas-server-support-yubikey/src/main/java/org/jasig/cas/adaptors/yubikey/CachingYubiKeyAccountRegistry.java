@@ -0,0 +1,59 @@
+package org.jasig.cas.adaptors.yubikey;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link YubiKeyAccountRegistry} that caches the decisions of another registry
+ * for a configurable period, based on google guava's caching library.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class CachingYubiKeyAccountRegistry implements YubiKeyAccountRegistry {
+
+    private static final long DEFAULT_MAXIMUM_CACHE_SIZE = 10000;
+
+    private final LoadingCache<Pair<String, String>, Boolean> cache;
+
+    /**
+     * Instantiates a new caching registry.
+     *
+     * @param registry the registry whose lookups should be cached
+     * @param timeUnit the time unit
+     * @param expiryDuration the expiry duration
+     */
+    public CachingYubiKeyAccountRegistry(final YubiKeyAccountRegistry registry,
+                                         final TimeUnit timeUnit, final long expiryDuration) {
+        this(registry, DEFAULT_MAXIMUM_CACHE_SIZE, timeUnit, expiryDuration);
+    }
+
+    /**
+     * Instantiates a new caching registry.
+     *
+     * @param registry the registry whose lookups should be cached
+     * @param maxCacheSize the max cache size
+     * @param timeUnit the time unit
+     * @param expiryDuration the expiry duration
+     */
+    public CachingYubiKeyAccountRegistry(final YubiKeyAccountRegistry registry, final long maxCacheSize,
+                                         final TimeUnit timeUnit, final long expiryDuration) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxCacheSize)
+                .expireAfterWrite(expiryDuration, timeUnit)
+                .build(new CacheLoader<Pair<String, String>, Boolean>() {
+                    @Override
+                    public Boolean load(final Pair<String, String> key) {
+                        return registry.isYubiKeyRegisteredFor(key.getLeft(), key.getRight());
+                    }
+                });
+    }
+
+    @Override
+    public boolean isYubiKeyRegisteredFor(final String uid, final String yubikeyPublicId) {
+        return this.cache.getUnchecked(Pair.of(uid, yubikeyPublicId));
+    }
+}
@@ -3,17 +3,17 @@ package org.jasig.cas.adaptors.yubikey;
 import com.yubico.client.v2.ResponseStatus;
 import com.yubico.client.v2.VerificationResponse;
 import com.yubico.client.v2.YubicoClient;
-import com.yubico.client.v2.exceptions.YubicoValidationFailure;
-import com.yubico.client.v2.exceptions.YubicoVerificationException;
 import org.jasig.cas.authentication.HandlerResult;
 import org.jasig.cas.authentication.PreventedException;
 import org.jasig.cas.authentication.UsernamePasswordCredential;
 import org.jasig.cas.authentication.handler.support.AbstractUsernamePasswordAuthenticationHandler;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
 import javax.security.auth.login.AccountNotFoundException;
@@ -27,6 +27,9 @@ import java.security.GeneralSecurityException;
  * issued by a YubiKey device. To use YubiCloud you need a
  * client id and an API key which must be obtained from Yubico.
  *
+ * <p>Validation may also be delegated to one or more self-hosted validation servers,
+ * in which case all endpoints are queried in parallel via {@link YubiKeyOtpValidator}.</p>
+ *
  * <p>For more info, please visit
  * <a href="http://yubico.github.io/yubico-java-client/">this link</a></p>
  *
@@ -35,11 +38,11 @@ import java.security.GeneralSecurityException;
  */
 @Component("yubiKeyAuthenticationHandler")
 public class YubiKeyAuthenticationHandler extends AbstractUsernamePasswordAuthenticationHandler
-        implements InitializingBean {
+        implements InitializingBean, DisposableBean {
 
     private YubiKeyAccountRegistry registry;
 
-    private final YubicoClient client;
+    private final YubiKeyOtpValidator validator;
 
     /**
      * Prepares the Yubico client with the received clientId and secretKey. If you wish to
@@ -50,10 +53,36 @@ public class YubiKeyAuthenticationHandler extends AbstractUsernamePasswordAuthen
      * @param clientId the client id
      * @param secretKey the secret key
      */
+    public YubiKeyAuthenticationHandler(final Integer clientId, final String secretKey) {
+        this(new YubiKeyOtpValidator(clientId, secretKey));
+    }
+
+    /**
+     * Prepares the Yubico client with the received clientId and secretKey, and
+     * validates OTPs against the given comma-separated list of validation endpoints.
+     * If no endpoints are defined, the Yubico cloud validation platform is used.
+     *
+     * @param clientId the client id
+     * @param secretKey the secret key
+     * @param validationUrls comma-separated list of validation endpoints
+     * @param timeout the time in milliseconds to wait for each endpoint
+     */
     @Autowired
     public YubiKeyAuthenticationHandler(@NotNull @Value("${yubikey.client.id:}") final Integer clientId,
-                                        @NotNull @Value("${yubikey.secret.key:}") final String secretKey) {
-        this.client = YubicoClient.getClient(clientId, secretKey);
+                                        @NotNull @Value("${yubikey.secret.key:}") final String secretKey,
+                                        @Value("${yubikey.validation.urls:}") final String validationUrls,
+                                        @Value("${yubikey.validation.timeout:5000}") final long timeout) {
+        this(new YubiKeyOtpValidator(clientId, secretKey,
+                StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(validationUrls)), timeout));
+    }
+
+    /**
+     * Instantiates a new handler that verifies OTPs via the given validator.
+     *
+     * @param validator the validator
+     */
+    public YubiKeyAuthenticationHandler(final YubiKeyOtpValidator validator) {
+        this.validator = validator;
     }
 
     @Override
@@ -66,6 +95,11 @@ public class YubiKeyAuthenticationHandler extends AbstractUsernamePasswordAuthen
         }
     }
 
+    @Override
+    public void destroy() {
+        this.validator.destroy();
+    }
+
     /**
      * {@inheritDoc}
      * Attempts to authenticate the received credentials using the Yubico cloud validation platform.
@@ -94,19 +128,14 @@ public class YubiKeyAuthenticationHandler extends AbstractUsernamePasswordAuthen
             throw new AccountNotFoundException("YubiKey id is not recognized in registry");
         }
 
-        try {
-            final VerificationResponse response = this.client.verify(otp);
-            final ResponseStatus status = response.getStatus();
-            if (status.compareTo(ResponseStatus.OK) == 0) {
-                logger.debug("YubiKey response status {} at {}", status, response.getTimestamp());
-                return createHandlerResult(transformedCredential,
-                        this.principalFactory.createPrincipal(uid), null);
-            }
-            throw new FailedLoginException("Authentication failed with status: " + status);
-        } catch (final YubicoVerificationException | YubicoValidationFailure e) {
-            logger.error(e.getMessage(), e);
-            throw new FailedLoginException("YubiKey validation failed: " + e.getMessage());
+        final VerificationResponse response = this.validator.verify(otp);
+        final ResponseStatus status = response.getStatus();
+        if (status.compareTo(ResponseStatus.OK) == 0) {
+            logger.debug("YubiKey response status {} at {}", status, response.getTimestamp());
+            return createHandlerResult(transformedCredential,
+                    this.principalFactory.createPrincipal(uid), null);
         }
+        throw new FailedLoginException("Authentication failed with status: " + status);
     }
 
 
@@ -119,4 +148,8 @@ public class YubiKeyAuthenticationHandler extends AbstractUsernamePasswordAuthen
     public YubiKeyAccountRegistry getRegistry() {
         return registry;
     }
+
+    public YubiKeyOtpValidator getValidator() {
+        return validator;
+    }
 }
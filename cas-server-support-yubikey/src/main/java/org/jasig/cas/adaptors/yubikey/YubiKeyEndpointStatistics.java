@@ -0,0 +1,108 @@
+package org.jasig.cas.adaptors.yubikey;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and outcome counters collected for a single
+ * YubiKey validation endpoint. Instances are thread-safe and
+ * are updated by {@link YubiKeyOtpValidator} for every request
+ * sent to the endpoint.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class YubiKeyEndpointStatistics {
+
+    private final String endpoint;
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Instantiates a new statistics holder.
+     *
+     * @param endpoint the validation endpoint url
+     */
+    public YubiKeyEndpointStatistics(final String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param latencyNanos the time spent waiting for the endpoint
+     * @param successful whether the endpoint produced a usable response
+     */
+    void recordResponse(final long latencyNanos, final boolean successful) {
+        this.requests.incrementAndGet();
+        if (!successful) {
+            this.failures.incrementAndGet();
+        }
+        this.totalLatencyNanos.addAndGet(latencyNanos);
+
+        long max = this.maxLatencyNanos.get();
+        while (latencyNanos > max && !this.maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = this.maxLatencyNanos.get();
+        }
+    }
+
+    /**
+     * Record a request that did not complete within the configured timeout.
+     */
+    void recordTimeout() {
+        this.requests.incrementAndGet();
+        this.timeouts.incrementAndGet();
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public long getRequests() {
+        return this.requests.get();
+    }
+
+    public long getFailures() {
+        return this.failures.get();
+    }
+
+    public long getTimeouts() {
+        return this.timeouts.get();
+    }
+
+    /**
+     * Gets average latency of completed requests.
+     *
+     * @return the average latency in milliseconds
+     */
+    public long getAverageLatency() {
+        final long completed = this.requests.get() - this.timeouts.get();
+        if (completed <= 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(this.totalLatencyNanos.get() / completed);
+    }
+
+    /**
+     * Gets the slowest observed response.
+     *
+     * @return the max latency in milliseconds
+     */
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxLatencyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [requests=%d, failures=%d, timeouts=%d, avgLatency=%dms, maxLatency=%dms]",
+                this.endpoint, getRequests(), getFailures(), getTimeouts(), getAverageLatency(), getMaxLatency());
+    }
+}
@@ -0,0 +1,245 @@
+package org.jasig.cas.adaptors.yubikey;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yubico.client.v2.ResponseStatus;
+import com.yubico.client.v2.VerificationResponse;
+import com.yubico.client.v2.YubicoClient;
+import com.yubico.client.v2.exceptions.YubicoValidationFailure;
+import com.yubico.client.v2.exceptions.YubicoVerificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.security.auth.login.FailedLoginException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies YubiKey one-time passwords against a set of validation endpoints.
+ * Endpoints may be the Yubico cloud servers or a self-hosted validation server
+ * that speaks the Yubico validation protocol 2.0. All endpoints are queried in parallel
+ * and the first endpoint that reports {@link ResponseStatus#OK} wins; endpoints that
+ * do not answer within the configured timeout are abandoned and recorded as such
+ * in their {@link YubiKeyEndpointStatistics}.
+ *
+ * <p>OTPs that were successfully verified are remembered for a configurable period
+ * so that replays are rejected locally without another round trip.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class YubiKeyOtpValidator implements DisposableBean {
+
+    /** Default time to wait for endpoints in milliseconds. */
+    public static final long DEFAULT_TIMEOUT = 5000;
+
+    private static final int THREADS_PER_ENDPOINT = 8;
+
+    private static final long DEFAULT_VERIFIED_OTP_EXPIRATION = 3600;
+
+    private static final long DEFAULT_VERIFIED_OTP_CACHE_SIZE = 100000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final List<YubicoClient> clients = new ArrayList<>();
+
+    private final Map<String, YubiKeyEndpointStatistics> statistics = new LinkedHashMap<>();
+
+    private final ExecutorService executor;
+
+    private final long timeoutNanos;
+
+    private final Cache<String, Boolean> verifiedOtps;
+
+    /**
+     * Instantiates a new validator that uses the default Yubico cloud endpoints.
+     *
+     * @param clientId the client id
+     * @param secretKey the secret key
+     */
+    public YubiKeyOtpValidator(final Integer clientId, final String secretKey) {
+        this(clientId, secretKey, new String[0], DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Instantiates a new validator.
+     *
+     * @param clientId the client id
+     * @param secretKey the secret key
+     * @param endpoints the validation endpoints; if none are defined, the Yubico cloud endpoints are used.
+     * @param timeout the time in milliseconds to wait for an endpoint to respond
+     */
+    public YubiKeyOtpValidator(final Integer clientId, final String secretKey,
+                               final String[] endpoints, final long timeout) {
+        this(clientId, secretKey, endpoints, timeout, DEFAULT_VERIFIED_OTP_EXPIRATION);
+    }
+
+    /**
+     * Instantiates a new validator.
+     *
+     * @param clientId the client id
+     * @param secretKey the secret key
+     * @param endpoints the validation endpoints; if none are defined, the Yubico cloud endpoints are used.
+     * @param timeout the time in milliseconds to wait for an endpoint to respond
+     * @param verifiedOtpExpiration the time in seconds verified OTPs are remembered to reject replays
+     */
+    public YubiKeyOtpValidator(final Integer clientId, final String secretKey,
+                               final String[] endpoints, final long timeout,
+                               final long verifiedOtpExpiration) {
+        final String[] urls = endpoints == null || endpoints.length == 0
+                ? YubicoClient.getClient(clientId, secretKey).getWsapiUrls() : endpoints;
+
+        for (final String url : urls) {
+            final YubicoClient client = YubicoClient.getClient(clientId, secretKey);
+            client.setWsapiUrls(new String[] {url});
+            this.clients.add(client);
+            this.statistics.put(url, new YubiKeyEndpointStatistics(url));
+        }
+
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.executor = Executors.newFixedThreadPool(urls.length * THREADS_PER_ENDPOINT,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("yubikey-validation-%d").build());
+        this.verifiedOtps = CacheBuilder.newBuilder()
+                .maximumSize(DEFAULT_VERIFIED_OTP_CACHE_SIZE)
+                .expireAfterWrite(verifiedOtpExpiration, TimeUnit.SECONDS)
+                .build();
+        logger.debug("Configured YubiKey validation endpoints {}", this.statistics.keySet());
+    }
+
+    /**
+     * Verify the OTP against all configured endpoints.
+     *
+     * @param otp the one-time password
+     * @return the first successful response, or the last conclusive response if no endpoint accepted the OTP.
+     * @throws FailedLoginException if the OTP was replayed or no endpoint produced a conclusive response
+     */
+    public VerificationResponse verify(final String otp) throws FailedLoginException {
+        if (this.verifiedOtps.getIfPresent(otp) != null) {
+            throw new FailedLoginException("YubiKey OTP has already been used");
+        }
+
+        final CompletionService<VerificationResponse> completionService = new ExecutorCompletionService<>(this.executor);
+        final List<Future<VerificationResponse>> futures = new ArrayList<>(this.clients.size());
+        for (final YubicoClient client : this.clients) {
+            futures.add(completionService.submit(new EndpointVerification(client, otp)));
+        }
+
+        final long deadline = System.nanoTime() + this.timeoutNanos;
+        VerificationResponse conclusiveResponse = null;
+        try {
+            for (int pending = futures.size(); pending > 0; pending--) {
+                final long remaining = deadline - System.nanoTime();
+                final Future<VerificationResponse> future = remaining > 0
+                        ? completionService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (future == null) {
+                    break;
+                }
+                final VerificationResponse response = getResponse(future);
+                if (response == null || response.getStatus() == ResponseStatus.REPLAYED_REQUEST) {
+                    continue;
+                }
+                if (response.getStatus() == ResponseStatus.OK) {
+                    if (this.verifiedOtps.asMap().putIfAbsent(otp, Boolean.TRUE) != null) {
+                        throw new FailedLoginException("YubiKey OTP has already been used");
+                    }
+                    return response;
+                }
+                conclusiveResponse = response;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FailedLoginException("YubiKey validation was interrupted");
+        } finally {
+            cancelPendingRequests(futures);
+        }
+
+        if (conclusiveResponse == null) {
+            throw new FailedLoginException("No YubiKey validation endpoint produced a response");
+        }
+        return conclusiveResponse;
+    }
+
+    /**
+     * Gets per-endpoint statistics, keyed by endpoint url.
+     *
+     * @return the statistics
+     */
+    public Map<String, YubiKeyEndpointStatistics> getStatistics() {
+        return Collections.unmodifiableMap(this.statistics);
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Gets the response of a completed endpoint verification. A failure of one endpoint
+     * does not prevent the responses of the others from being considered.
+     *
+     * @param future the completed verification
+     * @return the response, or null if the verification failed
+     * @throws InterruptedException if the thread was interrupted
+     */
+    private VerificationResponse getResponse(final Future<VerificationResponse> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            logger.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void cancelPendingRequests(final List<Future<VerificationResponse>> futures) {
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<VerificationResponse> future = futures.get(i);
+            if (!future.isDone() && future.cancel(true)) {
+                final String url = this.clients.get(i).getWsapiUrls()[0];
+                this.statistics.get(url).recordTimeout();
+                logger.debug("YubiKey validation endpoint [{}] did not respond in time", url);
+            }
+        }
+    }
+
+    /**
+     * Sends the OTP to a single endpoint and records its latency.
+     */
+    private final class EndpointVerification implements Callable<VerificationResponse> {
+        private final YubicoClient client;
+        private final String otp;
+
+        EndpointVerification(final YubicoClient client, final String otp) {
+            this.client = client;
+            this.otp = otp;
+        }
+
+        @Override
+        public VerificationResponse call() {
+            final YubiKeyEndpointStatistics stats = statistics.get(this.client.getWsapiUrls()[0]);
+            final long start = System.nanoTime();
+            try {
+                final VerificationResponse response = this.client.verify(this.otp);
+                stats.recordResponse(System.nanoTime() - start, true);
+                logger.debug("YubiKey endpoint [{}] responded with status {}", stats.getEndpoint(), response.getStatus());
+                return response;
+            } catch (final YubicoVerificationException | YubicoValidationFailure e) {
+                stats.recordResponse(System.nanoTime() - start, false);
+                logger.warn("YubiKey endpoint [{}] failed to validate the OTP: {}", stats.getEndpoint(), e.getMessage());
+                return null;
+            }
+        }
+    }
+}
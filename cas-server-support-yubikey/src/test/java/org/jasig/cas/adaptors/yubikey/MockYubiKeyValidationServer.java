@@ -0,0 +1,127 @@
+package org.jasig.cas.adaptors.yubikey;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.binary.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process stand-in for a YubiKey validation server that speaks
+ * the Yubico validation protocol 2.0 and signs its responses with the API key.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class MockYubiKeyValidationServer implements HttpHandler {
+
+    private final HttpServer server;
+
+    private final byte[] key;
+
+    private final String status;
+
+    private final long delay;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * Instantiates a new server.
+     *
+     * @param secretKey the api key used to sign responses
+     * @param status the status every response carries
+     * @param delay time in milliseconds to wait before responding
+     * @throws IOException if the server cannot be bound
+     */
+    public MockYubiKeyValidationServer(final String secretKey, final String status, final long delay) throws IOException {
+        this.key = Base64.decodeBase64(secretKey);
+        this.status = status;
+        this.delay = delay;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/wsapi/2.0/verify", this);
+    }
+
+    public void start() {
+        this.server.start();
+    }
+
+    public void stop() {
+        this.server.stop(0);
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + this.server.getAddress().getPort() + "/wsapi/2.0/verify";
+    }
+
+    public int getRequests() {
+        return this.requests.get();
+    }
+
+    @Override
+    public void handle(final HttpExchange exchange) throws IOException {
+        this.requests.incrementAndGet();
+        try {
+            Thread.sleep(this.delay);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final Map<String, String> request = parseQuery(exchange.getRequestURI().getRawQuery());
+        final Map<String, String> response = new TreeMap<>();
+        response.put("t", "2016-01-01T00:00:00Z0000");
+        response.put("otp", request.get("otp"));
+        response.put("nonce", request.get("nonce"));
+        response.put("sl", "100");
+        response.put("status", this.status);
+
+        final StringBuilder signed = new StringBuilder();
+        for (final Map.Entry<String, String> entry : response.entrySet()) {
+            if (signed.length() > 0) {
+                signed.append('&');
+            }
+            signed.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+
+        final StringBuilder body = new StringBuilder();
+        body.append("h=").append(sign(signed.toString())).append("\r\n");
+        for (final Map.Entry<String, String> entry : response.entrySet()) {
+            body.append(entry.getKey()).append('=').append(entry.getValue()).append("\r\n");
+        }
+
+        final byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String sign(final String value) {
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(this.key, "HmacSHA1"));
+            return Base64.encodeBase64String(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> parseQuery(final String query) throws IOException {
+        final Map<String, String> params = new HashMap<>();
+        for (final String pair : query.split("&")) {
+            final int idx = pair.indexOf('=');
+            params.put(pair.substring(0, idx), URLDecoder.decode(pair.substring(idx + 1), "UTF-8"));
+        }
+        return params;
+    }
+}
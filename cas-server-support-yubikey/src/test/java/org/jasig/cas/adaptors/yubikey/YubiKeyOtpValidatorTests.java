@@ -0,0 +1,163 @@
+package org.jasig.cas.adaptors.yubikey;
+
+import com.yubico.client.v2.ResponseStatus;
+import org.jasig.cas.authentication.UsernamePasswordCredential;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.security.auth.login.FailedLoginException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link YubiKeyOtpValidator} running against {@link MockYubiKeyValidationServer}.
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class YubiKeyOtpValidatorTests {
+
+    private static final Integer CLIENT_ID = 18421;
+    private static final String SECRET_KEY = "iBIehjui12aK8x82oe5qzGeb0As=";
+    private static final String OTP = "cccccccvlidcnlednilgctgcvcjtivrjidfbdgrefcvi";
+
+    private MockYubiKeyValidationServer fastServer;
+    private MockYubiKeyValidationServer slowServer;
+    private MockYubiKeyValidationServer replayServer;
+
+    @Before
+    public void setUp() throws Exception {
+        this.fastServer = new MockYubiKeyValidationServer(SECRET_KEY, "OK", 0);
+        this.slowServer = new MockYubiKeyValidationServer(SECRET_KEY, "OK", 3000);
+        this.replayServer = new MockYubiKeyValidationServer(SECRET_KEY, "REPLAYED_OTP", 0);
+        this.fastServer.start();
+        this.slowServer.start();
+        this.replayServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.fastServer.stop();
+        this.slowServer.stop();
+        this.replayServer.stop();
+    }
+
+    @Test
+    public void verifyFirstSuccessfulEndpointWins() throws Exception {
+        final YubiKeyOtpValidator validator = new YubiKeyOtpValidator(CLIENT_ID, SECRET_KEY,
+                new String[] {this.slowServer.getUrl(), this.fastServer.getUrl()}, 2000);
+        try {
+            final long start = System.nanoTime();
+            assertEquals(ResponseStatus.OK, validator.verify(OTP).getStatus());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+            assertEquals(1, validator.getStatistics().get(this.fastServer.getUrl()).getRequests());
+        } finally {
+            validator.destroy();
+        }
+    }
+
+    @Test
+    public void verifySlowEndpointTimesOut() throws Exception {
+        final YubiKeyOtpValidator validator = new YubiKeyOtpValidator(CLIENT_ID, SECRET_KEY,
+                new String[] {this.slowServer.getUrl()}, 500);
+        try {
+            validator.verify(OTP);
+            fail("Validation should have timed out");
+        } catch (final FailedLoginException e) {
+            assertEquals(1, validator.getStatistics().get(this.slowServer.getUrl()).getTimeouts());
+        } finally {
+            validator.destroy();
+        }
+    }
+
+    @Test
+    public void verifyConclusiveFailure() throws Exception {
+        final YubiKeyOtpValidator validator = new YubiKeyOtpValidator(CLIENT_ID, SECRET_KEY,
+                new String[] {this.replayServer.getUrl()}, 2000);
+        try {
+            assertEquals(ResponseStatus.REPLAYED_OTP, validator.verify(OTP).getStatus());
+        } finally {
+            validator.destroy();
+        }
+    }
+
+    @Test
+    public void verifyReplayRejectedLocally() throws Exception {
+        final YubiKeyOtpValidator validator = new YubiKeyOtpValidator(CLIENT_ID, SECRET_KEY,
+                new String[] {this.fastServer.getUrl()}, 2000);
+        try {
+            assertEquals(ResponseStatus.OK, validator.verify(OTP).getStatus());
+            try {
+                validator.verify(OTP);
+                fail("Replayed OTP should have been rejected");
+            } catch (final FailedLoginException e) {
+                assertEquals(1, this.fastServer.getRequests());
+            }
+        } finally {
+            validator.destroy();
+        }
+    }
+
+    @Test
+    public void verifyConcurrentReplayRejected() throws Exception {
+        final MockYubiKeyValidationServer server = new MockYubiKeyValidationServer(SECRET_KEY, "OK", 300);
+        server.start();
+        final YubiKeyOtpValidator validator = new YubiKeyOtpValidator(CLIENT_ID, SECRET_KEY,
+                new String[] {server.getUrl()}, 2000);
+        try {
+            final AtomicInteger accepted = new AtomicInteger();
+            final Thread[] threads = new Thread[2];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            validator.verify(OTP);
+                            accepted.incrementAndGet();
+                        } catch (final FailedLoginException e) {
+                            return;
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(1, accepted.get());
+        } finally {
+            validator.destroy();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void verifyHandlerAuthenticatesAgainstLocalServer() throws Exception {
+        final YubiKeyAuthenticationHandler handler = new YubiKeyAuthenticationHandler(CLIENT_ID, SECRET_KEY,
+                this.fastServer.getUrl(), 2000);
+        try {
+            assertNotNull(handler.authenticate(new UsernamePasswordCredential("casuser", OTP)));
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    @Test
+    public void verifyCachedAccountRegistry() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final YubiKeyAccountRegistry registry = new CachingYubiKeyAccountRegistry(new YubiKeyAccountRegistry() {
+            @Override
+            public boolean isYubiKeyRegisteredFor(final String uid, final String yubikeyPublicId) {
+                lookups.incrementAndGet();
+                return "casuser".equals(uid);
+            }
+        }, TimeUnit.MINUTES, 5);
+
+        assertTrue(registry.isYubiKeyRegisteredFor("casuser", "cccccccvlidc"));
+        assertTrue(registry.isYubiKeyRegisteredFor("casuser", "cccccccvlidc"));
+        assertFalse(registry.isYubiKeyRegisteredFor("other", "cccccccvlidc"));
+        assertEquals(2, lookups.get());
+    }
+}
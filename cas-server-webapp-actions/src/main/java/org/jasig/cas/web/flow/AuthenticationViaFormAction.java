@@ -187,6 +187,7 @@ public class AuthenticationViaFormAction {
             final ServiceTicket serviceTicketId = this.centralAuthenticationService.grantServiceTicket(
                     ticketGrantingTicketId, service, authenticationContext);
             WebUtils.putServiceTicketInRequestScope(context, serviceTicketId);
+            WebUtils.removeTicketGrantingTicket(context);
             WebUtils.putWarnCookieIfRequestParameterPresent(this.warnCookieGenerator, context);
             return newEvent(AbstractCasWebflowConfigurer.TRANSITION_ID_WARN);
 
@@ -195,6 +196,7 @@ public class AuthenticationViaFormAction {
         } catch (final TicketCreationException e) {
             logger.warn("Invalid attempt to access service using renew=true with different credential. Ending SSO session.");
             this.centralAuthenticationService.destroyTicketGrantingTicket(ticketGrantingTicketId);
+            WebUtils.removeTicketGrantingTicket(context);
         } catch (final AbstractTicketException e) {
             return newEvent(AbstractCasWebflowConfigurer.TRANSITION_ID_ERROR, e);
         }
@@ -224,6 +226,7 @@ public class AuthenticationViaFormAction {
 
             final TicketGrantingTicket tgt = this.centralAuthenticationService.createTicketGrantingTicket(authenticationContext);
             WebUtils.putTicketGrantingTicketInScopes(context, tgt);
+            WebUtils.putTicketGrantingTicket(context, tgt);
             WebUtils.putWarnCookieIfRequestParameterPresent(this.warnCookieGenerator, context);
             putPublicWorkstationToFlowIfRequestParameterPresent(context);
             if (addWarningMessagesToMessageContextIfNeeded(tgt, messageContext)) {
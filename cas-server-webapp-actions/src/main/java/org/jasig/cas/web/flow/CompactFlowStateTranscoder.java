@@ -0,0 +1,236 @@
+package org.jasig.cas.web.flow;
+
+import org.cryptacular.CryptoException;
+import org.cryptacular.bean.CipherBean;
+import org.jasig.cas.services.RegisteredService;
+import org.jasig.cas.services.ServicesManager;
+import org.jasig.spring.webflow.plugin.Transcoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.constraints.NotNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Transcoder for the client-side login flow state that produces a much smaller
+ * {@code execution} parameter than {@link org.jasig.spring.webflow.plugin.EncryptedTranscoder}.
+ *
+ * <p>The flow state is serialized with registered services replaced by their id, since
+ * they are by far the largest flow-scope attribute and are resolved again from the
+ * {@link ServicesManager} when the state is restored. The result is deflated against a
+ * preset dictionary of the class and attribute names found in every CAS login flow,
+ * which is where most of a small serialized state goes, and then encrypted with the
+ * configured cipher. The cipher should be an authenticated one such as AES-GCM.</p>
+ *
+ * <p>The plaintext starts with a version, so that the dictionary and format can change
+ * without misreading states issued before an upgrade.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public final class CompactFlowStateTranscoder implements Transcoder {
+
+    /** Version of the state format. */
+    public static final int VERSION = 1;
+
+    private static final byte MAGIC = (byte) 0xCF;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private static final int BUFFER_SIZE = 512;
+
+    private static final byte[] DICTIONARY = (
+            "java.lang.Boolean java.lang.Integer java.lang.Long java.lang.Number java.util.HashMap "
+            + "java.util.LinkedHashMap java.util.ArrayList java.util.Collections$UnmodifiableMap "
+            + "org.springframework.webflow.core.collection.LocalAttributeMap "
+            + "org.springframework.webflow.core.collection.CollectionUtils "
+            + "org.springframework.webflow.engine.impl.FlowExecutionImpl "
+            + "org.springframework.webflow.engine.impl.FlowSessionImpl "
+            + "org.springframework.webflow.execution.FlowExecutionKey "
+            + "org.jasig.spring.webflow.plugin.SerializedFlowExecutionState "
+            + "org.jasig.spring.webflow.plugin.ClientFlowExecutionKey "
+            + "org.jasig.cas.authentication.UsernamePasswordCredential "
+            + "org.jasig.cas.authentication.RememberMeUsernamePasswordCredential "
+            + "org.jasig.cas.authentication.principal.SimpleWebApplicationServiceImpl "
+            + "org.jasig.cas.authentication.principal.AbstractWebApplicationService "
+            + "org.jasig.cas.authentication.principal.Response$ResponseType "
+            + "org.jasig.cas.web.flow.CompactFlowStateTranscoder$RegisteredServiceReference "
+            + "attributeMap attributes flowId stateId scope parent conversationScope flashScope "
+            + "credential service registeredService warnCookieValue ticketGrantingTicketId loginTicket "
+            + "originalUrl artifactId principal loggedOutJavascript username password rememberMe "
+            + "viewLoginForm realSubmit serviceAuthorizationCheck ticketGrantingTicketCheck "
+            + "generateLoginTicket initialFlowSetup gatewayRequestCheck casLoginView login").getBytes(StandardCharsets.UTF_8);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @NotNull
+    private final CipherBean cipherBean;
+
+    @NotNull
+    private final ServicesManager servicesManager;
+
+    /**
+     * Instantiates a new transcoder.
+     *
+     * @param cipherBean the cipher that encrypts and authenticates the state
+     * @param servicesManager the services manager used to restore registered services
+     */
+    public CompactFlowStateTranscoder(final CipherBean cipherBean, final ServicesManager servicesManager) {
+        this.cipherBean = cipherBean;
+        this.servicesManager = servicesManager;
+    }
+
+    @Override
+    public byte[] encode(final Object o) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        bytes.write(MAGIC);
+        bytes.write(VERSION);
+
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            try (final ObjectOutputStream out = new ReferencingObjectOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+                out.writeObject(o);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        try {
+            final byte[] encoded = this.cipherBean.encrypt(bytes.toByteArray());
+            logger.trace("Encoded flow state into {} bytes", encoded.length);
+            return encoded;
+        } catch (final CryptoException e) {
+            throw new IOException("Failed to encrypt the flow state", e);
+        }
+    }
+
+    @Override
+    public Object decode(final byte[] encoded) throws IOException {
+        final byte[] decrypted;
+        try {
+            decrypted = this.cipherBean.decrypt(encoded);
+        } catch (final CryptoException e) {
+            throw new IOException("Failed to decrypt the flow state", e);
+        }
+        if (decrypted.length < HEADER_LENGTH || decrypted[0] != MAGIC) {
+            throw new IOException("Flow state was not encoded by this transcoder");
+        }
+        if (decrypted[1] != VERSION) {
+            throw new IOException("Unsupported flow state version " + decrypted[1]);
+        }
+
+        final byte[] serialized = inflate(decrypted);
+        try (final ObjectInputStream in = new ReferencingObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        } catch (final ClassNotFoundException e) {
+            throw new IOException("Flow state refers to an unknown class", e);
+        }
+    }
+
+    private static byte[] inflate(final byte[] decrypted) throws IOException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(decrypted, HEADER_LENGTH, decrypted.length - HEADER_LENGTH);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE * 2);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                final int count = inflater.inflate(buffer);
+                if (count == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new IOException("Flow state is truncated");
+                    }
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (final DataFormatException e) {
+            throw new IOException("Flow state is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writes registered services as references to their id.
+     */
+    private static final class ReferencingObjectOutputStream extends ObjectOutputStream {
+        ReferencingObjectOutputStream(final OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) throws IOException {
+            if (obj instanceof RegisteredService) {
+                return new RegisteredServiceReference(((RegisteredService) obj).getId());
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Restores registered services from the services manager, and resolves classes
+     * from the web application rather than from wherever this class was loaded.
+     */
+    private final class ReferencingObjectInputStream extends ObjectInputStream {
+        ReferencingObjectInputStream(final InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, loader);
+                } catch (final ClassNotFoundException e) {
+                    logger.trace("Class {} is not visible to the context class loader", desc.getName());
+                }
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) throws IOException {
+            if (obj instanceof RegisteredServiceReference) {
+                final long id = ((RegisteredServiceReference) obj).id;
+                final RegisteredService service = servicesManager.findServiceBy(id);
+                if (service == null) {
+                    logger.debug("Registered service {} referenced by the flow state no longer exists", id);
+                }
+                return service;
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Stands in for a registered service in the serialized flow state.
+     */
+    private static final class RegisteredServiceReference implements Serializable {
+        private static final long serialVersionUID = 4163459254452405317L;
+
+        private final long id;
+
+        RegisteredServiceReference(final long id) {
+            this.id = id;
+        }
+    }
+}
@@ -63,6 +63,7 @@ public final class GenerateServiceTicketAction extends AbstractAction {
             final ServiceTicket serviceTicketId = this.centralAuthenticationService
                     .grantServiceTicket(ticketGrantingTicket, service, authenticationContext);
             WebUtils.putServiceTicketInRequestScope(context, serviceTicketId);
+            WebUtils.removeTicketGrantingTicket(context);
             return success();
 
         } catch (final AuthenticationException e) {
@@ -70,6 +71,7 @@ public final class GenerateServiceTicketAction extends AbstractAction {
         } catch (final AbstractTicketException e) {
             if (e instanceof InvalidTicketException) {
                 this.centralAuthenticationService.destroyTicketGrantingTicket(ticketGrantingTicket);
+                WebUtils.removeTicketGrantingTicket(context);
             }
             if (isGatewayPresent(context)) {
                 return result("gateway");
@@ -5,11 +5,13 @@ import org.jasig.cas.authentication.principal.NullPrincipal;
 import org.jasig.cas.authentication.principal.Principal;
 import org.jasig.cas.ticket.InvalidTicketException;
 import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.web.support.WebUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.webflow.execution.RequestContext;
 
 /**
  * Action that should execute prior to rendering the generic-success login view.
@@ -34,6 +36,22 @@ public final class GenericSuccessViewAction {
         this.centralAuthenticationService = centralAuthenticationService;
     }
 
+    /**
+     * Gets authentication principal of the ticket granting ticket of the flow,
+     * reusing the ticket if it was already resolved in the current request.
+     *
+     * @param context the request context
+     * @return the authentication principal, or {@link org.jasig.cas.authentication.principal.NullPrincipal}
+     * if none was available.
+     */
+    public Principal getAuthenticationPrincipal(final RequestContext context) {
+        final TicketGrantingTicket ticketGrantingTicket = WebUtils.getTicketGrantingTicket(context);
+        if (ticketGrantingTicket != null) {
+            return ticketGrantingTicket.getAuthentication().getPrincipal();
+        }
+        return getAuthenticationPrincipal(WebUtils.getTicketGrantingTicketId(context));
+    }
+
     /**
      * Gets authentication principal.
      *
@@ -3,7 +3,6 @@ package org.jasig.cas.web.flow;
 import org.jasig.cas.CentralAuthenticationService;
 import org.jasig.cas.authentication.principal.Service;
 import org.jasig.cas.ticket.AbstractTicketException;
-import org.jasig.cas.ticket.Ticket;
 import org.jasig.cas.ticket.TicketGrantingTicket;
 import org.jasig.cas.web.support.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,7 +68,8 @@ public class TicketGrantingTicketCheckAction extends AbstractAction {
     }
 
     /**
-     * Determines whether the TGT in the flow request context is valid.
+     * Determines whether the TGT in the flow request context is valid. A valid TGT is kept in request scope,
+     * so that the actions that follow in the same request do not fetch it from the registry again.
      *
      * @param requestContext Flow request context.
      *
@@ -85,9 +85,10 @@ public class TicketGrantingTicketCheckAction extends AbstractAction {
 
         String eventId = INVALID;
         try {
-            final Ticket ticket = this.centralAuthenticationService.getTicket(tgtId, Ticket.class);
-            
-            final TicketGrantingTicket ticketGrantingTicket = (TicketGrantingTicket) ticket;
+            TicketGrantingTicket ticketGrantingTicket = WebUtils.getTicketGrantingTicket(requestContext);
+            if (ticketGrantingTicket == null) {
+                ticketGrantingTicket = this.centralAuthenticationService.getTicket(tgtId, TicketGrantingTicket.class);
+            }
             final HttpServletRequest request = WebUtils.getHttpServletRequest(requestContext);
             
             final Map<String, Service> services = ticketGrantingTicket.getServices();
@@ -96,13 +97,18 @@ public class TicketGrantingTicketCheckAction extends AbstractAction {
 	            final String serviceId = service.getValue().getId();
 	            final String tenantNameOfService = AuthUtils.extractTenantID(serviceId);
 	            final String tenantNameOfRequest = AuthUtils.extractTenantID(request);
-	            if (ticket != null && !ticket.isExpired() && tenantNameOfService.equals(tenantNameOfRequest)) {
+	            if (!ticketGrantingTicket.isExpired() && tenantNameOfService.equals(tenantNameOfRequest)) {
 	                eventId = VALID;
 	            }
             }
             else {
             	logger.trace("Could not retrieve any services from a ticket granting ticket(tgtId: "+ tgtId + ").");
             }
+            if (VALID.equals(eventId)) {
+                WebUtils.putTicketGrantingTicket(requestContext, ticketGrantingTicket);
+            } else {
+                WebUtils.removeTicketGrantingTicket(requestContext);
+            }
         } catch (final AbstractTicketException e) {
             logger.trace("Could not retrieve ticket id {} from registry.", e);
         }
@@ -0,0 +1,97 @@
+package org.jasig.cas.web.flow;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.cryptacular.bean.AEADBlockCipherBean;
+import org.cryptacular.generator.sp80038d.RBGNonce;
+import org.cryptacular.spec.AEADBlockCipherSpec;
+import org.jasig.cas.services.DefaultServicesManagerImpl;
+import org.jasig.cas.services.InMemoryServiceRegistryDaoImpl;
+import org.jasig.cas.services.RegexRegisteredService;
+import org.jasig.cas.services.RegisteredService;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.KeyGenerator;
+import java.io.IOException;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class CompactFlowStateTranscoderTests {
+
+    private static final String KEY_ALIAS = "aes128";
+
+    private static final String KEY_PASSWORD = "changeit";
+
+    private RegexRegisteredService registeredService;
+
+    private CompactFlowStateTranscoder transcoder;
+
+    @Before
+    public void setUp() throws Exception {
+        this.registeredService = new RegexRegisteredService();
+        this.registeredService.setId(1000);
+        this.registeredService.setName("Test service");
+        this.registeredService.setServiceId("^https://app.example.org/.*");
+        this.registeredService.setDescription("A service with a long description that takes up room in the flow state");
+
+        final InMemoryServiceRegistryDaoImpl dao = new InMemoryServiceRegistryDaoImpl();
+        dao.setRegisteredServices(Collections.<RegisteredService>singletonList(this.registeredService));
+
+        final KeyStore keyStore = KeyStore.getInstance("JCEKS");
+        keyStore.load(null, null);
+        final KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(128);
+        keyStore.setEntry(KEY_ALIAS, new KeyStore.SecretKeyEntry(generator.generateKey()),
+                new KeyStore.PasswordProtection(KEY_PASSWORD.toCharArray()));
+
+        final AEADBlockCipherBean cipherBean = new AEADBlockCipherBean();
+        cipherBean.setKeyStore(keyStore);
+        cipherBean.setKeyAlias(KEY_ALIAS);
+        cipherBean.setKeyPassword(KEY_PASSWORD);
+        cipherBean.setNonce(new RBGNonce());
+        cipherBean.setBlockCipherSpec(new AEADBlockCipherSpec("AES", "GCM"));
+
+        this.transcoder = new CompactFlowStateTranscoder(cipherBean, new DefaultServicesManagerImpl(dao));
+    }
+
+    @Test
+    public void verifyRoundTripRestoresRegisteredService() throws Exception {
+        final Map<String, Object> flowScope = newFlowScope();
+
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> decoded = (Map<String, Object>) this.transcoder.decode(this.transcoder.encode(flowScope));
+
+        assertEquals("TGT-1-example", decoded.get("ticketGrantingTicketId"));
+        assertEquals(Boolean.TRUE, decoded.get("warnCookieValue"));
+        assertEquals(this.registeredService, decoded.get("registeredService"));
+    }
+
+    @Test
+    public void verifyEncodedStateIsSmallerThanSerializedState() throws Exception {
+        final HashMap<String, Object> flowScope = newFlowScope();
+        assertTrue(this.transcoder.encode(flowScope).length < SerializationUtils.serialize(flowScope).length);
+    }
+
+    @Test(expected = IOException.class)
+    public void verifyTamperedStateIsRejected() throws Exception {
+        final byte[] encoded = this.transcoder.encode(newFlowScope());
+        encoded[encoded.length - 1] ^= 1;
+        this.transcoder.decode(encoded);
+    }
+
+    private HashMap<String, Object> newFlowScope() {
+        final HashMap<String, Object> flowScope = new HashMap<>();
+        flowScope.put("ticketGrantingTicketId", "TGT-1-example");
+        flowScope.put("warnCookieValue", Boolean.TRUE);
+        flowScope.put("registeredService", this.registeredService);
+        return flowScope;
+    }
+}
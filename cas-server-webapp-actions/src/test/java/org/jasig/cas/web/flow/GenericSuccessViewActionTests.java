@@ -7,7 +7,9 @@ import org.jasig.cas.authentication.principal.Principal;
 import org.jasig.cas.ticket.InvalidTicketException;
 import org.jasig.cas.ticket.Ticket;
 import org.jasig.cas.ticket.TicketGrantingTicket;
+import org.jasig.cas.web.support.WebUtils;
 import org.junit.Test;
+import org.springframework.webflow.test.MockRequestContext;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -46,4 +48,46 @@ public class GenericSuccessViewActionTests {
         assertNotNull(p);
         assertTrue(p instanceof NullPrincipal);
     }
+
+    @Test
+    public void verifyResolvedTicketIsReused() throws InvalidTicketException {
+        final CentralAuthenticationService cas = mock(CentralAuthenticationService.class);
+        final TicketGrantingTicket tgt = mockTicketGrantingTicket("TGT-1");
+
+        final MockRequestContext context = new MockRequestContext();
+        WebUtils.putTicketGrantingTicketInScopes(context, "TGT-1");
+        WebUtils.putTicketGrantingTicket(context, tgt);
+
+        final GenericSuccessViewAction action = new GenericSuccessViewAction(cas);
+        final Principal p = action.getAuthenticationPrincipal(context);
+        assertEquals(p.getId(), "cas");
+        verify(cas, never()).getTicket(any(String.class), any(Ticket.class.getClass()));
+    }
+
+    @Test
+    public void verifyResolvedTicketOfAnotherSessionIsIgnored() throws InvalidTicketException {
+        final CentralAuthenticationService cas = mock(CentralAuthenticationService.class);
+        final TicketGrantingTicket tgt = mockTicketGrantingTicket("TGT-2");
+        when(cas.getTicket(eq("TGT-2"), any(Ticket.class.getClass()))).thenReturn(tgt);
+
+        final MockRequestContext context = new MockRequestContext();
+        WebUtils.putTicketGrantingTicket(context, mockTicketGrantingTicket("TGT-1"));
+        WebUtils.putTicketGrantingTicketInScopes(context, "TGT-2");
+
+        final GenericSuccessViewAction action = new GenericSuccessViewAction(cas);
+        final Principal p = action.getAuthenticationPrincipal(context);
+        assertEquals(p.getId(), "cas");
+        verify(cas).getTicket(eq("TGT-2"), any(Ticket.class.getClass()));
+        assertNull(WebUtils.getTicketGrantingTicket(context));
+    }
+
+    private static TicketGrantingTicket mockTicketGrantingTicket(final String id) {
+        final Authentication authn = mock(Authentication.class);
+        when(authn.getPrincipal()).thenReturn(
+                org.jasig.cas.authentication.TestUtils.getPrincipal("cas"));
+        final TicketGrantingTicket tgt = mock(TicketGrantingTicket.class);
+        when(tgt.getId()).thenReturn(id);
+        when(tgt.getAuthentication()).thenReturn(authn);
+        return tgt;
+    }
 }
@@ -1,5 +1,11 @@
 package org.jasig.cas.web.support;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.jasig.cas.CipherExecutor;
 import org.jasig.cas.util.NoOpCipherExecutor;
@@ -7,15 +13,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The {@link DefaultCasCookieValueManager} is responsible creating
  * the CAS SSO sookie and encrypting and signing its value.
  *
+ * <p>Decoded cookie values are kept in a small bounded cache keyed by the encoded
+ * cookie value, so that the signature verification and decryption run once per cookie
+ * rather than once per request. The remote address and user-agent checks are always
+ * applied to the current request, whether the value was decoded or cached.</p>
+ *
  * @author Misagh Moayyed
  * @since 4.1
  */
@@ -24,10 +37,21 @@ public final class DefaultCasCookieValueManager implements CookieValueManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultCasCookieValueManager.class);
     private static final char COOKIE_FIELD_SEPARATOR = '@';
     private static final int COOKIE_FIELDS_LENGTH = 3;
+    private static final int DEFAULT_DECODE_CACHE_SIZE = 10000;
+    private static final long DEFAULT_DECODE_CACHE_TTL = 7200;
 
     /** The cipher exec that is responsible for encryption and signing of the cookie. */
     private final CipherExecutor<String, String> cipherExecutor;
 
+    private final Timer decodeTimer = new Timer();
+
+    private long decodeCacheSize = DEFAULT_DECODE_CACHE_SIZE;
+
+    private long decodeCacheTimeToLiveInSeconds = DEFAULT_DECODE_CACHE_TTL;
+
+    /** Decoded cookie fields, keyed by the encoded cookie value; null when caching is disabled. */
+    private volatile Cache<String, String[]> decodeCache;
+
     /**
      * Instantiates a new Cas cookie value manager.
      * Set the default cipher to do absolutely  nothing.
@@ -45,6 +69,7 @@ public final class DefaultCasCookieValueManager implements CookieValueManager {
     public DefaultCasCookieValueManager(@Qualifier("defaultCookieCipherExecutor")
                                             final CipherExecutor<String, String> cipherExecutor) {
         this.cipherExecutor = cipherExecutor;
+        this.decodeCache = buildDecodeCache();
         LOGGER.debug("Using cipher [{} to encrypt and decode the cookie",
                 this.cipherExecutor.getClass());
     }
@@ -74,26 +99,14 @@ public final class DefaultCasCookieValueManager implements CookieValueManager {
 
     @Override
     public String obtainCookieValue(final Cookie cookie, final HttpServletRequest request) {
-        final String cookieValue = this.cipherExecutor.decode(cookie.getValue());
-        LOGGER.debug("Decoded cookie value is [{}]", cookieValue);
-        if (StringUtils.isBlank(cookieValue)) {
-            LOGGER.debug("Retrieved decoded cookie value is blank. Failed to decode cookie [{}]", cookie.getName());
+        final String[] cookieParts = getCookieParts(cookie);
+        if (cookieParts == null) {
             return null;
         }
-
-        final String[] cookieParts = cookieValue.split(String.valueOf(COOKIE_FIELD_SEPARATOR));
-        if (cookieParts.length != COOKIE_FIELDS_LENGTH) {
-            throw new IllegalStateException("Invalid cookie. Required fields are missing");
-        }
         final String value = cookieParts[0];
         final String remoteAddr = cookieParts[1];
         final String userAgent = cookieParts[2];
 
-        if (StringUtils.isBlank(value) || StringUtils.isBlank(remoteAddr)
-                || StringUtils.isBlank(userAgent)) {
-            throw new IllegalStateException("Invalid cookie. Required fields are empty");
-        }
-
         if (!remoteAddr.equals(request.getRemoteAddr())) {
             throw new IllegalStateException("Invalid cookie. Required remote address does not match "
                     + request.getRemoteAddr());
@@ -105,4 +118,118 @@ public final class DefaultCasCookieValueManager implements CookieValueManager {
         }
         return value;
     }
+
+    /**
+     * Sets the maximum number of decoded cookie values kept in memory.
+     * A size of zero disables the cache.
+     *
+     * @param decodeCacheSize the cache size
+     */
+    @Autowired
+    public void setDecodeCacheSize(@Value("${tgc.decode.cache.size:10000}") final long decodeCacheSize) {
+        this.decodeCacheSize = decodeCacheSize;
+        this.decodeCache = buildDecodeCache();
+    }
+
+    /**
+     * Sets how long a decoded cookie value is kept in memory. This should not exceed
+     * the lifetime of the ticket-granting ticket; zero disables the cache.
+     *
+     * @param decodeCacheTimeToLiveInSeconds the time to live in seconds
+     */
+    @Autowired
+    public void setDecodeCacheTimeToLiveInSeconds(
+            @Value("${tgc.decode.cache.timeToLiveInSeconds:${tgt.timeToKillInSeconds:7200}}")
+            final long decodeCacheTimeToLiveInSeconds) {
+        this.decodeCacheTimeToLiveInSeconds = decodeCacheTimeToLiveInSeconds;
+        this.decodeCache = buildDecodeCache();
+    }
+
+    /**
+     * Registers the decode cache hit ratio, the decode timer and the estimated
+     * time saved by cache hits with the metric registry.
+     *
+     * @param metricRegistry the metric registry
+     */
+    @Autowired(required = false)
+    public void setMetricRegistry(@Qualifier("metrics") final MetricRegistry metricRegistry) {
+        final String prefix = MetricRegistry.name(DefaultCasCookieValueManager.class, "decode");
+        metricRegistry.register(MetricRegistry.name(prefix, "time"), this.decodeTimer);
+        metricRegistry.register(MetricRegistry.name(prefix, "cache", "hitRatio"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                final Cache<String, String[]> cache = decodeCache;
+                return cache == null ? Ratio.of(0, 0)
+                        : Ratio.of(cache.stats().hitCount(), cache.stats().requestCount());
+            }
+        });
+        metricRegistry.register(MetricRegistry.name(prefix, "cache", "savedMillis"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                final Cache<String, String[]> cache = decodeCache;
+                if (cache == null) {
+                    return 0L;
+                }
+                final double meanNanos = decodeTimer.getSnapshot().getMean();
+                return TimeUnit.NANOSECONDS.toMillis((long) (meanNanos * cache.stats().hitCount()));
+            }
+        });
+    }
+
+    /**
+     * Decode the cookie into its value, remote address and user-agent fields,
+     * reusing a previous decode of the same cookie value if one is cached.
+     *
+     * @param cookie the cookie
+     * @return the cookie fields, or null if the cookie could not be decoded
+     */
+    private String[] getCookieParts(final Cookie cookie) {
+        final Cache<String, String[]> cache = this.decodeCache;
+        if (cache != null) {
+            final String[] cached = cache.getIfPresent(cookie.getValue());
+            if (cached != null) {
+                LOGGER.trace("Found decoded value of cookie [{}] in cache", cookie.getName());
+                return cached;
+            }
+        }
+
+        final Timer.Context context = this.decodeTimer.time();
+        final String cookieValue;
+        try {
+            cookieValue = this.cipherExecutor.decode(cookie.getValue());
+        } finally {
+            context.stop();
+        }
+        LOGGER.debug("Decoded cookie value is [{}]", cookieValue);
+        if (StringUtils.isBlank(cookieValue)) {
+            LOGGER.debug("Retrieved decoded cookie value is blank. Failed to decode cookie [{}]", cookie.getName());
+            return null;
+        }
+
+        final String[] cookieParts = cookieValue.split(String.valueOf(COOKIE_FIELD_SEPARATOR));
+        if (cookieParts.length != COOKIE_FIELDS_LENGTH) {
+            throw new IllegalStateException("Invalid cookie. Required fields are missing");
+        }
+        if (StringUtils.isBlank(cookieParts[0]) || StringUtils.isBlank(cookieParts[1])
+                || StringUtils.isBlank(cookieParts[2])) {
+            throw new IllegalStateException("Invalid cookie. Required fields are empty");
+        }
+
+        if (cache != null) {
+            cache.put(cookie.getValue(), cookieParts);
+        }
+        return cookieParts;
+    }
+
+    private Cache<String, String[]> buildDecodeCache() {
+        if (this.cipherExecutor instanceof NoOpCipherExecutor
+                || this.decodeCacheSize <= 0 || this.decodeCacheTimeToLiveInSeconds <= 0) {
+            return null;
+        }
+        return CacheBuilder.newBuilder()
+                .maximumSize(this.decodeCacheSize)
+                .expireAfterWrite(this.decodeCacheTimeToLiveInSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
 }
@@ -0,0 +1,15 @@
+package org.jasig.cas.web.support;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+/**
+ * This is {@link AllTestsSuite}.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+@RunWith(Suite.class)
+@Suite.SuiteClasses({DefaultCasCookieValueManagerTests.class})
+public class AllTestsSuite {
+}
@@ -0,0 +1,162 @@
+package org.jasig.cas.web.support;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.jasig.cas.CipherExecutor;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.http.Cookie;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link DefaultCasCookieValueManager} and its decode cache.
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class DefaultCasCookieValueManagerTests {
+
+    private static final String PREFIX = "signed:";
+
+    private static final String USER_AGENT = "user-agent";
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    private DefaultCasCookieValueManager manager;
+
+    @Before
+    public void setUp() {
+        this.manager = new DefaultCasCookieValueManager(new CipherExecutor<String, String>() {
+            @Override
+            public String encode(final String value) {
+                return PREFIX + value;
+            }
+
+            @Override
+            public String decode(final String value) {
+                decodes.incrementAndGet();
+                return value.startsWith(PREFIX) ? value.substring(PREFIX.length()) : null;
+            }
+        });
+    }
+
+    @Test
+    public void verifyCachedValueIsReused() {
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", this.manager.buildCookieValue("TGT-1", request));
+
+        assertEquals("TGT-1", this.manager.obtainCookieValue(cookie, request));
+        assertEquals("TGT-1", this.manager.obtainCookieValue(cookie, request));
+        assertEquals(1, this.decodes.get());
+    }
+
+    @Test
+    public void verifyCachedValueFromAnotherAddressIsRejected() {
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", this.manager.buildCookieValue("TGT-1", request));
+        assertEquals("TGT-1", this.manager.obtainCookieValue(cookie, request));
+
+        try {
+            this.manager.obtainCookieValue(cookie, newRequest("10.0.0.1", "firefox"));
+            fail("Cookie presented from another remote address should have been rejected");
+        } catch (final IllegalStateException e) {
+            assertEquals(1, this.decodes.get());
+        }
+    }
+
+    @Test
+    public void verifyCachedValueFromAnotherUserAgentIsRejected() {
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", this.manager.buildCookieValue("TGT-1", request));
+        assertEquals("TGT-1", this.manager.obtainCookieValue(cookie, request));
+
+        try {
+            this.manager.obtainCookieValue(cookie, newRequest("127.0.0.1", "chrome"));
+            fail("Cookie presented from another user-agent should have been rejected");
+        } catch (final IllegalStateException e) {
+            assertEquals(1, this.decodes.get());
+        }
+    }
+
+    @Test
+    public void verifyUndecodableCookieIsNotCached() {
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", "tampered");
+
+        assertNull(this.manager.obtainCookieValue(cookie, request));
+        assertNull(this.manager.obtainCookieValue(cookie, request));
+        assertEquals(2, this.decodes.get());
+    }
+
+    @Test
+    public void verifyMalformedCookieIsNotCached() {
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", PREFIX + "TGT-1@127.0.0.1");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                this.manager.obtainCookieValue(cookie, request);
+                fail("Cookie with missing fields should have been rejected");
+            } catch (final IllegalStateException e) {
+                assertEquals(i + 1, this.decodes.get());
+            }
+        }
+    }
+
+    @Test
+    public void verifyZeroSizeDisablesCache() {
+        this.manager.setDecodeCacheSize(0);
+        assertCookieDecodedOnEveryRequest();
+    }
+
+    @Test
+    public void verifyZeroTimeToLiveDisablesCache() {
+        this.manager.setDecodeCacheTimeToLiveInSeconds(0);
+        assertCookieDecodedOnEveryRequest();
+    }
+
+    @Test
+    public void verifyMetricsRegistered() throws Exception {
+        final Annotation[] annotations = DefaultCasCookieValueManager.class
+                .getMethod("setMetricRegistry", MetricRegistry.class).getParameterAnnotations()[0];
+        assertEquals(1, annotations.length);
+        assertEquals("metrics", ((Qualifier) annotations[0]).value());
+
+        final MetricRegistry registry = new MetricRegistry();
+        this.manager.setMetricRegistry(registry);
+        final String prefix = MetricRegistry.name(DefaultCasCookieValueManager.class, "decode");
+        assertTrue(registry.getTimers().containsKey(MetricRegistry.name(prefix, "time")));
+
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", this.manager.buildCookieValue("TGT-1", request));
+        this.manager.obtainCookieValue(cookie, request);
+        this.manager.obtainCookieValue(cookie, request);
+
+        final Gauge<?> hitRatio = registry.getGauges().get(MetricRegistry.name(prefix, "cache", "hitRatio"));
+        assertEquals(0.5, (Double) hitRatio.getValue(), 0.0);
+        assertTrue(registry.getGauges().containsKey(MetricRegistry.name(prefix, "cache", "savedMillis")));
+        assertEquals(1, registry.timer(MetricRegistry.name(prefix, "time")).getCount());
+    }
+
+    private void assertCookieDecodedOnEveryRequest() {
+        final MockHttpServletRequest request = newRequest("127.0.0.1", "firefox");
+        final Cookie cookie = new Cookie("TGC", this.manager.buildCookieValue("TGT-1", request));
+
+        assertEquals("TGT-1", this.manager.obtainCookieValue(cookie, request));
+        assertEquals("TGT-1", this.manager.obtainCookieValue(cookie, request));
+        assertEquals(2, this.decodes.get());
+    }
+
+    private static MockHttpServletRequest newRequest(final String remoteAddr, final String userAgent) {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(USER_AGENT, userAgent);
+        return request;
+    }
+}
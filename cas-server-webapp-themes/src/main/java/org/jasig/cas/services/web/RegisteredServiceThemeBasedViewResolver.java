@@ -3,10 +3,15 @@ package org.jasig.cas.services.web;
 import org.jasig.cas.authentication.principal.WebApplicationService;
 import org.jasig.cas.services.RegisteredService;
 import org.jasig.cas.services.ServicesManager;
+import org.jasig.cas.support.events.AbstractCasEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceDeletedEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
+import org.jasig.cas.support.events.CasRegisteredServicesLoadedEvent;
 import org.jasig.cas.web.support.WebUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationListener;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.view.AbstractUrlBasedView;
 import org.springframework.web.servlet.view.InternalResourceView;
@@ -14,6 +19,8 @@ import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.webflow.execution.RequestContext;
 import org.springframework.webflow.execution.RequestContextHolder;
 
+import java.util.Locale;
+
 /**
  * {@link RegisteredServiceThemeBasedViewResolver} is an alternate Spring View Resolver that utilizes a service's
  * associated theme to selectively choose which set of UI views will be used to generate
@@ -31,14 +38,18 @@ import org.springframework.webflow.execution.RequestContextHolder;
  * for a different type of audience are entirely different structurally that simply
  * using the {@link org.jasig.cas.services.web.ServiceThemeResolver} is not practical
  * to augment the default views. In such cases, new view pages may be required.</p>
+ * <p>Views are cached per theme, view name and locale. The theme is still determined
+ * for each request, and the cache is cleared whenever services are saved or deleted.</p>
  *
  * @author John Gasper
  * @author Misagh Moayyed
  * @since 4.1.0
  */
-public final class RegisteredServiceThemeBasedViewResolver extends InternalResourceViewResolver {
+public final class RegisteredServiceThemeBasedViewResolver extends InternalResourceViewResolver
+        implements ApplicationListener<AbstractCasEvent> {
     private static final Logger LOGGER = LoggerFactory.getLogger(RegisteredServiceThemeBasedViewResolver.class);
     private static final String THEME_LOCATION_PATTERN = "%s/%s/ui/";
+    private static final String DEFAULT_THEME = "default";
 
     /**
      * The ServiceRegistry to look up the service.
@@ -50,15 +61,25 @@ public final class RegisteredServiceThemeBasedViewResolver extends InternalResou
      * The {@link RegisteredServiceThemeBasedViewResolver} constructor.
      *
      * @param servicesManager the serviceManager implementation
-     * @see #setCache(boolean)
      */
     public RegisteredServiceThemeBasedViewResolver(final ServicesManager servicesManager) {
         super();
-        super.setCache(false);
-
         this.servicesManager = servicesManager;
     }
 
+    /**
+     * Views are cached by the theme of the service being requested, on top of the
+     * view name and locale.
+     *
+     * @param viewName the name of the view
+     * @param locale the locale
+     * @return the cache key
+     */
+    @Override
+    protected Object getCacheKey(final String viewName, final Locale locale) {
+        return resolveTheme() + '/' + super.getCacheKey(viewName, locale);
+    }
+
     /**
      * Uses the viewName and the theme associated with the service.
      * being requested and returns the appropriate view.
@@ -69,30 +90,11 @@ public final class RegisteredServiceThemeBasedViewResolver extends InternalResou
      */
     @Override
     protected AbstractUrlBasedView buildView(final String viewName) throws Exception {
-        final RequestContext requestContext = RequestContextHolder.getRequestContext();
-        final WebApplicationService service = WebUtils.getService(requestContext);
-        final RegisteredService registeredService = this.servicesManager.findServiceBy(service);
-
         final InternalResourceView view = (InternalResourceView) BeanUtils.instantiateClass(getViewClass());
 
-        final String defaultThemePrefix = String.format(THEME_LOCATION_PATTERN, getPrefix(), "default");
-        final String defaultViewUrl = defaultThemePrefix + viewName + getSuffix();
-        view.setUrl(defaultViewUrl);
-
-        if (service != null && registeredService != null
-            && registeredService.getAccessStrategy().isServiceAccessAllowed()
-            && StringUtils.hasText(registeredService.getTheme())) {
-
-            LOGGER.debug("Attempting to locate views for service [{}] with theme [{}]",
-                registeredService.getServiceId(), registeredService.getTheme());
-
-            final String themePrefix = String.format(THEME_LOCATION_PATTERN, getPrefix(), registeredService.getTheme());
-            LOGGER.debug("Prefix [{}] set for service [{}] with theme [{}]", themePrefix, service,
-                registeredService.getTheme());
-            final String viewUrl = themePrefix + viewName + getSuffix();
-            view.setUrl(viewUrl);
-
-        }
+        final String themePrefix = String.format(THEME_LOCATION_PATTERN, getPrefix(), resolveTheme());
+        LOGGER.debug("Prefix [{}] set for view [{}]", themePrefix, viewName);
+        view.setUrl(themePrefix + viewName + getSuffix());
 
         final String contentType = getContentType();
         if (contentType != null) {
@@ -111,16 +113,36 @@ public final class RegisteredServiceThemeBasedViewResolver extends InternalResou
         return view;
     }
 
+    @Override
+    public void onApplicationEvent(final AbstractCasEvent event) {
+        if (event instanceof CasRegisteredServiceSavedEvent
+                || event instanceof CasRegisteredServiceDeletedEvent
+                || event instanceof CasRegisteredServicesLoadedEvent) {
+            LOGGER.debug("Clearing cached views after {}", event.getClass().getSimpleName());
+            clearCache();
+        }
+    }
+
     /**
-     * setCache is not supported in the {@link RegisteredServiceThemeBasedViewResolver} because each
-     * request must be independently evaluated.
+     * Determine the theme of the service being requested.
      *
-     * @param cache a value indicating whether the view should cache results.
+     * @return the theme of the service, if it is allowed access and has one, or the default theme.
      */
-    @Override
-    public void setCache(final boolean cache) {
-        LOGGER.warn("The {} does not support caching. Turned off caching forcefully.", this.getClass().getSimpleName());
-        super.setCache(false);
+    private String resolveTheme() {
+        final RequestContext requestContext = RequestContextHolder.getRequestContext();
+        final WebApplicationService service = WebUtils.getService(requestContext);
+        if (service == null) {
+            return DEFAULT_THEME;
+        }
+        final RegisteredService registeredService = this.servicesManager.findServiceBy(service);
+        if (registeredService != null
+            && registeredService.getAccessStrategy().isServiceAccessAllowed()
+            && StringUtils.hasText(registeredService.getTheme())) {
+            LOGGER.debug("Attempting to locate views for service [{}] with theme [{}]",
+                registeredService.getServiceId(), registeredService.getTheme());
+            return registeredService.getTheme();
+        }
+        return DEFAULT_THEME;
     }
 
 }
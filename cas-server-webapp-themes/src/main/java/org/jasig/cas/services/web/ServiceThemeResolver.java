@@ -1,15 +1,22 @@
 package org.jasig.cas.services.web;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.jasig.cas.authentication.principal.Service;
 import org.jasig.cas.services.RegisteredService;
 import org.jasig.cas.services.ServicesManager;
+import org.jasig.cas.support.events.AbstractCasEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceDeletedEvent;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
+import org.jasig.cas.support.events.CasRegisteredServicesLoadedEvent;
 import org.jasig.cas.web.support.WebUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.theme.AbstractThemeResolver;
@@ -31,15 +38,25 @@ import java.util.regex.Pattern;
  * and attempt to match the URL provided to a Service Id. If the service is
  * found, the theme associated with it will be used. If not, these is associated
  * with the service or the service was not found, a default theme will be used.
+ * <p>The browser type of each user agent, and whether the bundle of a theme exists
+ * for a locale, are remembered in bounded caches. Theme bundles are looked up again
+ * once services are saved or deleted.</p>
  *
  * @author Scott Battaglia
  * @since 3.0.0
  */
 @Component("serviceThemeResolver")
-public final class ServiceThemeResolver extends AbstractThemeResolver {
+public final class ServiceThemeResolver extends AbstractThemeResolver implements ApplicationListener<AbstractCasEvent> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ServiceThemeResolver.class);
 
+    private static final int MAX_CACHED_USER_AGENTS = 1000;
+
+    private static final int MAX_CACHED_THEME_BUNDLES = 500;
+
+    /** Browser type of user agents that match none of the overrides. */
+    private static final String NO_BROWSER_TYPE = "";
+
     /** The ServiceRegistry to look up the service. */
     @Autowired
     @Qualifier("servicesManager")
@@ -47,6 +64,14 @@ public final class ServiceThemeResolver extends AbstractThemeResolver {
 
     private Map<Pattern, String> overrides = new HashMap<>();
 
+    private final Cache<String, String> browserTypes = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_USER_AGENTS).build();
+
+    private final Cache<String, Boolean> themeBundles = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_THEME_BUNDLES).build();
+
+    private final CasThemeResourceBundleMessageSource messageSource = new CasThemeResourceBundleMessageSource();
+
     @Override
     public String resolveThemeName(final HttpServletRequest request) {
         if (this.servicesManager == null) {
@@ -59,12 +84,10 @@ public final class ServiceThemeResolver extends AbstractThemeResolver {
             return getDefaultThemeName();
         }
 
-        for (final Map.Entry<Pattern, String> entry : this.overrides.entrySet()) {
-            if (entry.getKey().matcher(userAgent).matches()) {
-                request.setAttribute("isMobile", "true");
-                request.setAttribute("browserType", entry.getValue());
-                break;
-            }
+        final String browserType = getBrowserType(userAgent);
+        if (!NO_BROWSER_TYPE.equals(browserType)) {
+            request.setAttribute("isMobile", "true");
+            request.setAttribute("browserType", browserType);
         }
 
         final RequestContext context = RequestContextHolder.getRequestContext();
@@ -74,9 +97,7 @@ public final class ServiceThemeResolver extends AbstractThemeResolver {
             if (rService != null && rService.getAccessStrategy().isServiceAccessAllowed()
                     && StringUtils.isNotBlank(rService.getTheme())) {
                 LOGGER.debug("Service [{}] is configured to use a custom theme [{}]", rService, rService.getTheme());
-                final CasThemeResourceBundleMessageSource messageSource = new CasThemeResourceBundleMessageSource();
-                messageSource.setBasename(rService.getTheme());
-                if (messageSource.doGetBundle(rService.getTheme(), request.getLocale()) != null) {
+                if (isThemeBundleAvailable(rService.getTheme(), request.getLocale())) {
                     LOGGER.debug("Found custom theme [{}] for service [{}]", rService.getTheme(), rService);
                     return rService.getTheme();
                 } else {
@@ -88,6 +109,15 @@ public final class ServiceThemeResolver extends AbstractThemeResolver {
         return getDefaultThemeName();
     }
 
+    @Override
+    public void onApplicationEvent(final AbstractCasEvent event) {
+        if (event instanceof CasRegisteredServiceSavedEvent
+                || event instanceof CasRegisteredServiceDeletedEvent
+                || event instanceof CasRegisteredServicesLoadedEvent) {
+            this.themeBundles.invalidateAll();
+        }
+    }
+
     @Override
     public void setThemeName(final HttpServletRequest request, final HttpServletResponse response, final String themeName) {
         // nothing to do here
@@ -120,6 +150,45 @@ public final class ServiceThemeResolver extends AbstractThemeResolver {
         for (final Map.Entry<String, String> entry : mobileOverrides.entrySet()) {
             this.overrides.put(Pattern.compile(entry.getKey()), entry.getValue());
         }
+        this.browserTypes.invalidateAll();
+    }
+
+    /**
+     * Match the user agent against the mobile browser overrides.
+     *
+     * @param userAgent the user agent
+     * @return the browser type of the first matching override, or {@link #NO_BROWSER_TYPE}.
+     */
+    private String getBrowserType(final String userAgent) {
+        String browserType = this.browserTypes.getIfPresent(userAgent);
+        if (browserType == null) {
+            browserType = NO_BROWSER_TYPE;
+            for (final Map.Entry<Pattern, String> entry : this.overrides.entrySet()) {
+                if (entry.getKey().matcher(userAgent).matches()) {
+                    browserType = entry.getValue();
+                    break;
+                }
+            }
+            this.browserTypes.put(userAgent, browserType);
+        }
+        return browserType;
+    }
+
+    /**
+     * Determine whether a non-empty bundle exists for the theme and locale.
+     *
+     * @param theme the theme
+     * @param locale the locale
+     * @return true if the bundle exists
+     */
+    private boolean isThemeBundleAvailable(final String theme, final Locale locale) {
+        final String key = theme + '|' + locale;
+        Boolean available = this.themeBundles.getIfPresent(key);
+        if (available == null) {
+            available = this.messageSource.doGetBundle(theme, locale) != null;
+            this.themeBundles.put(key, available);
+        }
+        return available;
     }
 
     private static class CasThemeResourceBundleMessageSource extends ResourceBundleMessageSource {
@@ -5,12 +5,17 @@ import org.jasig.cas.authentication.principal.WebApplicationServiceFactory;
 import org.jasig.cas.services.DefaultServicesManagerImpl;
 import org.jasig.cas.services.InMemoryServiceRegistryDaoImpl;
 import org.jasig.cas.services.RegisteredServiceImpl;
+import org.jasig.cas.support.events.CasRegisteredServiceSavedEvent;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.web.servlet.View;
 import org.springframework.webflow.execution.RequestContextHolder;
 import org.springframework.webflow.test.MockRequestContext;
 
+import java.util.Locale;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
@@ -80,4 +85,24 @@ public class RegisteredServiceThemeBasedViewResolverTests {
         assertEquals("/WEB-INF/view/jsp/default/ui/casLoginView",
                 this.registeredServiceThemeBasedViewResolver.buildView("casLoginView").getUrl());
     }
+
+    @Test
+    public void verifyViewsCachedPerTheme() throws Exception {
+        this.registeredServiceThemeBasedViewResolver.setApplicationContext(new StaticApplicationContext());
+        final MockRequestContext requestContext = new MockRequestContext();
+        RequestContextHolder.setRequestContext(requestContext);
+
+        requestContext.getFlowScope().put("service", new WebApplicationServiceFactory().createService("myServiceId"));
+        final View themed = this.registeredServiceThemeBasedViewResolver.resolveViewName("casLoginView", Locale.ENGLISH);
+        assertSame(themed, this.registeredServiceThemeBasedViewResolver.resolveViewName("casLoginView", Locale.ENGLISH));
+
+        requestContext.getFlowScope().put("service", new WebApplicationServiceFactory().createService("myDefaultId"));
+        final View defaultView = this.registeredServiceThemeBasedViewResolver.resolveViewName("casLoginView", Locale.ENGLISH);
+        assertNotSame(themed, defaultView);
+        assertSame(defaultView, this.registeredServiceThemeBasedViewResolver.resolveViewName("casLoginView", Locale.ENGLISH));
+
+        this.registeredServiceThemeBasedViewResolver.onApplicationEvent(
+                new CasRegisteredServiceSavedEvent(this, this.servicesManager.findServiceBy(1001)));
+        assertNotSame(defaultView, this.registeredServiceThemeBasedViewResolver.resolveViewName("casLoginView", Locale.ENGLISH));
+    }
 }
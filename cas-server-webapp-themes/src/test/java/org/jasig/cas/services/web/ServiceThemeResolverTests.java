@@ -80,6 +80,20 @@ public class ServiceThemeResolverTests {
         assertEquals("test", this.serviceThemeResolver.resolveThemeName(request));
     }
 
-
-
+    @Test
+    public void verifyBrowserTypeOfKnownUserAgent() {
+        for (int i = 0; i < 2; i++) {
+            final MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("User-Agent", "Mozilla");
+            this.serviceThemeResolver.resolveThemeName(request);
+            assertEquals("true", request.getAttribute("isMobile"));
+            assertEquals("theme", request.getAttribute("browserType"));
+
+            final MockHttpServletRequest other = new MockHttpServletRequest();
+            other.addHeader("User-Agent", "Opera");
+            this.serviceThemeResolver.resolveThemeName(other);
+            assertNull(other.getAttribute("isMobile"));
+            assertNull(other.getAttribute("browserType"));
+        }
+    }
 }
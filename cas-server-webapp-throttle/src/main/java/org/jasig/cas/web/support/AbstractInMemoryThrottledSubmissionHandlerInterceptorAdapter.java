@@ -1,5 +1,7 @@
 package org.jasig.cas.web.support;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.jasig.cas.util.CasSpringBeanJobFactory;
 import org.quartz.Job;
 import org.quartz.JobBuilder;
@@ -22,20 +24,18 @@ import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of a HandlerInterceptorAdapter that keeps track of a mapping
  * of IP Addresses to number of failures to authenticate.
  * <p>
- * Note, this class relies on an external method for decrementing the counts
- * (i.e. a Quartz Job) and runs independent of the threshold of the parent.
+ * The time of the last failure is kept per key in a segmented cache. An entry expires once
+ * the time elapsed since that failure implies a submission rate below the threshold, at which
+ * point it could no longer cause a submission to be throttled. Expired entries are evicted
+ * as part of regular cache operations, so no sweep over all keys is required; the Quartz job
+ * merely performs pending evictions for keys that are no longer accessed.
  *
  * @author Scott Battaglia
  * @since 3.0.0
@@ -45,6 +45,8 @@ public abstract class AbstractInMemoryThrottledSubmissionHandlerInterceptorAdapt
 
     private static final double SUBMISSION_RATE_DIVIDEND = 1000.0;
 
+    private static final int CONCURRENCY_LEVEL = 16;
+
     @Value("${cas.throttle.inmemory.cleaner.repeatinterval:5000}")
     private int refreshInterval;
 
@@ -55,20 +57,26 @@ public abstract class AbstractInMemoryThrottledSubmissionHandlerInterceptorAdapt
     @NotNull
     private ApplicationContext applicationContext;
 
-    private final ConcurrentMap<String, Date> ipMap = new ConcurrentHashMap<>();
+    private Cache<String, Long> ipMap = createFailureCache(0);
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        super.afterPropertiesSet();
+        this.ipMap = createFailureCache(getThresholdRate());
+    }
 
     @Override
     protected final boolean exceedsThreshold(final HttpServletRequest request) {
-        final Date last = this.ipMap.get(constructKey(request));
+        final Long last = this.ipMap.getIfPresent(constructKey(request));
         if (last == null) {
             return false;
         }
-        return submissionRate(new Date(), last) > getThresholdRate();
+        return submissionRate(System.currentTimeMillis(), last) > getThresholdRate();
     }
 
     @Override
     protected final void recordSubmissionFailure(final HttpServletRequest request) {
-        this.ipMap.put(constructKey(request), new Date());
+        this.ipMap.put(constructKey(request), System.currentTimeMillis());
     }
 
     /**
@@ -80,33 +88,39 @@ public abstract class AbstractInMemoryThrottledSubmissionHandlerInterceptorAdapt
     protected abstract String constructKey(HttpServletRequest request);
 
     /**
-     * This class relies on an external configuration to clean it up. It ignores the threshold data in the parent class.
+     * Evict the entries whose submission rate has dropped below the threshold.
      */
     public final void decrementCounts() {
-        final Set<Map.Entry<String, Date>> keys = this.ipMap.entrySet();
-        logger.debug("Decrementing counts for throttler.  Starting key count: {}", keys.size());
-
-        final Date now = new Date();
-        for (final Iterator<Map.Entry<String, Date>> iter = keys.iterator(); iter.hasNext();) {
-            final Map.Entry<String, Date> entry = iter.next();
-            if (submissionRate(now, entry.getValue()) < getThresholdRate()) {
-                logger.trace("Removing entry for key {}", entry.getKey());
-                iter.remove();
-            }
-        }
+        logger.debug("Decrementing counts for throttler.  Starting key count: {}", this.ipMap.size());
+        this.ipMap.cleanUp();
         logger.debug("Done decrementing count for throttler.");
     }
 
     /**
-     * Computes the instantaneous rate in between two given dates corresponding to two submissions.
+     * Computes the instantaneous rate in between two given times corresponding to two submissions.
      *
-     * @param a First date.
-     * @param b Second date.
+     * @param a First time in milliseconds.
+     * @param b Second time in milliseconds.
      *
      * @return  Instantaneous submission rate in submissions/sec, e.g. {@code a - b}.
      */
-    private static double submissionRate(final Date a, final Date b) {
-        return SUBMISSION_RATE_DIVIDEND / (a.getTime() - b.getTime());
+    private static double submissionRate(final long a, final long b) {
+        return SUBMISSION_RATE_DIVIDEND / (a - b);
+    }
+
+    /**
+     * Creates the cache of last failure times. Entries expire after the interval
+     * below which two submissions exceed the threshold rate.
+     *
+     * @param thresholdRate the threshold rate in submissions/sec
+     * @return the cache
+     */
+    private static Cache<String, Long> createFailureCache(final double thresholdRate) {
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(CONCURRENCY_LEVEL);
+        if (thresholdRate > 0) {
+            builder.expireAfterWrite((long) Math.ceil(SUBMISSION_RATE_DIVIDEND / thresholdRate), TimeUnit.MILLISECONDS);
+        }
+        return builder.build();
     }
 
 
@@ -95,6 +95,8 @@ public class InspektrThrottledSubmissionByIpAddressAndUsernameHandlerInterceptor
 
         if (this.dataSource != null) {
             this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+            // only the two most recent failures are needed to compute the submission rate
+            this.jdbcTemplate.setMaxRows(2);
         } else {
             logger.debug("No data source is defined for {}. Ignoring the construction of JDBC template",
                     this.getName());
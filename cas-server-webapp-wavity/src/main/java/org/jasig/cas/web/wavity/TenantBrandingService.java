@@ -0,0 +1,259 @@
+package org.jasig.cas.web.wavity;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.InitialLdapContext;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.Rdn;
+import java.util.Hashtable;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the branding logos of tenants and cloud services in LDAP.
+ *
+ * <p>Logos are kept in a cache bounded by their total size and expired after a
+ * time-to-live, so that rendering the login and logout pages does not go to LDAP.
+ * Names without a logo are cached as well, but failed lookups are not, so that an LDAP
+ * outage does not hide logos for a whole time-to-live. Lookups that do go to LDAP use the
+ * pooled connections of the JNDI LDAP provider, and close their context when done.
+ * Names are escaped before they are placed into a DN.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class TenantBrandingService {
+
+    /** Default LDAP url of the branding entries. */
+    public static final String DEFAULT_LDAP_URL = "ldap://wavitydevelopmentldap:389";
+
+    private static final String LOGO_ATTRIBUTE = "jpegPhoto;portalBranding;binary";
+
+    private static final String LOGO_FILTER = LOGO_ATTRIBUTE + "=*";
+
+    private static final long DEFAULT_TIME_TO_LIVE_IN_SECONDS = 300;
+
+    private static final long DEFAULT_MAX_CACHE_SIZE_IN_BYTES = 16 * 1024 * 1024;
+
+    private static final int DEFAULT_TIMEOUT_IN_MILLIS = 5000;
+
+    /**
+     * Types of entries that carry a logo.
+     */
+    public enum LogoType {
+        /** Tenant entries. */
+        TENANT("cn=%s,o=tenants,dc=wavity,dc=com"),
+        /** Cloud service entries. */
+        SERVICE("wavityCloudServiceName=%s,o=Cloud Services,dc=wavity,dc=com");
+
+        private final String dnPattern;
+
+        LogoType(final String dnPattern) {
+            this.dnPattern = dnPattern;
+        }
+
+        String getDn(final String name) {
+            return String.format(this.dnPattern, Rdn.escapeValue(name));
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final String ldapUrl;
+
+    private final long timeToLiveInSeconds;
+
+    private final int timeoutInMillis;
+
+    private final LoadingCache<Key, Optional<Logo>> logos;
+
+    /**
+     * Instantiates a new service against the default LDAP url.
+     */
+    public TenantBrandingService() {
+        this(DEFAULT_LDAP_URL, DEFAULT_TIME_TO_LIVE_IN_SECONDS, DEFAULT_MAX_CACHE_SIZE_IN_BYTES, DEFAULT_TIMEOUT_IN_MILLIS);
+    }
+
+    /**
+     * Instantiates a new service.
+     *
+     * @param ldapUrl the LDAP url of the branding entries
+     * @param timeToLiveInSeconds how long logos, or their absence, are cached
+     * @param maxCacheSizeInBytes the total size of the cached logos
+     * @param timeoutInMillis the LDAP connect and read timeout
+     */
+    public TenantBrandingService(final String ldapUrl, final long timeToLiveInSeconds, final long maxCacheSizeInBytes,
+                                 final int timeoutInMillis) {
+        this.ldapUrl = ldapUrl;
+        this.timeToLiveInSeconds = timeToLiveInSeconds;
+        this.timeoutInMillis = timeoutInMillis;
+        this.logos = CacheBuilder.newBuilder()
+                .maximumWeight(maxCacheSizeInBytes)
+                .weigher(new Weigher<Key, Optional<Logo>>() {
+                    @Override
+                    public int weigh(final Key key, final Optional<Logo> logo) {
+                        return logo.isPresent() ? logo.get().getContent().length : key.name.length() + 1;
+                    }
+                })
+                .expireAfterWrite(timeToLiveInSeconds, TimeUnit.SECONDS)
+                .build(new CacheLoader<Key, Optional<Logo>>() {
+                    @Override
+                    public Optional<Logo> load(final Key key) throws NamingException {
+                        final byte[] content = fetchLogo(key.type, key.name);
+                        return content == null ? Optional.<Logo>absent() : Optional.of(new Logo(content));
+                    }
+                });
+    }
+
+    /**
+     * Gets the logo of an entry.
+     *
+     * @param type the type of entry
+     * @param name the tenant or cloud service name
+     * @return the logo, or null if the entry has none
+     */
+    public Logo getLogo(final LogoType type, final String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        try {
+            return this.logos.get(new Key(type, name.toLowerCase(Locale.ENGLISH))).orNull();
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            logger.warn("Unable to fetch the logo of {} {}: {}", type, name, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    public long getTimeToLiveInSeconds() {
+        return this.timeToLiveInSeconds;
+    }
+
+    /**
+     * Fetch the logo of an entry from LDAP.
+     *
+     * @param type the type of entry
+     * @param name the lower case name of the entry
+     * @return the logo bytes, or null if the entry has none
+     * @throws NamingException if LDAP could not be searched
+     */
+    protected byte[] fetchLogo(final LogoType type, final String name) throws NamingException {
+        final Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
+        env.put(Context.PROVIDER_URL, this.ldapUrl);
+        env.put("java.naming.ldap.attributes.binary", LOGO_ATTRIBUTE);
+        env.put("com.sun.jndi.ldap.connect.pool", "true");
+        env.put("com.sun.jndi.ldap.connect.timeout", String.valueOf(this.timeoutInMillis));
+        env.put("com.sun.jndi.ldap.read.timeout", String.valueOf(this.timeoutInMillis));
+
+        final SearchControls searchControls = new SearchControls();
+        searchControls.setSearchScope(SearchControls.OBJECT_SCOPE);
+        searchControls.setReturningAttributes(new String[] {LOGO_ATTRIBUTE});
+
+        LdapContext ctx = null;
+        try {
+            ctx = new InitialLdapContext(env, null);
+            final NamingEnumeration<SearchResult> results = ctx.search(type.getDn(name), LOGO_FILTER, searchControls);
+            try {
+                if (!results.hasMore()) {
+                    return null;
+                }
+                final Attribute attr = results.next().getAttributes().get(LOGO_ATTRIBUTE);
+                return attr == null ? null : (byte[]) attr.get();
+            } finally {
+                results.close();
+            }
+        } catch (final NameNotFoundException e) {
+            logger.debug("No {} entry named {}", type, name);
+            return null;
+        } finally {
+            if (ctx != null) {
+                try {
+                    ctx.close();
+                } catch (final NamingException e) {
+                    logger.debug("Unable to close the LDAP context", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A logo and its version.
+     */
+    public static final class Logo {
+        private final byte[] content;
+
+        private final String version;
+
+        /**
+         * Instantiates a new logo.
+         *
+         * @param content the JPEG bytes
+         */
+        public Logo(final byte[] content) {
+            this.content = content;
+            this.version = DigestUtils.md5Hex(content);
+        }
+
+        public byte[] getContent() {
+            return this.content;
+        }
+
+        /**
+         * Gets a digest of the content, which changes whenever the logo does.
+         *
+         * @return the version
+         */
+        public String getVersion() {
+            return this.version;
+        }
+
+        public String getEtag() {
+            return '"' + this.version + '"';
+        }
+    }
+
+    /**
+     * Cache key of a logo.
+     */
+    private static final class Key {
+        private final LogoType type;
+
+        private final String name;
+
+        Key(final LogoType type, final String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.type == other.type && this.name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.type, this.name);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.jasig.cas.web.wavity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves the branding logos of tenants and cloud services, at
+ * {@code /branding/tenant/<name>} and {@code /branding/service/<name>}.
+ *
+ * <p>Responses carry an entity tag and may be cached for the time-to-live of the
+ * logo cache, so that browsers fetch a logo once rather than with every page.
+ * The servlet creates the {@link TenantBrandingService} used by {@link ThemeUtils}
+ * from its init parameters {@code ldapUrl}, {@code timeToLiveInSeconds},
+ * {@code maxCacheSizeInBytes} and {@code timeoutInMillis}.</p>
+ *
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class TenantBrandingServlet extends HttpServlet {
+
+    /** Path of the servlet, relative to the context. */
+    public static final String SERVLET_PATH = "/branding";
+
+    private static final long serialVersionUID = -2530370165627426512L;
+
+    /** Path of tenant logos, relative to the servlet. */
+    static final String TENANT_PREFIX = "/tenant/";
+
+    /** Path of cloud service logos, relative to the servlet. */
+    static final String SERVICE_PREFIX = "/service/";
+
+    private final transient Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private transient TenantBrandingService brandingService;
+
+    @Override
+    public void init() throws ServletException {
+        final String ldapUrl = getParameter("ldapUrl", TenantBrandingService.DEFAULT_LDAP_URL);
+        this.brandingService = new TenantBrandingService(ldapUrl,
+                Long.parseLong(getParameter("timeToLiveInSeconds", "300")),
+                Long.parseLong(getParameter("maxCacheSizeInBytes", "16777216")),
+                Integer.parseInt(getParameter("timeoutInMillis", "5000")));
+        ThemeUtils.setBrandingService(this.brandingService);
+        logger.info("Serving branding logos from {}", ldapUrl);
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final String path = request.getPathInfo();
+        final TenantBrandingService.Logo logo;
+        if (path != null && path.startsWith(TENANT_PREFIX)) {
+            logo = this.brandingService.getLogo(TenantBrandingService.LogoType.TENANT, path.substring(TENANT_PREFIX.length()));
+        } else if (path != null && path.startsWith(SERVICE_PREFIX)) {
+            logo = this.brandingService.getLogo(TenantBrandingService.LogoType.SERVICE, path.substring(SERVICE_PREFIX.length()));
+        } else {
+            logo = null;
+        }
+
+        if (logo == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader("ETag", logo.getEtag());
+        response.setHeader("Cache-Control", "public, max-age=" + this.brandingService.getTimeToLiveInSeconds());
+        if (logo.getEtag().equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType("image/jpeg");
+        response.setContentLength(logo.getContent().length);
+        response.getOutputStream().write(logo.getContent());
+    }
+
+    /**
+     * Sets the branding service, instead of creating one on init.
+     *
+     * @param brandingService the branding service
+     */
+    public void setBrandingService(final TenantBrandingService brandingService) {
+        this.brandingService = brandingService;
+    }
+
+    private String getParameter(final String name, final String defaultValue) {
+        final String value = getInitParameter(name);
+        return value == null ? defaultValue : value;
+    }
+}
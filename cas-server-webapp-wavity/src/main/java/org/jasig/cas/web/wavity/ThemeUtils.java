@@ -1,20 +1,11 @@
 
 package org.jasig.cas.web.wavity;
 
-import java.util.Base64;
-import java.util.Hashtable;
-
-import javax.naming.Context;
-import javax.naming.NamingEnumeration;
-import javax.naming.NamingException;
-import javax.naming.directory.Attribute;
-import javax.naming.directory.Attributes;
-import javax.naming.directory.SearchControls;
-import javax.naming.directory.SearchResult;
-import javax.naming.ldap.InitialLdapContext;
-import javax.naming.ldap.LdapContext;
+import java.util.Locale;
+
 import javax.servlet.http.HttpServletRequest;
 
+import com.google.common.net.UrlEscapers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,22 +17,18 @@ import org.slf4j.LoggerFactory;
  */
 public final class ThemeUtils
 {
-  /**
-   * Tenants API suffix
-   */
-  private static final String ENTRY_TYPE_TENANTS = "Tenants";
-
-  /**
-   * Service API suffix
-   */
-  private static final String ENTRY_TYPE_SERVICE = "CloudServices";
-
   /**
    * logger
    */
   private static final Logger LOG =
       LoggerFactory.getLogger(ThemeUtils.class);
 
+  /**
+   * The branding service shared by the views.
+   */
+  private static volatile TenantBrandingService brandingService =
+      new TenantBrandingService();
+
 
 
   /**
@@ -55,17 +42,29 @@ public final class ThemeUtils
 
 
 
+  /**
+   * Sets the branding service shared by the views.
+   *
+   * @param service the branding service
+   */
+  public static void setBrandingService(final TenantBrandingService service)
+  {
+    brandingService = service;
+  }
+
+
+
   /**
    * Fetches the tenant LOGO.
    *
    * @param tenantName
-   * @return JSON string | null
+   * @return the URL of the logo | null
    */
   public static final String fetchTenantLogo(
       final HttpServletRequest request, final String tenantName)
   {
-    return fetchJpegPhotoFromLdap(request, tenantName,
-        ENTRY_TYPE_TENANTS);
+    return fetchLogoUrl(request, tenantName,
+        TenantBrandingService.LogoType.TENANT);
   }
 
 
@@ -74,91 +73,47 @@ public final class ThemeUtils
    * Fetches the APP LOGO.
    *
    * @param appName
-   * @return JSON string | null
+   * @return the URL of the logo | null
    */
   public static final String fetchAppLogo(
       final HttpServletRequest request, final String appName)
   {
-    return fetchJpegPhotoFromLdap(request, appName,
-        ENTRY_TYPE_SERVICE);
+    return fetchLogoUrl(request, appName,
+        TenantBrandingService.LogoType.SERVICE);
   }
 
 
 
   /**
-   * Fetches the JPEG photo from LDAP.
+   * Builds the URL the logo is served from by the
+   * {@link TenantBrandingServlet}. The URL carries the version of the logo,
+   * so that a changed logo is not hidden by browser caches.
    *
    * @param request the object of HTTP SERVLET request.
    * @param name the name of Tenant or APP.
    * @param type the type of LDAP entry.
    */
-  private static final String fetchJpegPhotoFromLdap(
+  private static final String fetchLogoUrl(
       final HttpServletRequest request, final String name,
-      final String type)
+      final TenantBrandingService.LogoType type)
   {
-    final Hashtable<String, String> env =
-        new Hashtable<String, String>(11);
-    env.put(Context.INITIAL_CONTEXT_FACTORY,
-        "com.sun.jndi.ldap.LdapCtxFactory");
-    env.put(Context.PROVIDER_URL, "ldap://wavitydevelopmentldap:389");
-    env.put("java.naming.ldap.attributes.binary", "jpegPhoto;portalBranding;binary");
-    final LdapContext ctx;
-    final String ldapSearchBase;
-    if (type.equals(ENTRY_TYPE_TENANTS))
-    {
-      ldapSearchBase = String.format(
-          "cn=%s,o=tenants,dc=wavity,dc=com", name.toLowerCase());
-    }
-    else if (type.equals(ENTRY_TYPE_SERVICE))
-    {
-      ldapSearchBase = String.format(
-          "wavityCloudServiceName=%s,o=Cloud Services,dc=wavity,dc=com",
-          name.toLowerCase());
-    }
-    else
-    {
-      ldapSearchBase = String.format(
-          "cn=%s,o=tenants,dc=wavity,dc=com", name.toLowerCase());
-    }
-    final String searchFilter = "jpegPhoto;portalBranding;binary=*";
-    final SearchControls searchControls = new SearchControls();
-    searchControls.setSearchScope(SearchControls.OBJECT_SCOPE);
-    try
-    {
-      ctx = new InitialLdapContext(env, null);
-      final NamingEnumeration<SearchResult> results =
-          ctx.search(ldapSearchBase, searchFilter, searchControls);
-      SearchResult searchResult = null;
-      if (results.hasMoreElements())
-      {
-        searchResult = results.nextElement();
-      }
-      if (searchResult == null)
-      {
-        return null;
-      }
-      final Attributes attrs = searchResult.getAttributes();
-      final Attribute attr = attrs.get("jpegPhoto;portalBranding;binary");
-      if (attr != null)
-      {
-        final byte[] jpegByte = (byte[]) attr.get();
-        final String base64EncodedJpegPhoto =
-            Base64.getEncoder().encodeToString(jpegByte);
-        final StringBuilder builder = new StringBuilder();
-        builder
-            .append("data:image/jpeg;base64,")
-            .append(base64EncodedJpegPhoto);
-        return builder.toString();
-      }
-      ctx.close();
-    }
-    catch (final NamingException e)
-    {
-      LOG.warn("No search result found");
-    }
-    finally
+    final TenantBrandingService.Logo logo =
+        brandingService.getLogo(type, name);
+    if (logo == null)
     {
+      LOG.debug("No logo found for {} {}", type, name);
+      return null;
     }
-    return null;
+    return new StringBuilder()
+        .append(request.getContextPath())
+        .append(TenantBrandingServlet.SERVLET_PATH)
+        .append(type == TenantBrandingService.LogoType.TENANT
+            ? TenantBrandingServlet.TENANT_PREFIX
+            : TenantBrandingServlet.SERVICE_PREFIX)
+        .append(UrlEscapers.urlPathSegmentEscaper()
+            .escape(name.toLowerCase(Locale.ENGLISH)))
+        .append("?v=")
+        .append(logo.getVersion())
+        .toString();
   }
 }
@@ -0,0 +1,107 @@
+package org.jasig.cas.web.wavity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.naming.CommunicationException;
+import javax.naming.NamingException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Misagh Moayyed
+ * @since 4.3
+ */
+public class TenantBrandingServletTests {
+
+    private static final byte[] LOGO = "logo".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final AtomicBoolean ldapDown = new AtomicBoolean();
+
+    private TenantBrandingServlet servlet;
+
+    @Before
+    public void setUp() {
+        final TenantBrandingService service = new TenantBrandingService("ldap://localhost:389", 300, 1024, 1000) {
+            @Override
+            protected byte[] fetchLogo(final LogoType type, final String name) throws NamingException {
+                lookups.incrementAndGet();
+                if (ldapDown.get()) {
+                    throw new CommunicationException("ldap is down");
+                }
+                return type == LogoType.TENANT && "acme".equals(name) ? LOGO : null;
+            }
+        };
+        this.servlet = new TenantBrandingServlet();
+        this.servlet.setBrandingService(service);
+        ThemeUtils.setBrandingService(service);
+    }
+
+    @Test
+    public void verifyLogoIsServedWithCacheHeaders() throws Exception {
+        final MockHttpServletResponse response = get("/tenant/acme", null);
+        assertEquals(200, response.getStatus());
+        assertEquals("image/jpeg", response.getContentType());
+        assertArrayEquals(LOGO, response.getContentAsByteArray());
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals("public, max-age=300", response.getHeader("Cache-Control"));
+
+        final MockHttpServletResponse cached = get("/tenant/acme", response.getHeader("ETag"));
+        assertEquals(304, cached.getStatus());
+        assertEquals(0, cached.getContentAsByteArray().length);
+        assertEquals(1, this.lookups.get());
+    }
+
+    @Test
+    public void verifyMissingLogo() throws Exception {
+        assertEquals(404, get("/tenant/unknown", null).getStatus());
+        assertEquals(404, get("/tenant/unknown", null).getStatus());
+        assertEquals(404, get("/other/acme", null).getStatus());
+        assertEquals(1, this.lookups.get());
+    }
+
+    @Test
+    public void verifyFailedLookupIsNotCached() throws Exception {
+        this.ldapDown.set(true);
+        assertEquals(404, get("/tenant/acme", null).getStatus());
+
+        this.ldapDown.set(false);
+        assertEquals(200, get("/tenant/acme", null).getStatus());
+        assertEquals(2, this.lookups.get());
+    }
+
+    @Test
+    public void verifyNamesAreEscapedInDn() {
+        assertEquals("cn=a\\,b\\=c,o=tenants,dc=wavity,dc=com",
+                TenantBrandingService.LogoType.TENANT.getDn("a,b=c"));
+    }
+
+    @Test
+    public void verifyViewsReferenceLogoUrl() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContextPath("/auth");
+        final String url = ThemeUtils.fetchTenantLogo(request, "ACME");
+        assertTrue(url.startsWith("/auth/branding/tenant/acme?v="));
+        assertNull(ThemeUtils.fetchTenantLogo(request, ""));
+        assertNull(ThemeUtils.fetchAppLogo(request, "acme"));
+        assertNull(ThemeUtils.fetchTenantLogo(request, "a,b=c"));
+    }
+
+    private MockHttpServletResponse get(final String pathInfo, final String etag) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/branding" + pathInfo);
+        request.setPathInfo(pathInfo);
+        if (etag != null) {
+            request.addHeader("If-None-Match", etag);
+        }
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        this.servlet.doGet(request, response);
+        return response;
+    }
+}